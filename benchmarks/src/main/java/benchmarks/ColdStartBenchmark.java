@@ -0,0 +1,78 @@
+package benchmarks;
+
+import core.cfgRd.annotation.AnnotationBeanFactory;
+import core.cfgRd.json.JsonBeanFactory;
+import core.ioc.DefaultListableBeanFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First start of a container in a fresh JVM, with and without a snapshot of the Bean definitions.
+ * Each fork measures a single start, so class loading and the interpreter are part of the time.
+ * The snapshots are written by a separate JVM before the trial, which keeps the measured JVM cold.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+    private static final Path JSON_SNAPSHOT = Paths.get(System.getProperty("java.io.tmpdir"), "benchmark-beans.snapshot");
+    private static final Path ANNOTATION_SNAPSHOT = Paths.get(System.getProperty("java.io.tmpdir"), "benchmark-annotation.snapshot");
+
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    @Setup(Level.Trial)
+    public void writeSnapshots() throws Exception {
+        if (snapshot) {
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ColdStartBenchmark.class.getName())
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Writing the snapshots failed");
+            }
+        }
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory annotation() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new AnnotationBeanFactory("beans.cfgRd.annotation", beanFactory, snapshot ? ANNOTATION_SNAPSHOT : null);
+        beanFactory.refresh();
+        return beanFactory;
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory json() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new JsonBeanFactory("benchmark-beans.json", beanFactory, snapshot ? JSON_SNAPSHOT : null);
+        beanFactory.refresh();
+        return beanFactory;
+    }
+
+    /**
+     * Writes the snapshots read by the benchmarks, or leaves them if they are up to date.
+     */
+    public static void main(String[] args) {
+        new AnnotationBeanFactory("beans.cfgRd.annotation", new DefaultListableBeanFactory(), ANNOTATION_SNAPSHOT);
+        new JsonBeanFactory("benchmark-beans.json", new DefaultListableBeanFactory(), JSON_SNAPSHOT);
+    }
+}
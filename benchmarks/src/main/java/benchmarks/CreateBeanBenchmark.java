@@ -0,0 +1,76 @@
+package benchmarks;
+
+import beans.ioc.Dependency;
+import beans.ioc.Service;
+import core.cfgRd.annotation.Autowired;
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DefaultListableBeanFactory.createBean with each kind of injection. The dependency is a singleton
+ * created during setup, so only the creation of the Bean itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateBeanBenchmark {
+
+    private DefaultListableBeanFactory beanFactory;
+    private BeanDefinition setterInjection;
+    private BeanDefinition constructorInjection;
+    private BeanDefinition autowiredInjection;
+
+    @Setup
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("dependency", new BeanDefinition(Dependency.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null));
+        setterInjection = new BeanDefinition(Service.class, InjectionType.SETTER, ScopeType.PROTOTYPE, null, null);
+        constructorInjection = new BeanDefinition(Service.class, InjectionType.CONSTRUCTOR, ScopeType.PROTOTYPE, null, null);
+        autowiredInjection = new BeanDefinition(AutowiredService.class, null, ScopeType.PROTOTYPE, null, null);
+        beanFactory.registerBeanDefinition("setterService", setterInjection);
+        beanFactory.registerBeanDefinition("constructorService", constructorInjection);
+        beanFactory.registerBeanDefinition("autowiredService", autowiredInjection);
+        beanFactory.getBean("dependency");
+    }
+
+    @Benchmark
+    public Object setter() throws Exception {
+        return beanFactory.createBean("setterService", setterInjection);
+    }
+
+    @Benchmark
+    public Object constructor() throws Exception {
+        return beanFactory.createBean("constructorService", constructorInjection);
+    }
+
+    @Benchmark
+    public Object autowired() throws Exception {
+        return beanFactory.createBean("autowiredService", autowiredInjection);
+    }
+
+    public static class AutowiredService {
+        @Autowired
+        private Dependency dependency;
+
+        public Dependency getDependency() {
+            return dependency;
+        }
+    }
+}
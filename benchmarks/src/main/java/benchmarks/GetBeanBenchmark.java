@@ -0,0 +1,56 @@
+package benchmarks;
+
+import beans.ioc.Dependency;
+import beans.ioc.Service;
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.SimpleIOC;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimpleIOC.getBean for a singleton already in the cache, and for a prototype created on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBeanBenchmark {
+
+    private SimpleIOC ioc;
+
+    @Setup
+    public void setUp() {
+        ioc = new SimpleIOC();
+        ioc.registerBean("dependency", Dependency.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("service", Service.class, InjectionType.CONSTRUCTOR, ScopeType.PROTOTYPE, null, null);
+        ioc.getBean("dependency");
+    }
+
+    @Benchmark
+    public Object singleton() {
+        return ioc.getBean("dependency");
+    }
+
+    @Benchmark
+    public Object singletonByType() {
+        return ioc.getBean(Dependency.class);
+    }
+
+    @Benchmark
+    public Object prototype() {
+        return ioc.getBean("service");
+    }
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import core.aop.impl.AbstractHookAdvice;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls through a ProxyFactory proxy with a number of pass-through advices, against a direct call,
+ * for both proxy engines, with around or hook advices, and with compiled or fused advice chains.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProxyInvocationBenchmark {
+
+    @Param({"0", "1", "8"})
+    public int advices;
+
+    @Param({"JDK", "BYTECODE"})
+    public ProxyEngine engine;
+
+    @Param({"around", "hook"})
+    public String adviceKind;
+
+    @Param({"false", "true"})
+    public boolean fused;
+
+    private Calculator target;
+    private Calculator proxy;
+    private int value;
+
+    @Setup
+    public void setUp() {
+        target = new SimpleCalculator();
+        List<Advice> adviceList = new ArrayList<>();
+        for (int i = 0; i < advices; i++) {
+            adviceList.add("hook".equals(adviceKind) ? new EmptyHookAdvice() : new PassThroughAdvice());
+        }
+        proxy = (Calculator) ProxyFactory.getProxy(target, adviceList, engine, fused);
+    }
+
+    @Benchmark
+    public int direct() {
+        return target.add(value++, 1);
+    }
+
+    @Benchmark
+    public int proxied() {
+        return proxy.add(value++, 1);
+    }
+
+    public interface Calculator {
+        int add(int a, int b);
+    }
+
+    public static class SimpleCalculator implements Calculator {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+    }
+
+    /**
+     * Advice that only proceeds, so that the benchmark measures the chain itself.
+     */
+    public static class PassThroughAdvice implements Advice {
+        @Override
+        public void before(Object target, Method method, Object[] args) {
+        }
+
+        @Override
+        public void after(Object target, Method method, Object[] args, Object result) {
+        }
+
+        @Override
+        public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+        }
+
+        @Override
+        public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+            return adviceChain.invokeNext(target, method, args);
+        }
+    }
+
+    /**
+     * Advice with empty hooks, which fused chains call without an around frame.
+     */
+    public static class EmptyHookAdvice extends AbstractHookAdvice {
+    }
+}
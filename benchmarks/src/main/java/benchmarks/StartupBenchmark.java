@@ -0,0 +1,41 @@
+package benchmarks;
+
+import core.cfgRd.annotation.AnnotationBeanFactory;
+import core.cfgRd.json.JsonBeanFactory;
+import core.ioc.DefaultListableBeanFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the Bean definitions and creating the singletons of a container, from annotations and from JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Benchmark
+    public DefaultListableBeanFactory annotation() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new AnnotationBeanFactory("beans.cfgRd.annotation", beanFactory);
+        beanFactory.refresh();
+        return beanFactory;
+    }
+
+    @Benchmark
+    public DefaultListableBeanFactory json() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new JsonBeanFactory("benchmark-beans.json", beanFactory);
+        beanFactory.refresh();
+        return beanFactory;
+    }
+}
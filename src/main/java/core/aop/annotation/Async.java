@@ -0,0 +1,17 @@
+package core.aop.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a method on the executor of an AsyncAdvice instead of the calling thread.
+ * The method must return void, a Future or a CompletionStage. On a class, applies to all its methods.
+ * The annotation takes effect on proxies created with AsyncAdvice.forAnnotatedMethods(), or any
+ * AsyncAdvice restricted to Pointcuts.annotatedWith(Async.class).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Async {
+}
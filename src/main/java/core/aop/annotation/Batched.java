@@ -0,0 +1,32 @@
+package core.aop.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Collapses concurrent calls of a single-item method into calls of a batch method of the same bean.
+ * The annotated method takes one argument, the item. The batch method takes a List of items and returns
+ * either a Map from item to result or a List of results in the order of the items.
+ * The annotation takes effect on proxies advised by BatchAdvice.forAnnotatedMethods().
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Batched {
+
+    /**
+     * @return Name of the batch method, declared by the same bean.
+     */
+    String value();
+
+    /**
+     * @return Maximum number of calls in a batch, a full batch is dispatched immediately.
+     */
+    int maxSize() default 64;
+
+    /**
+     * @return Maximum time the first call of a batch waits for other calls, in milliseconds.
+     */
+    long maxWaitMillis() default 5;
+}
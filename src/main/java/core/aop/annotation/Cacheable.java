@@ -0,0 +1,32 @@
+package core.aop.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Memoizes the results of a method per bean and arguments, in a cache of a CacheAdvice.
+ * The arguments must implement equals and hashCode. On a class, applies to all its non-void methods.
+ * The annotation takes effect on proxies advised by CacheAdvice.forAnnotatedMethods().
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Cacheable {
+
+    /**
+     * @return Name of the cache, shared by the methods using the same name.
+     * Defaults to a cache per method named after the class and the method.
+     */
+    String value() default "";
+
+    /**
+     * @return Maximum number of results kept, when the advice creates the cache.
+     */
+    long maximumSize() default 10_000;
+
+    /**
+     * @return Time after which a result expires, in milliseconds, 0 for never, when the advice creates the cache.
+     */
+    long expireAfterWriteMillis() default 0;
+}
@@ -0,0 +1,70 @@
+package core.aop.cache;
+
+/**
+ * Statistics of a cache, counted since it was created.
+ */
+public class CacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long loadFailureCount;
+    private final long evictionCount;
+    private final long expirationCount;
+
+    public CacheStats(long hitCount, long missCount, long loadCount, long loadFailureCount, long evictionCount, long expirationCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return Number of lookups that found no live entry, expired entries included.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return Number of loader calls. Lower than the misses when concurrent misses were coalesced.
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * @return Number of entries evicted to respect the maximum weight.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * @return Hits divided by lookups, 1 if there was no lookup.
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hitCount + ", misses=" + missCount + ", loads=" + loadCount
+                + ", loadFailures=" + loadFailureCount + ", evictions=" + evictionCount
+                + ", expirations=" + expirationCount + ", hitRate=" + String.format("%.3f", getHitRate()) + "}";
+    }
+}
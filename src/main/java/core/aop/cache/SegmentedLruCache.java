@@ -0,0 +1,394 @@
+package core.aop.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Bounded cache with a segmented LRU eviction policy.
+ * New entries go to a probation segment and move to a protected segment, holding up to 80% of the weight,
+ * when they are read again. Entries read only once are evicted first, so a scan of one-off keys
+ * cannot flush the entries that are read repeatedly.
+ * Entries can expire a fixed time after they were written. Large caches are split into stripes by key hash,
+ * each with its own lock and its own share of the maximum weight.
+ * Concurrent misses on the same key are coalesced: one caller loads the value, the others wait for it.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class SegmentedLruCache<K, V> {
+
+    private static final int PROTECTED_PERCENT = 80;
+    private static final int MAX_STRIPES = 16;
+    /**
+     * Minimum weight per stripe, smaller caches use fewer stripes to keep their eviction order exact.
+     */
+    private static final long MIN_STRIPE_WEIGHT = 64;
+
+    private final Stripe<K, V>[] stripes;
+    private final long maximumWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Loads the value of a key missing from the cache.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+        V load(K key) throws Throwable;
+    }
+
+    /**
+     * Cache bounded by number of entries, without expiry
+     *
+     * @param maximumSize Maximum number of entries
+     */
+    public SegmentedLruCache(long maximumSize) {
+        this(maximumSize, (key, value) -> 1, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param maximumWeight    Maximum total weight of the entries
+     * @param weigher          Weight of an entry, at least 0
+     * @param expireAfterWrite Time after which an entry expires, 0 for never
+     * @param unit             Unit of expireAfterWrite
+     */
+    public SegmentedLruCache(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher, long expireAfterWrite, TimeUnit unit) {
+        this(maximumWeight, weigher, expireAfterWrite, unit, System::nanoTime);
+    }
+
+    /**
+     * @param maximumWeight    Maximum total weight of the entries
+     * @param weigher          Weight of an entry, at least 0
+     * @param expireAfterWrite Time after which an entry expires, 0 for never
+     * @param unit             Unit of expireAfterWrite
+     * @param ticker           Source of the current time in nanoseconds
+     * @throws IllegalArgumentException If the maximum weight or the expiry is negative
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SegmentedLruCache(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher, long expireAfterWrite, TimeUnit unit,
+                             LongSupplier ticker) {
+        if (maximumWeight < 0 || expireAfterWrite < 0) {
+            throw new IllegalArgumentException("Maximum weight and expiry must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        this.ticker = ticker;
+        int stripeCount = 1;
+        while (stripeCount < MAX_STRIPES && maximumWeight / (stripeCount * 2L) >= MIN_STRIPE_WEIGHT) {
+            stripeCount *= 2;
+        }
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // Spread the remainder so that the stripes add up to the maximum weight
+            long stripeWeight = maximumWeight / stripeCount + (i < maximumWeight % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe<>(stripeWeight);
+        }
+    }
+
+    /**
+     * Get the value of a key, loading it on a miss.
+     * A caller missing a key another caller is already loading waits for that load instead of loading again.
+     *
+     * @param key    Key
+     * @param loader Loader of the value, must not return null
+     * @return The cached or loaded value
+     * @throws Throwable The exception thrown by the loader, also thrown to the callers waiting for it
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader) throws Throwable {
+        V value = lookup(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            // Another caller may have stored the value between the lookup and the registration of the load
+            V loaded = lookup(key);
+            if (loaded == null) {
+                loads.increment();
+                loaded = Objects.requireNonNull(loader.load(key), "Loader returned null");
+                put(key, loaded);
+            }
+            load.complete(loaded);
+            return loaded;
+        } catch (Throwable t) {
+            loadFailures.increment();
+            load.completeExceptionally(t);
+            throw t;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * @param key Key
+     * @return The value, or null if absent or expired
+     */
+    public V getIfPresent(K key) {
+        V value = lookup(key);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Store a value. A value heavier than the maximum weight of its stripe is not stored.
+     *
+     * @param key   Key
+     * @param value Value, not null
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        long weight = weigher.applyAsLong(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight + " for key " + key);
+        }
+        long expiresAt = expireAfterWriteNanos == 0 ? 0 : ticker.getAsLong() + expireAfterWriteNanos;
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            evictions.add(stripe.put(key, value, weight, expiresAt));
+        }
+    }
+
+    public void invalidate(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            Node<K, V> node = stripe.map.get(key);
+            if (node != null) {
+                stripe.remove(node);
+            }
+        }
+    }
+
+    /**
+     * Remove a key only if it is still mapped to a value, compared by identity,
+     * so that a value stored meanwhile by another caller is kept.
+     *
+     * @param key   Key
+     * @param value Value expected for the key
+     */
+    public void invalidate(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            Node<K, V> node = stripe.map.get(key);
+            if (node != null && node.value == value) {
+                stripe.remove(node);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * @return Number of entries, expired entries not yet removed included
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return Total weight of the entries
+     */
+    public long weightedSize() {
+        long weight = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                weight += stripe.weight;
+            }
+        }
+        return weight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private V lookup(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            Node<K, V> node = stripe.map.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.expiresAt != 0 && ticker.getAsLong() - node.expiresAt >= 0) {
+                stripe.remove(node);
+                expirations.increment();
+                return null;
+            }
+            stripe.recordAccess(node);
+            return node.value;
+        }
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Entry of a stripe, linked into its probation or protected queue.
+     */
+    private static class Node<K, V> {
+        final K key;
+        V value;
+        long weight;
+        long expiresAt;
+        boolean protectedEntry;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A share of the cache: a map and two circular LRU queues, least recently used first.
+     * All methods are called with the stripe locked.
+     */
+    private static class Stripe<K, V> {
+        final Map<K, Node<K, V>> map = new HashMap<>();
+        final Node<K, V> probation = sentinel();
+        final Node<K, V> protectedQueue = sentinel();
+        final long maximumWeight;
+        final long maximumProtectedWeight;
+        long weight;
+        long protectedWeight;
+
+        Stripe(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.maximumProtectedWeight = maximumWeight * PROTECTED_PERCENT / 100;
+        }
+
+        private static <K, V> Node<K, V> sentinel() {
+            Node<K, V> sentinel = new Node<>(null);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        /**
+         * A read moves a probation entry to the protected queue and a protected entry to its end
+         */
+        void recordAccess(Node<K, V> node) {
+            unlink(node);
+            if (!node.protectedEntry) {
+                node.protectedEntry = true;
+                protectedWeight += node.weight;
+            }
+            linkLast(protectedQueue, node);
+            // Demote the least recently used protected entries back to probation
+            while (protectedWeight > maximumProtectedWeight && protectedQueue.next != node) {
+                Node<K, V> demoted = protectedQueue.next;
+                unlink(demoted);
+                demoted.protectedEntry = false;
+                protectedWeight -= demoted.weight;
+                linkLast(probation, demoted);
+            }
+        }
+
+        /**
+         * @return Number of entries evicted
+         */
+        int put(K key, V value, long entryWeight, long expiresAt) {
+            Node<K, V> node = map.get(key);
+            if (node != null) {
+                remove(node);
+            }
+            if (entryWeight > maximumWeight) {
+                return 0;
+            }
+            node = new Node<>(key);
+            node.value = value;
+            node.weight = entryWeight;
+            node.expiresAt = expiresAt;
+            map.put(key, node);
+            weight += entryWeight;
+            linkLast(probation, node);
+            int evicted = 0;
+            while (weight > maximumWeight) {
+                // Evict from probation first, but not the entry being added while protected entries remain
+                remove(probation.next != node ? probation.next : protectedQueue.next);
+                evicted++;
+            }
+            return evicted;
+        }
+
+        void remove(Node<K, V> node) {
+            unlink(node);
+            map.remove(node.key);
+            weight -= node.weight;
+            if (node.protectedEntry) {
+                protectedWeight -= node.weight;
+            }
+        }
+
+        void clear() {
+            map.clear();
+            probation.previous = probation;
+            probation.next = probation;
+            protectedQueue.previous = protectedQueue;
+            protectedQueue.next = protectedQueue;
+            weight = 0;
+            protectedWeight = 0;
+        }
+
+        private static <K, V> void unlink(Node<K, V> node) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+        }
+
+        private static <K, V> void linkLast(Node<K, V> queue, Node<K, V> node) {
+            node.previous = queue.previous;
+            node.next = queue;
+            queue.previous.next = node;
+            queue.previous = node;
+        }
+    }
+}
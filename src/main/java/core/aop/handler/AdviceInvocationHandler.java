@@ -1,18 +1,36 @@
 package core.aop.handler;
 
-import core.aop.impl.DefaultAdviceChain;
+import core.aop.impl.AsyncResults;
+import core.aop.impl.CompiledAdviceChain;
+import core.aop.impl.FusedAdviceChain;
+import core.aop.impl.MethodHandleTargetInvoker;
+import core.aop.impl.PointcutAdvice;
 import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.proxy.ProxyFactory;
+import core.metrics.ContainerMetrics;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 /**
  * AdviceInvocationHandler, an invocation handler for applying advices to a target object.
+ * The advices matching each method are selected and compiled into a chain on its first invocation,
+ * and reused afterwards. Methods without matching advices are dispatched straight to the target.
+ * The chains are fused into MethodHandles if the handler is created with fusion, by default if ProxyFactory fuses advice chains.
  */
 public class AdviceInvocationHandler implements InvocationHandler {
-    private Object target;
+    private volatile Object target;
+    private Supplier<?> targetSource;
     private List<Advice> advices;
+    private ContainerMetrics metrics = ProxyFactory.getMetrics();
+    private boolean fused;
+    private final Map<Method, AdvisedMethod> advisedMethods = new ConcurrentHashMap<>();
 
     /**
      * Constructs an AdviceInvocationHandler with the specified target object and advices.
@@ -21,8 +39,32 @@ public class AdviceInvocationHandler implements InvocationHandler {
      * @param advices  The list of advices to apply.
      */
     public AdviceInvocationHandler(Object target, List<Advice> advices) {
+        this(target, advices, ProxyFactory.isFuseAdviceChains());
+    }
+
+    /**
+     * Constructs an AdviceInvocationHandler with the specified target object and advices.
+     *
+     * @param target   The target object.
+     * @param advices  The list of advices to apply.
+     * @param fused    Whether the advice chains are fused into MethodHandles.
+     */
+    public AdviceInvocationHandler(Object target, List<Advice> advices, boolean fused) {
         this.target = target;
         this.advices = advices;
+        this.fused = fused;
+    }
+
+    /**
+     * Constructs an AdviceInvocationHandler whose target object is only obtained on the first method invocation.
+     *
+     * @param targetSource The source of the target object, called once.
+     * @param advices      The list of advices to apply.
+     */
+    public AdviceInvocationHandler(Supplier<?> targetSource, List<Advice> advices) {
+        this.targetSource = targetSource;
+        this.advices = advices;
+        this.fused = ProxyFactory.isFuseAdviceChains();
     }
 
     /**
@@ -36,9 +78,84 @@ public class AdviceInvocationHandler implements InvocationHandler {
      */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        // Create an advice chain to manage the execution of advices
-        DefaultAdviceChain adviceChain = new DefaultAdviceChain(target, method, args, advices);
-        // Invoke the advice chain, passing the target, method, and arguments
-        return adviceChain.invokeNext(target, method, args);
+        Object target = getTarget();
+        AdvisedMethod advisedMethod = getAdvisedMethod(method, target);
+        AdviceChain adviceChain = advisedMethod.adviceChain;
+        if (!advisedMethod.advised || !metrics.isEnabled()) {
+            // Invoke the advice chain, passing the target, method, and arguments
+            return adviceChain.invokeNext(target, method, args);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean async = false;
+        try {
+            Object result = adviceChain.invokeNext(target, method, args);
+            failed = false;
+            if (result instanceof CompletionStage) {
+                // Time the method until its result completes
+                async = true;
+                AsyncResults.whenComplete(result, (value, throwable) ->
+                        metrics.advisedMethodInvoked(method, System.nanoTime() - start, throwable != null));
+            }
+            return result;
+        } finally {
+            if (!async) {
+                metrics.advisedMethodInvoked(method, System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    /**
+     * Gets the advice chain of a method, selecting its advices and compiling it on first use.
+     *
+     * @param method The method being invoked.
+     * @param target The target object.
+     * @return The compiled advice chain and whether any advice matched.
+     */
+    private AdvisedMethod getAdvisedMethod(Method method, Object target) {
+        AdvisedMethod advisedMethod = advisedMethods.get(method);
+        if (advisedMethod == null) {
+            advisedMethod = advisedMethods.computeIfAbsent(method, key -> {
+                List<Advice> selected = PointcutAdvice.select(advices, key, target.getClass());
+                MethodHandleTargetInvoker targetInvoker = MethodHandleTargetInvoker.forMethod(key);
+                AdviceChain adviceChain = fused
+                        ? FusedAdviceChain.compile(selected, key, targetInvoker.getHandle())
+                        : CompiledAdviceChain.compile(selected, targetInvoker);
+                return new AdvisedMethod(adviceChain, !selected.isEmpty());
+            });
+        }
+        return advisedMethod;
+    }
+
+    /**
+     * Gets the target object, obtaining it from the target source on first use.
+     *
+     * @return The target object.
+     */
+    private Object getTarget() {
+        Object result = target;
+        if (result == null) {
+            synchronized (this) {
+                result = target;
+                if (result == null) {
+                    result = targetSource.get();
+                    target = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compiled advice chain of a method.
+     */
+    private static class AdvisedMethod {
+        final AdviceChain adviceChain;
+        final boolean advised;
+
+        AdvisedMethod(AdviceChain adviceChain, boolean advised) {
+            this.adviceChain = adviceChain;
+            this.advised = advised;
+        }
     }
-}
\ No newline at end of file
+}
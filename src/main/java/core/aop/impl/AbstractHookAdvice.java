@@ -0,0 +1,72 @@
+package core.aop.impl;
+
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * AbstractHookAdvice, base class of the advices that only observe invocations through before, after
+ * and afterThrowing. Its around method is fixed, so that fused advice chains can call the hooks directly
+ * instead of going through around.
+ * When the method returns a CompletionStage, after and afterThrowing run when the stage completes.
+ */
+public abstract class AbstractHookAdvice implements Advice {
+
+    @Override
+    public void before(Object target, Method method, Object[] args) {
+    }
+
+    @Override
+    public void after(Object target, Method method, Object[] args, Object result) {
+    }
+
+    @Override
+    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+    }
+
+    /**
+     * Calls before, then the rest of the chain, then after with its result,
+     * or afterThrowing with its exception before rethrowing it.
+     * For a CompletionStage, after and afterThrowing are attached to its completion instead.
+     *
+     * @param target      The target object.
+     * @param method      The method being invoked.
+     * @param args        The arguments passed to the method.
+     * @param adviceChain The advice chain, used to invoke the next advice or the target method.
+     * @return The result returned by the method.
+     * @throws Throwable The exception thrown by the rest of the chain.
+     */
+    @Override
+    public final Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+        before(target, method, args);
+        Object result;
+        try {
+            result = adviceChain.invokeNext(target, method, args);
+        } catch (Throwable throwable) {
+            afterThrowing(target, method, args, throwable);
+            throw throwable;
+        }
+        afterReturning(this, target, method, args, result);
+        return result;
+    }
+
+    /**
+     * Calls the after hook of an advice with the result of a method, or attaches after and afterThrowing
+     * to its completion if it is a CompletionStage
+     */
+    static void afterReturning(Advice advice, Object target, Method method, Object[] args, Object result) {
+        if (result instanceof CompletionStage) {
+            AsyncResults.whenComplete(result, (value, throwable) -> {
+                if (throwable != null) {
+                    advice.afterThrowing(target, method, args, throwable);
+                } else {
+                    advice.after(target, method, args, value);
+                }
+            });
+        } else {
+            advice.after(target, method, args, result);
+        }
+    }
+}
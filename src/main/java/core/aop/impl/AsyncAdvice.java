@@ -0,0 +1,148 @@
+package core.aop.impl;
+
+import core.aop.annotation.Async;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * AsyncAdvice, runs the rest of the advice chain and the target method on an executor.
+ * Void methods return immediately, methods returning a Future or a CompletionStage return a CompletableFuture
+ * completed with the outcome of the method. The default executor starts a virtual thread per call when running
+ * on JDK 21 and later, so that blocking methods do not tie up platform threads. It is looked up at run time,
+ * the classes still target Java 17.
+ * Put it first in the advice list so that the other advices run on the executor too.
+ * <pre>
+ * ProxyFactory.getProxy(target, List.of(AsyncAdvice.forAnnotatedMethods(), new LoggerAdvice()));
+ * </pre>
+ */
+public class AsyncAdvice implements Advice {
+    private static ExecutorService defaultExecutor;
+
+    private final Executor executor;
+
+    /**
+     * Constructs an AsyncAdvice running methods on the default executor.
+     */
+    public AsyncAdvice() {
+        this(getDefaultExecutor());
+    }
+
+    /**
+     * Constructs an AsyncAdvice running methods on the given executor.
+     *
+     * @param executor The executor.
+     */
+    public AsyncAdvice(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an AsyncAdvice on the default executor for the methods annotated with @Async.
+     *
+     * @return The advice.
+     */
+    public static Advice forAnnotatedMethods() {
+        return new PointcutAdvice(Pointcuts.annotatedWith(Async.class), new AsyncAdvice());
+    }
+
+    /**
+     * Gets the default executor: a virtual thread per task on JDK 21 and later,
+     * a cached pool of daemon threads before.
+     *
+     * @return The default executor, created on first use.
+     */
+    public static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            try {
+                // Looked up reflectively so that the project still builds and runs on JDK 17
+                defaultExecutor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                defaultExecutor = Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "async-advice");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+        return defaultExecutor;
+    }
+
+    @Override
+    public void before(Object target, Method method, Object[] args) {
+    }
+
+    @Override
+    public void after(Object target, Method method, Object[] args, Object result) {
+    }
+
+    @Override
+    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+    }
+
+    /**
+     * Submits the rest of the chain to the executor.
+     *
+     * @param target      The target object.
+     * @param method      The method being invoked.
+     * @param args        The arguments passed to the method.
+     * @param adviceChain The advice chain, invoked on the executor.
+     * @return null for void methods, a CompletableFuture otherwise.
+     * @throws IllegalStateException If the method returns neither void, a Future nor a CompletionStage.
+     */
+    @Override
+    public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class) {
+            executor.execute(() -> {
+                try {
+                    adviceChain.invokeNext(target, method, args);
+                } catch (Throwable t) {
+                    // Nobody waits for a void method, report the failure here
+                    t.printStackTrace();
+                }
+            });
+            return null;
+        }
+        if (!returnType.isAssignableFrom(CompletableFuture.class)) {
+            throw new IllegalStateException("Async method " + method + " must return void, a Future or a CompletionStage");
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                complete(future, adviceChain.invokeNext(target, method, args));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private static void complete(CompletableFuture<Object> future, Object result) throws InterruptedException {
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    future.completeExceptionally(AsyncResults.unwrap(throwable));
+                } else {
+                    future.complete(value);
+                }
+            });
+        } else if (result instanceof Future) {
+            try {
+                future.complete(((Future<?>) result).get());
+            } catch (ExecutionException e) {
+                future.completeExceptionally(e.getCause());
+            }
+        } else {
+            future.complete(result);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package core.aop.impl;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+/**
+ * AsyncResults, helps advices handle methods returning a CompletionStage, such as a CompletableFuture,
+ * whose outcome is only known when the stage completes rather than when the method returns.
+ */
+public final class AsyncResults {
+
+    private AsyncResults() {
+    }
+
+    /**
+     * Runs an action with the outcome of a method: when its CompletionStage completes if it returned one,
+     * immediately otherwise. The action does not delay the stage returned to the caller.
+     *
+     * @param result The result returned by the method.
+     * @param action The action, called with the value, or the exception unwrapped from CompletionException.
+     */
+    public static void whenComplete(Object result, BiConsumer<Object, Throwable> action) {
+        if (result instanceof CompletionStage) {
+            ((CompletionStage<?>) result).whenComplete((value, throwable) -> action.accept(value, unwrap(throwable)));
+        } else {
+            action.accept(result, null);
+        }
+    }
+
+    /**
+     * @param throwable An exception completing a stage, or null.
+     * @return The cause of a CompletionException, the exception itself otherwise.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
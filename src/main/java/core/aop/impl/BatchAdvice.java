@@ -0,0 +1,331 @@
+package core.aop.impl;
+
+import core.aop.annotation.Batched;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.proxy.ProxyFactory;
+import core.metrics.ContainerMetrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchAdvice, collapses concurrent calls of the methods annotated with @Batched into calls of their batch method.
+ * A call joins the pending batch of its bean and method. The batch is dispatched to the executor when it reaches
+ * the maximum size, or when its first call has waited the maximum time. Equal items share one slot of the batch,
+ * and the result of each item completes the futures of its callers. Methods returning a Future or a CompletionStage
+ * return immediately, the others block until their batch completes.
+ * The batch method is called on the target itself: advices after this one in the list do not see the single calls.
+ * Batch sizes and the wait of each batch are recorded in the ContainerMetrics.
+ * <pre>
+ * UserService proxy = (UserService) ProxyFactory.getProxy(target, List.of(BatchAdvice.forAnnotatedMethods()));
+ * </pre>
+ */
+public class BatchAdvice implements Advice {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "batch-advice-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor executor;
+    private final ContainerMetrics metrics;
+    private final Map<Object, Batcher> batchers = new ConcurrentHashMap<>();
+    private final ClassValue<Map<Method, Optional<BatchSpec>>> specs = new ClassValue<>() {
+        @Override
+        protected Map<Method, Optional<BatchSpec>> computeValue(Class<?> targetClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Constructs a BatchAdvice dispatching batches on the default executor of AsyncAdvice,
+     * and recording into the metrics of the ProxyFactory.
+     */
+    public BatchAdvice() {
+        this(AsyncAdvice.getDefaultExecutor(), null);
+    }
+
+    /**
+     * Constructs a BatchAdvice dispatching batches on the given executor.
+     *
+     * @param executor The executor calling the batch methods.
+     * @param metrics  The metrics recording the batches, null for the metrics of the ProxyFactory.
+     */
+    public BatchAdvice(Executor executor, ContainerMetrics metrics) {
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a BatchAdvice with the default executor for the methods annotated with @Batched.
+     *
+     * @return The advice.
+     */
+    public static Advice forAnnotatedMethods() {
+        return new PointcutAdvice(Pointcuts.annotatedWith(Batched.class), new BatchAdvice());
+    }
+
+    @Override
+    public void before(Object target, Method method, Object[] args) {
+    }
+
+    @Override
+    public void after(Object target, Method method, Object[] args, Object result) {
+    }
+
+    @Override
+    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+    }
+
+    /**
+     * Adds the call to the pending batch of the target and method.
+     * Methods without @Batched invoke the rest of the chain.
+     *
+     * @param target      The target object.
+     * @param method      The method being invoked.
+     * @param args        The arguments passed to the method, the item.
+     * @param adviceChain The advice chain, used for the methods without @Batched.
+     * @return A CompletableFuture of the result for methods returning a Future or a CompletionStage, the result otherwise.
+     * @throws Throwable The exception thrown by the batch method, or an IllegalStateException if the method
+     *                   or its batch method are not usable for batching.
+     */
+    @Override
+    public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+        BatchSpec spec = getSpec(target.getClass(), method);
+        if (spec == null) {
+            return adviceChain.invokeNext(target, method, args);
+        }
+        Batcher batcher = batchers.computeIfAbsent(new BatcherKey(target, method), key -> new Batcher(target, spec));
+        CompletableFuture<Object> future = batcher.submit(args[0]);
+        Class<?> returnType = method.getReturnType();
+        if (returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class)) {
+            return future;
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw AsyncResults.unwrap(e);
+        }
+    }
+
+    private BatchSpec getSpec(Class<?> targetClass, Method method) {
+        Map<Method, Optional<BatchSpec>> specsOfClass = specs.get(targetClass);
+        Optional<BatchSpec> spec = specsOfClass.get(method);
+        if (spec == null) {
+            spec = specsOfClass.computeIfAbsent(method, key -> Optional.ofNullable(createSpec(targetClass, key)));
+        }
+        return spec.orElse(null);
+    }
+
+    private static BatchSpec createSpec(Class<?> targetClass, Method method) {
+        Method implementation = Pointcuts.implementationOf(method, targetClass);
+        Batched batched = implementation != null ? implementation.getAnnotation(Batched.class) : null;
+        if (batched == null) {
+            batched = method.getAnnotation(Batched.class);
+        }
+        if (batched == null) {
+            return null;
+        }
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException("Batched method " + method + " must take exactly one argument");
+        }
+        if (batched.maxSize() < 1 || batched.maxWaitMillis() < 0) {
+            throw new IllegalStateException("Batched method " + method + " has an invalid maximum size or wait");
+        }
+        for (Method candidate : targetClass.getMethods()) {
+            if (candidate.getName().equals(batched.value()) && candidate.getParameterCount() == 1
+                    && candidate.getParameterTypes()[0].isAssignableFrom(List.class)) {
+                return new BatchSpec(method, candidate, batched.maxSize(), TimeUnit.MILLISECONDS.toNanos(batched.maxWaitMillis()));
+            }
+        }
+        throw new IllegalStateException("No public method " + batched.value() + "(List) in " + targetClass.getName()
+                + " for batched method " + method);
+    }
+
+    private ContainerMetrics metrics() {
+        return metrics != null ? metrics : ProxyFactory.getMetrics();
+    }
+
+    /**
+     * Batching settings of a method, resolved once per target class.
+     */
+    private static class BatchSpec {
+        final Method method;
+        final Method batchMethod;
+        final MethodHandleTargetInvoker batchInvoker;
+        final int maxSize;
+        final long maxWaitNanos;
+
+        BatchSpec(Method method, Method batchMethod, int maxSize, long maxWaitNanos) {
+            this.method = method;
+            this.batchMethod = batchMethod;
+            this.batchInvoker = MethodHandleTargetInvoker.forMethod(batchMethod);
+            this.maxSize = maxSize;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+    }
+
+    /**
+     * A pending call: its item and the future of its caller.
+     */
+    private static class Call {
+        final Object item;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Call(Object item) {
+            this.item = item;
+        }
+    }
+
+    /**
+     * Buffers the calls of one method of one bean.
+     */
+    private class Batcher {
+        private final Object target;
+        private final BatchSpec spec;
+        private List<Call> pending = new ArrayList<>();
+        private long firstCallNanos;
+        private ScheduledFuture<?> timeout;
+
+        Batcher(Object target, BatchSpec spec) {
+            this.target = target;
+            this.spec = spec;
+        }
+
+        CompletableFuture<Object> submit(Object item) {
+            Call call = new Call(item);
+            List<Call> full = null;
+            long waitStart;
+            synchronized (this) {
+                List<Call> batch = pending;
+                batch.add(call);
+                if (batch.size() == 1) {
+                    firstCallNanos = System.nanoTime();
+                    if (spec.maxSize > 1) {
+                        timeout = TIMER.schedule(() -> flush(batch), spec.maxWaitNanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+                waitStart = firstCallNanos;
+                if (batch.size() >= spec.maxSize) {
+                    full = batch;
+                    pending = new ArrayList<>();
+                    if (timeout != null) {
+                        timeout.cancel(false);
+                        timeout = null;
+                    }
+                }
+            }
+            if (full != null) {
+                List<Call> batch = full;
+                executor.execute(() -> dispatch(batch, waitStart));
+            }
+            return call.future;
+        }
+
+        private void flush(List<Call> batch) {
+            long waitStart;
+            synchronized (this) {
+                // The batch may have been dispatched full in the meantime
+                if (pending != batch) {
+                    return;
+                }
+                pending = new ArrayList<>();
+                timeout = null;
+                waitStart = firstCallNanos;
+            }
+            executor.execute(() -> dispatch(batch, waitStart));
+        }
+
+        private void dispatch(List<Call> batch, long waitStart) {
+            metrics().batchDispatched(spec.method, batch.size(), System.nanoTime() - waitStart);
+            Map<Object, List<Call>> callsByItem = new LinkedHashMap<>();
+            for (Call call : batch) {
+                callsByItem.computeIfAbsent(call.item, key -> new ArrayList<>(1)).add(call);
+            }
+            List<Object> items = new ArrayList<>(callsByItem.keySet());
+            try {
+                Object result = spec.batchInvoker.invoke(target, spec.batchMethod, new Object[]{items});
+                AsyncResults.whenComplete(result, (value, throwable) -> {
+                    if (throwable != null) {
+                        fail(batch, throwable);
+                    } else {
+                        fanOut(callsByItem, items, value);
+                    }
+                });
+            } catch (Throwable t) {
+                fail(batch, t);
+            }
+        }
+
+        private void fanOut(Map<Object, List<Call>> callsByItem, List<Object> items, Object results) {
+            if (results instanceof Map) {
+                Map<?, ?> resultsByItem = (Map<?, ?>) results;
+                callsByItem.forEach((item, calls) -> complete(calls, resultsByItem.get(item)));
+            } else if (results instanceof List && ((List<?>) results).size() == items.size()) {
+                List<?> resultList = (List<?>) results;
+                for (int i = 0; i < items.size(); i++) {
+                    complete(callsByItem.get(items.get(i)), resultList.get(i));
+                }
+            } else {
+                IllegalStateException e = new IllegalStateException("Batch method " + spec.batchMethod
+                        + " must return a Map of the items or a List of " + items.size() + " results");
+                callsByItem.values().forEach(calls -> fail(calls, e));
+            }
+        }
+
+        private void complete(List<Call> calls, Object result) {
+            for (Call call : calls) {
+                call.future.complete(result);
+            }
+        }
+
+        private void fail(List<Call> calls, Throwable throwable) {
+            for (Call call : calls) {
+                call.future.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    /**
+     * Key of a batcher: the bean by identity and the method.
+     */
+    private static class BatcherKey {
+        private final Object target;
+        private final Method method;
+
+        BatcherKey(Object target, Method method) {
+            this.target = target;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BatcherKey)) {
+                return false;
+            }
+            BatcherKey other = (BatcherKey) o;
+            return target == other.target && method.equals(other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(target) + method.hashCode();
+        }
+    }
+}
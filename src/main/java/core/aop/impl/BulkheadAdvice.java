@@ -0,0 +1,171 @@
+package core.aop.impl;
+
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.limit.ConcurrencyLimiter;
+import core.aop.limit.FixedLimit;
+import core.aop.limit.LimitAlgorithm;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * BulkheadAdvice, caps the number of calls running at the same time on each method or on each bean.
+ * A call over the limit waits in a queue up to the queue timeout, or is rejected immediately if the timeout is 0,
+ * with a RejectedExecutionException. Each method or bean has its own ConcurrencyLimiter, whose limit is fixed
+ * or adapted from the observed latencies, e.g. by an AimdLimit.
+ * A call returning a CompletionStage holds its permit until the stage completes.
+ * Restrict it to some methods by wrapping it in a PointcutAdvice.
+ * <pre>
+ * Advice bulkhead = new BulkheadAdvice(BulkheadAdvice.Scope.BEAN, 50, TimeUnit.MILLISECONDS,
+ *         () -> new AimdLimit(10, 1, 100, 200, TimeUnit.MILLISECONDS, 0.9));
+ * </pre>
+ */
+public class BulkheadAdvice implements Advice {
+
+    /**
+     * What a limiter is shared by.
+     */
+    public enum Scope {
+        /**
+         * A limiter per bean and method.
+         */
+        METHOD,
+        /**
+         * A limiter per bean, shared by all its advised methods.
+         */
+        BEAN
+    }
+
+    private final Scope scope;
+    private final long queueTimeoutNanos;
+    private final Supplier<? extends LimitAlgorithm> limits;
+    private final Map<LimiterKey, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a BulkheadAdvice rejecting the calls over a fixed limit per method.
+     *
+     * @param maxConcurrentCalls The maximum number of concurrent calls of each method.
+     */
+    public BulkheadAdvice(int maxConcurrentCalls) {
+        this(Scope.METHOD, 0, TimeUnit.NANOSECONDS, fixedLimits(maxConcurrentCalls));
+    }
+
+    /**
+     * Constructs a BulkheadAdvice.
+     *
+     * @param scope        Whether the limit applies per method or per bean.
+     * @param queueTimeout Maximum time a call waits for a permit, 0 to reject the calls over the limit.
+     * @param unit         Unit of queueTimeout.
+     * @param limits       Creates the limit algorithm of each limiter.
+     * @throws IllegalArgumentException If the queue timeout is negative.
+     */
+    public BulkheadAdvice(Scope scope, long queueTimeout, TimeUnit unit, Supplier<? extends LimitAlgorithm> limits) {
+        if (queueTimeout < 0) {
+            throw new IllegalArgumentException("Queue timeout must not be negative");
+        }
+        this.scope = scope;
+        this.queueTimeoutNanos = unit.toNanos(queueTimeout);
+        this.limits = limits;
+    }
+
+    private static Supplier<LimitAlgorithm> fixedLimits(int maxConcurrentCalls) {
+        // A fixed limit has no state, all the limiters can share it
+        FixedLimit limit = new FixedLimit(maxConcurrentCalls);
+        return () -> limit;
+    }
+
+    /**
+     * @param target The target object.
+     * @param method The method, ignored with the BEAN scope.
+     * @return The limiter of the bean or method, or null if it was not called yet.
+     */
+    public ConcurrencyLimiter getLimiter(Object target, Method method) {
+        return limiters.get(new LimiterKey(target, scope == Scope.BEAN ? null : method));
+    }
+
+    @Override
+    public void before(Object target, Method method, Object[] args) {
+    }
+
+    @Override
+    public void after(Object target, Method method, Object[] args, Object result) {
+    }
+
+    @Override
+    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+    }
+
+    /**
+     * Invokes the rest of the chain once a permit is acquired.
+     *
+     * @param target      The target object.
+     * @param method      The method being invoked.
+     * @param args        The arguments passed to the method.
+     * @param adviceChain The advice chain, used to invoke the next advice or the target method.
+     * @return The result returned by the method.
+     * @throws Throwable A RejectedExecutionException if no permit was acquired in time,
+     *                   or the exception thrown by the method.
+     */
+    @Override
+    public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+        LimiterKey key = new LimiterKey(target, scope == Scope.BEAN ? null : method);
+        ConcurrencyLimiter limiter = limiters.get(key);
+        if (limiter == null) {
+            limiter = limiters.computeIfAbsent(key, k -> new ConcurrencyLimiter(limits.get()));
+        }
+        if (!limiter.acquire(queueTimeoutNanos)) {
+            throw new RejectedExecutionException("Bulkhead of " + method + " is full, limit " + limiter.getLimit());
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = adviceChain.invokeNext(target, method, args);
+        } catch (Throwable t) {
+            limiter.release(System.nanoTime() - start);
+            throw t;
+        }
+        if (result instanceof CompletionStage) {
+            ConcurrencyLimiter asyncLimiter = limiter;
+            AsyncResults.whenComplete(result, (value, throwable) -> asyncLimiter.release(System.nanoTime() - start));
+        } else {
+            limiter.release(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Key of a limiter: the bean by identity and the method, null with the BEAN scope.
+     */
+    private static class LimiterKey {
+        private final Object target;
+        private final Method method;
+
+        LimiterKey(Object target, Method method) {
+            this.target = target;
+            this.method = method;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LimiterKey)) {
+                return false;
+            }
+            LimiterKey other = (LimiterKey) o;
+            return target == other.target && (method == null ? other.method == null : method.equals(other.method));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(target) + (method == null ? 0 : method.hashCode());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package core.aop.impl;
+
+import core.aop.annotation.Cacheable;
+import core.aop.cache.SegmentedLruCache;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheAdvice, memoizes the results of the methods annotated with @Cacheable per bean, method and arguments.
+ * Each cache is a SegmentedLruCache, created from the annotation on first use unless a cache of that name
+ * was registered beforehand, e.g. one bounded by weight. Concurrent calls with the same arguments
+ * share a single call to the target. Null results are cached, and results that are CompletionStages
+ * are dropped from the cache if they complete exceptionally.
+ * <pre>
+ * CacheAdvice cacheAdvice = new CacheAdvice();
+ * UserService proxy = (UserService) ProxyFactory.getProxy(target, List.of(cacheAdvice.forAnnotatedMethods()));
+ * CacheStats stats = cacheAdvice.getCache("users").stats();
+ * </pre>
+ */
+public class CacheAdvice implements Advice {
+    private static final Object NULL_VALUE = new Object();
+
+    private final Map<String, SegmentedLruCache<Object, Object>> caches = new ConcurrentHashMap<>();
+    private final ClassValue<Map<Method, Optional<SegmentedLruCache<Object, Object>>>> methodCaches = new ClassValue<>() {
+        @Override
+        protected Map<Method, Optional<SegmentedLruCache<Object, Object>>> computeValue(Class<?> targetClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Restricts this advice to the methods annotated with @Cacheable, or declared by a class annotated with it.
+     *
+     * @return The advice to pass to the ProxyFactory.
+     */
+    public Advice forAnnotatedMethods() {
+        return new PointcutAdvice(Pointcuts.annotatedWith(Cacheable.class), this);
+    }
+
+    /**
+     * Registers the cache used by the methods naming it, instead of a cache built from their annotation.
+     *
+     * @param name  The cache name.
+     * @param cache The cache.
+     */
+    public void registerCache(String name, SegmentedLruCache<Object, Object> cache) {
+        caches.put(name, cache);
+    }
+
+    /**
+     * @param name The cache name.
+     * @return The cache, or null if no method used it yet.
+     */
+    public SegmentedLruCache<Object, Object> getCache(String name) {
+        return caches.get(name);
+    }
+
+    public Map<String, SegmentedLruCache<Object, Object>> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+
+    @Override
+    public void before(Object target, Method method, Object[] args) {
+    }
+
+    @Override
+    public void after(Object target, Method method, Object[] args, Object result) {
+    }
+
+    @Override
+    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+    }
+
+    /**
+     * Returns the cached result, or invokes the rest of the chain and caches its result.
+     * Methods without @Cacheable and void methods are not cached.
+     *
+     * @param target      The target object.
+     * @param method      The method being invoked.
+     * @param args        The arguments passed to the method.
+     * @param adviceChain The advice chain, used to invoke the next advice or the target method.
+     * @return The result returned by the method, possibly cached.
+     * @throws Throwable If an exception occurs during the method invocation.
+     */
+    @Override
+    public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+        SegmentedLruCache<Object, Object> cache = getCache(target.getClass(), method);
+        if (cache == null) {
+            return adviceChain.invokeNext(target, method, args);
+        }
+        CacheKey key = new CacheKey(target, method, args);
+        Object value = cache.get(key, k -> {
+            Object result = adviceChain.invokeNext(target, method, args);
+            return result == null ? NULL_VALUE : result;
+        });
+        if (value instanceof CompletionStage) {
+            // Attached once the stage is stored, so that a stage failed already is removed as well.
+            // Only this stage is removed, not a stage loaded meanwhile by another call.
+            AsyncResults.whenComplete(value, (completed, throwable) -> {
+                if (throwable != null) {
+                    cache.invalidate(key, value);
+                }
+            });
+        }
+        return value == NULL_VALUE ? null : value;
+    }
+
+    private SegmentedLruCache<Object, Object> getCache(Class<?> targetClass, Method method) {
+        Map<Method, Optional<SegmentedLruCache<Object, Object>>> cachesOfClass = methodCaches.get(targetClass);
+        Optional<SegmentedLruCache<Object, Object>> cache = cachesOfClass.get(method);
+        if (cache == null) {
+            cache = cachesOfClass.computeIfAbsent(method, key -> Optional.ofNullable(createCache(targetClass, key)));
+        }
+        return cache.orElse(null);
+    }
+
+    private SegmentedLruCache<Object, Object> createCache(Class<?> targetClass, Method method) {
+        if (method.getReturnType() == void.class) {
+            return null;
+        }
+        Method implementation = Pointcuts.implementationOf(method, targetClass);
+        Cacheable cacheable = implementation != null ? implementation.getAnnotation(Cacheable.class) : null;
+        if (cacheable == null) {
+            cacheable = method.getAnnotation(Cacheable.class);
+        }
+        if (cacheable == null) {
+            cacheable = targetClass.getAnnotation(Cacheable.class);
+        }
+        if (cacheable == null) {
+            return null;
+        }
+        Cacheable annotation = cacheable;
+        String name = annotation.value().isEmpty() ? targetClass.getName() + "#" + method.getName() : annotation.value();
+        return caches.computeIfAbsent(name, key -> new SegmentedLruCache<>(annotation.maximumSize(), (k, v) -> 1,
+                annotation.expireAfterWriteMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Cache key: the bean by identity, the method and the arguments by value.
+     */
+    private static class CacheKey {
+        private final Object target;
+        private final Method method;
+        private final Object[] args;
+        private final int hash;
+
+        CacheKey(Object target, Method method, Object[] args) {
+            this.target = target;
+            this.method = method;
+            this.args = args == null ? new Object[0] : args.clone();
+            this.hash = 31 * (31 * System.identityHashCode(target) + method.hashCode()) + Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return target == other.target && method.equals(other.method) && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
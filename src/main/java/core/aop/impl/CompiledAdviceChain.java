@@ -0,0 +1,65 @@
+package core.aop.impl;
+
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.interfaces.TargetInvoker;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * CompiledAdviceChain, an immutable advice chain built once per proxied method.
+ * Each node holds one advice and the node after it, and the last node calls the target invoker.
+ * The position in the chain is the node itself, so invoking the chain allocates nothing
+ * and the same chain can be shared by concurrent invocations.
+ */
+public final class CompiledAdviceChain implements AdviceChain {
+    private final Advice advice;
+    private final AdviceChain next;
+    private final TargetInvoker targetInvoker;
+
+    private CompiledAdviceChain(Advice advice, AdviceChain next, TargetInvoker targetInvoker) {
+        this.advice = advice;
+        this.next = next;
+        this.targetInvoker = targetInvoker;
+    }
+
+    /**
+     * Compiles a list of advices into a chain of nodes.
+     *
+     * @param advices       The list of advices to apply, in order.
+     * @param targetInvoker The invoker calling the target method once all advices have proceeded.
+     * @return The first node of the chain.
+     */
+    public static CompiledAdviceChain compile(List<Advice> advices, TargetInvoker targetInvoker) {
+        CompiledAdviceChain chain = new CompiledAdviceChain(null, null, targetInvoker);
+        for (int i = advices.size() - 1; i >= 0; i--) {
+            chain = new CompiledAdviceChain(advices.get(i), chain, targetInvoker);
+        }
+        return chain;
+    }
+
+    /**
+     * @return True unless the chain only calls the target method.
+     */
+    public boolean hasAdvice() {
+        return advice != null;
+    }
+
+    /**
+     * Invokes the advice of this node, or the target method for the last node.
+     *
+     * @param target The target object.
+     * @param method The method being invoked.
+     * @param args   The arguments passed to the method.
+     * @return The result returned by the method invocation.
+     * @throws Throwable If an exception occurs during the method invocation.
+     */
+    @Override
+    public Object invokeNext(Object target, Method method, Object[] args) throws Throwable {
+        if (advice == null) {
+            return targetInvoker.invoke(target, method, args);
+        }
+        return advice.around(target, method, args, next);
+    }
+}
@@ -0,0 +1,102 @@
+package core.aop.impl;
+
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * FusedAdviceChain, an advice chain compiled into a single MethodHandle (Object target, Object[] args) -> Object.
+ * An AbstractHookAdvice becomes plain calls around the rest of the tree: its before hook is folded in front,
+ * its after hook is folded onto the result and its afterThrowing hook catches the exception.
+ * Other advices keep their around frame, with the rest of the tree as their AdviceChain.
+ * Once the handle is hot, the JIT compiles the whole tree down to the target call as one unit.
+ */
+public final class FusedAdviceChain implements AdviceChain {
+    private static final MethodHandle BEFORE;
+    private static final MethodHandle AFTER;
+    private static final MethodHandle AFTER_THROWING;
+    private static final MethodHandle AROUND;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            BEFORE = lookup.findStatic(FusedAdviceChain.class, "before",
+                    MethodType.methodType(void.class, Advice.class, Method.class, Object.class, Object[].class));
+            AFTER = lookup.findStatic(FusedAdviceChain.class, "after",
+                    MethodType.methodType(Object.class, Advice.class, Method.class, Object.class, Object.class, Object[].class));
+            AFTER_THROWING = lookup.findStatic(FusedAdviceChain.class, "afterThrowing",
+                    MethodType.methodType(Object.class, Advice.class, Method.class, Throwable.class, Object.class, Object[].class));
+            AROUND = lookup.findStatic(FusedAdviceChain.class, "around",
+                    MethodType.methodType(Object.class, Advice.class, Method.class, AdviceChain.class, Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle handle;
+
+    private FusedAdviceChain(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Compiles a list of advices and the target call of a method into one chain.
+     *
+     * @param advices      The list of advices to apply, in order.
+     * @param method       The method being invoked.
+     * @param targetHandle The target call, (Object target, Object[] args) -> Object.
+     * @return The fused chain.
+     */
+    public static FusedAdviceChain compile(List<Advice> advices, Method method, MethodHandle targetHandle) {
+        MethodHandle handle = targetHandle;
+        for (int i = advices.size() - 1; i >= 0; i--) {
+            Advice advice = advices.get(i);
+            if (advice instanceof AbstractHookAdvice) {
+                handle = MethodHandles.catchException(handle, Throwable.class,
+                        MethodHandles.insertArguments(AFTER_THROWING, 0, advice, method));
+                handle = MethodHandles.foldArguments(MethodHandles.insertArguments(AFTER, 0, advice, method), handle);
+                handle = MethodHandles.foldArguments(handle, MethodHandles.insertArguments(BEFORE, 0, advice, method));
+            } else {
+                handle = MethodHandles.insertArguments(AROUND, 0, advice, method, new FusedAdviceChain(handle));
+            }
+        }
+        return new FusedAdviceChain(handle);
+    }
+
+    /**
+     * Invokes the fused chain. The method is the one the chain was compiled for.
+     *
+     * @param target The target object.
+     * @param method The method being invoked.
+     * @param args   The arguments passed to the method.
+     * @return The result returned by the method invocation.
+     * @throws Throwable If an exception occurs during the method invocation.
+     */
+    @Override
+    public Object invokeNext(Object target, Method method, Object[] args) throws Throwable {
+        return (Object) handle.invokeExact(target, args);
+    }
+
+    private static void before(Advice advice, Method method, Object target, Object[] args) {
+        advice.before(target, method, args);
+    }
+
+    private static Object after(Advice advice, Method method, Object result, Object target, Object[] args) {
+        AbstractHookAdvice.afterReturning(advice, target, method, args, result);
+        return result;
+    }
+
+    private static Object afterThrowing(Advice advice, Method method, Throwable throwable, Object target, Object[] args) throws Throwable {
+        advice.afterThrowing(target, method, args, throwable);
+        throw throwable;
+    }
+
+    private static Object around(Advice advice, Method method, AdviceChain next, Object target, Object[] args) throws Throwable {
+        return advice.around(target, method, args, next);
+    }
+}
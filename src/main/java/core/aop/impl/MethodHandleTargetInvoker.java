@@ -0,0 +1,93 @@
+package core.aop.impl;
+
+import core.aop.interfaces.TargetInvoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MethodHandleTargetInvoker, calls the target method through a MethodHandle that takes the target
+ * and the argument array. Invokers are cached per Method and shared by all proxies.
+ */
+public final class MethodHandleTargetInvoker implements TargetInvoker {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+    private static final Map<Method, MethodHandleTargetInvoker> INVOKERS = new ConcurrentHashMap<>();
+    private static final MethodHandle INVOKE_REFLECTIVELY;
+
+    static {
+        try {
+            INVOKE_REFLECTIVELY = MethodHandles.lookup().findStatic(MethodHandleTargetInvoker.class, "invokeReflectively",
+                    MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle handle;
+
+    private MethodHandleTargetInvoker(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Gets the invoker of a method.
+     * Methods that cannot be looked up from here, such as methods of non-public interfaces,
+     * get an invoker that calls Method.invoke and unwraps the exception of the target.
+     *
+     * @param method The method to invoke.
+     * @return The invoker.
+     */
+    public static MethodHandleTargetInvoker forMethod(Method method) {
+        MethodHandleTargetInvoker invoker = INVOKERS.get(method);
+        if (invoker == null) {
+            invoker = INVOKERS.computeIfAbsent(method, MethodHandleTargetInvoker::create);
+        }
+        return invoker;
+    }
+
+    private static MethodHandleTargetInvoker create(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.genericMethodType(method.getParameterCount() + 1))
+                    .asSpreader(1, Object[].class, method.getParameterCount())
+                    .asType(INVOKER_TYPE);
+            return new MethodHandleTargetInvoker(handle);
+        } catch (IllegalAccessException e) {
+            return new MethodHandleTargetInvoker(MethodHandles.insertArguments(INVOKE_REFLECTIVELY, 0, method));
+        }
+    }
+
+    private static Object invokeReflectively(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @return The target call, (Object target, Object[] args) -> Object.
+     */
+    public MethodHandle getHandle() {
+        return handle;
+    }
+
+    /**
+     * Invokes the target method.
+     *
+     * @param target The target object.
+     * @param method The method being invoked.
+     * @param args   The arguments passed to the method, null if there are none.
+     * @return The result returned by the method, boxed, or null for void methods.
+     * @throws Throwable The exception thrown by the target method, not wrapped.
+     */
+    @Override
+    public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        return (Object) handle.invokeExact(target, args);
+    }
+}
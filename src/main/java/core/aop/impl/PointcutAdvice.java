@@ -0,0 +1,97 @@
+package core.aop.impl;
+
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.interfaces.Pointcut;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PointcutAdvice, an advice restricted to the methods matched by a pointcut.
+ * Proxies resolve the advices of each method once, with select, and only chain the matching ones.
+ * Advices that are not a PointcutAdvice apply to every method.
+ * <pre>
+ * ProxyFactory.getProxy(target, List.of(
+ *         new PointcutAdvice(Pointcuts.declaredBy(MyService.class), new LoggerAdvice()),
+ *         new PointcutAdvice(Pointcuts.annotatedWith(Transactional.class), new TransactionAdvice())));
+ * </pre>
+ */
+public class PointcutAdvice implements Advice {
+    private final Pointcut pointcut;
+    private final Advice advice;
+
+    /**
+     * Constructs a PointcutAdvice applying an advice to the methods matched by a pointcut.
+     *
+     * @param pointcut The pointcut selecting the methods.
+     * @param advice   The advice to apply.
+     */
+    public PointcutAdvice(Pointcut pointcut, Advice advice) {
+        this.pointcut = pointcut;
+        this.advice = advice;
+    }
+
+    /**
+     * Selects the advices that apply to a method, unwrapping the matching PointcutAdvices.
+     *
+     * @param advices     The advices of the proxy.
+     * @param method      The proxied method.
+     * @param targetClass The class of the target object.
+     * @return The matching advices in their original order, empty if none matches.
+     */
+    public static List<Advice> select(List<Advice> advices, Method method, Class<?> targetClass) {
+        List<Advice> selected = null;
+        for (int i = 0; i < advices.size(); i++) {
+            Advice advice = advices.get(i);
+            while (advice instanceof PointcutAdvice) {
+                PointcutAdvice pointcutAdvice = (PointcutAdvice) advice;
+                advice = pointcutAdvice.pointcut.matches(method, targetClass) ? pointcutAdvice.advice : null;
+            }
+            if (advice != null) {
+                if (selected == null) {
+                    selected = new ArrayList<>(advices.size() - i);
+                }
+                selected.add(advice);
+            }
+        }
+        return selected == null ? Collections.emptyList() : selected;
+    }
+
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    public Advice getAdvice() {
+        return advice;
+    }
+
+    @Override
+    public void before(Object target, Method method, Object[] args) {
+        advice.before(target, method, args);
+    }
+
+    @Override
+    public void after(Object target, Method method, Object[] args, Object result) {
+        advice.after(target, method, args, result);
+    }
+
+    @Override
+    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+        advice.afterThrowing(target, method, args, throwable);
+    }
+
+    /**
+     * Applies the advice if the pointcut matches, so that a PointcutAdvice run by a chain that did not
+     * select it, such as a DefaultAdviceChain, still honours its pointcut.
+     */
+    @Override
+    public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+        if (pointcut.matches(method, target.getClass())) {
+            return advice.around(target, method, args, adviceChain);
+        }
+        return adviceChain.invokeNext(target, method, args);
+    }
+}
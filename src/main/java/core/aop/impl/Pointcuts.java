@@ -0,0 +1,97 @@
+package core.aop.impl;
+
+import core.aop.interfaces.Pointcut;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.regex.Pattern;
+
+/**
+ * Pointcuts, factory of the common pointcuts: method name patterns, annotations and declaring types.
+ */
+public final class Pointcuts {
+
+    private Pointcuts() {
+    }
+
+    /**
+     * Matches methods by name. The pattern is the method name, where '*' stands for any sequence of characters,
+     * e.g. "get*", "*Result" or "save*Order".
+     *
+     * @param pattern The method name pattern.
+     * @return The pointcut.
+     */
+    public static Pointcut methodName(String pattern) {
+        String[] parts = pattern.split("\\*", -1);
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        Pattern compiled = Pattern.compile(regex.toString());
+        return (method, targetClass) -> compiled.matcher(method.getName()).matches();
+    }
+
+    /**
+     * Matches methods carrying an annotation, on the proxied method, on the method of the target class
+     * implementing it, or on the target class itself. The annotation must be retained at runtime.
+     * An annotation on the class does not apply to equals, hashCode, toString and the other methods of Object,
+     * even where the class overrides them.
+     *
+     * @param annotationType The annotation type.
+     * @return The pointcut.
+     */
+    public static Pointcut annotatedWith(Class<? extends Annotation> annotationType) {
+        return (method, targetClass) -> {
+            if (method.isAnnotationPresent(annotationType)) {
+                return true;
+            }
+            Method implementation = implementationOf(method, targetClass);
+            if (implementation != null && implementation.isAnnotationPresent(annotationType)) {
+                return true;
+            }
+            return targetClass.isAnnotationPresent(annotationType) && !isObjectMethod(method);
+        };
+    }
+
+    /**
+     * @return Whether the method is, or overrides, a public method of Object
+     */
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Matches methods declared by a type or by one of its subtypes, so that declaredBy(MyService.class)
+     * matches the methods of MyService but not equals, hashCode and toString.
+     *
+     * @param type The declaring type.
+     * @return The pointcut.
+     */
+    public static Pointcut declaredBy(Class<?> type) {
+        return (method, targetClass) -> type.isAssignableFrom(method.getDeclaringClass());
+    }
+
+    /**
+     * Find the method of the target class implementing a proxied method
+     *
+     * @return The implementation, or null if the target class has no such public method
+     */
+    static Method implementationOf(Method method, Class<?> targetClass) {
+        if (method.getDeclaringClass() == targetClass) {
+            return method;
+        }
+        try {
+            return targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
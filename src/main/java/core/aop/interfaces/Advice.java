@@ -5,6 +5,8 @@ import java.lang.reflect.Method;
 /**
  * Advice interface, defines the behavior of an advice.
  * An advice is a piece of code that is executed before, after, or around a method invocation.
+ * The exceptions an advice sees are the ones thrown by the target method itself,
+ * never wrapped in an InvocationTargetException.
  */
 public interface Advice {
 
@@ -33,7 +35,7 @@ public interface Advice {
      * @param target    The target object.
      * @param method    The method being invoked.
      * @param args      The arguments passed to the method.
-     * @param throwable The exception thrown by the method.
+     * @param throwable The exception thrown by the method, not wrapped.
      */
     void afterThrowing(Object target, Method method, Object[] args, Throwable throwable);
 
@@ -46,7 +48,8 @@ public interface Advice {
      * @param args        The arguments passed to the method.
      * @param adviceChain The advice chain, used to invoke the next advice or the target method.
      * @return The result returned by the method.
-     * @throws Throwable If an exception occurs during the method invocation.
+     * @throws Throwable If an exception occurs during the method invocation, as thrown by the target method
+     *                   or a later advice, not wrapped.
      */
     Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable;
 }
\ No newline at end of file
@@ -15,7 +15,7 @@ public interface AdviceChain {
      * @param method The method being invoked.
      * @param args   The arguments passed to the method.
      * @return The result returned by the method.
-     * @throws Throwable If an exception occurs during the method invocation.
+     * @throws Throwable The exception thrown by the next advice or the target method, not wrapped.
      */
     Object invokeNext(Object target, Method method, Object[] args) throws Throwable;
 }
\ No newline at end of file
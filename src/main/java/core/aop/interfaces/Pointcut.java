@@ -0,0 +1,48 @@
+package core.aop.interfaces;
+
+import java.lang.reflect.Method;
+
+/**
+ * Pointcut interface, selects the methods an advice applies to.
+ * Pointcuts are evaluated once per proxied method, never on each invocation.
+ */
+@FunctionalInterface
+public interface Pointcut {
+
+    /**
+     * Pointcut matching every method.
+     */
+    Pointcut ALL = (method, targetClass) -> true;
+
+    /**
+     * Checks whether the advice applies to a method.
+     *
+     * @param method      The proxied method, as declared by the interface or class of the proxy.
+     * @param targetClass The class of the target object.
+     * @return True if the method matches.
+     */
+    boolean matches(Method method, Class<?> targetClass);
+
+    /**
+     * @param other Another pointcut.
+     * @return A pointcut matching the methods both pointcuts match.
+     */
+    default Pointcut and(Pointcut other) {
+        return (method, targetClass) -> matches(method, targetClass) && other.matches(method, targetClass);
+    }
+
+    /**
+     * @param other Another pointcut.
+     * @return A pointcut matching the methods either pointcut matches.
+     */
+    default Pointcut or(Pointcut other) {
+        return (method, targetClass) -> matches(method, targetClass) || other.matches(method, targetClass);
+    }
+
+    /**
+     * @return A pointcut matching the methods this pointcut does not match.
+     */
+    default Pointcut negate() {
+        return (method, targetClass) -> !matches(method, targetClass);
+    }
+}
@@ -0,0 +1,21 @@
+package core.aop.interfaces;
+
+import java.lang.reflect.Method;
+
+/**
+ * TargetInvoker interface, calls the target method at the end of an advice chain.
+ * Proxy engines that can call the target directly provide one instead of Method.invoke.
+ */
+public interface TargetInvoker {
+
+    /**
+     * Invokes the target method.
+     *
+     * @param target The target object.
+     * @param method The method being invoked.
+     * @param args   The arguments passed to the method.
+     * @return The result returned by the method, boxed, or null for void methods.
+     * @throws Throwable The exception thrown by the target method, not wrapped.
+     */
+    Object invoke(Object target, Method method, Object[] args) throws Throwable;
+}
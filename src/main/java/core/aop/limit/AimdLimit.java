@@ -0,0 +1,61 @@
+package core.aop.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additive increase, multiplicative decrease limit.
+ * A call slower than the latency threshold multiplies the limit by the backoff ratio.
+ * A faster call completing while at least half of the limit is in use raises the limit by one,
+ * so that the limit only grows when the calls actually need it.
+ */
+public class AimdLimit implements LimitAlgorithm {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+
+    /**
+     * @param initialLimit     Limit before any sample
+     * @param minLimit         Lowest limit, at least 1
+     * @param maxLimit         Highest limit
+     * @param latencyThreshold Latency above which the limit decreases
+     * @param unit             Unit of latencyThreshold
+     * @param backoffRatio     Factor applied to the limit on a slow call, between 0 and 1 excluded
+     * @throws IllegalArgumentException If the limits are not ordered or the ratio is out of range
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long latencyThreshold, TimeUnit unit, double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max, got "
+                    + minLimit + ", " + initialLimit + ", " + maxLimit);
+        }
+        if (!(backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1, got " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit.get();
+    }
+
+    @Override
+    public void onSample(long latencyNanos, int inFlight) {
+        if (latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        } else if (inFlight * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AimdLimit{" + limit.get() + " in [" + minLimit + ", " + maxLimit + "]}";
+    }
+}
@@ -0,0 +1,149 @@
+package core.aop.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of calls running at the same time to the limit of a LimitAlgorithm.
+ * Acquiring and releasing a permit below the limit is a compare-and-set on the in-flight count, without locking.
+ * Only the calls waiting for a permit take the lock, and a release signals them only when some are waiting.
+ * <pre>
+ * if (!limiter.acquire(timeoutNanos)) {
+ *     reject();
+ * }
+ * long start = System.nanoTime();
+ * try {
+ *     call();
+ * } finally {
+ *     limiter.release(System.nanoTime() - start);
+ * }
+ * </pre>
+ */
+public class ConcurrencyLimiter {
+    private final LimitAlgorithm algorithm;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder queueTimeNanos = new LongAdder();
+
+    public ConcurrencyLimiter(LimitAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Takes a permit if the limit is not reached, never waits.
+     *
+     * @return true if the call may proceed.
+     */
+    public boolean tryAcquire() {
+        if (tryIncrement()) {
+            acquired.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Takes a permit, waiting for one up to the timeout if the limit is reached.
+     *
+     * @param timeoutNanos Maximum time to wait, 0 to reject immediately.
+     * @return true if the call may proceed, false if it is rejected.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean acquire(long timeoutNanos) throws InterruptedException {
+        if (tryIncrement()) {
+            acquired.increment();
+            return true;
+        }
+        if (timeoutNanos <= 0) {
+            rejected.increment();
+            return false;
+        }
+        queued.increment();
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+        boolean success = false;
+        lock.lockInterruptibly();
+        try {
+            // Registered before retrying so that a release seeing no waiter has already freed the permit retried here
+            waiting.incrementAndGet();
+            try {
+                while (!(success = tryIncrement())) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    released.awaitNanos(remaining);
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+            queueTimeNanos.add(System.nanoTime() - start);
+            if (success) {
+                acquired.increment();
+            } else {
+                rejected.increment();
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Returns a permit and reports the latency of the call to the limit algorithm.
+     *
+     * @param latencyNanos Duration of the call, queueing excluded.
+     */
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        algorithm.onSample(latencyNanos, running);
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                // The limit may have grown, wake every waiter to retry
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public int getLimit() {
+        return algorithm.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public LimitAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public LimiterStats stats() {
+        return new LimiterStats(acquired.sum(), rejected.sum(), queued.sum(), queueTimeNanos.sum(),
+                algorithm.getLimit(), inFlight.get());
+    }
+
+    private boolean tryIncrement() {
+        int limit = algorithm.getLimit();
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package core.aop.limit;
+
+/**
+ * A limit that never changes.
+ */
+public class FixedLimit implements LimitAlgorithm {
+    private final int limit;
+
+    /**
+     * @param limit Maximum number of concurrent calls
+     * @throws IllegalArgumentException If the limit is lower than 1
+     */
+    public FixedLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1, got " + limit);
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long latencyNanos, int inFlight) {
+    }
+
+    @Override
+    public String toString() {
+        return "FixedLimit{" + limit + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package core.aop.limit;
+
+/**
+ * Decides the number of calls a ConcurrencyLimiter lets run at the same time.
+ * Implementations are called concurrently by the calls completing and must be thread-safe.
+ */
+public interface LimitAlgorithm {
+
+    /**
+     * @return The current limit, at least 1.
+     */
+    int getLimit();
+
+    /**
+     * Called when a call completes, to adapt the limit.
+     *
+     * @param latencyNanos Duration of the call, queueing excluded.
+     * @param inFlight     Number of calls running when it completed, itself included.
+     */
+    void onSample(long latencyNanos, int inFlight);
+}
@@ -0,0 +1,70 @@
+package core.aop.limit;
+
+/**
+ * Statistics of a concurrency limiter, counted since it was created.
+ */
+public class LimiterStats {
+    private final long acquiredCount;
+    private final long rejectedCount;
+    private final long queuedCount;
+    private final long queueTimeNanos;
+    private final int limit;
+    private final int inFlight;
+
+    public LimiterStats(long acquiredCount, long rejectedCount, long queuedCount, long queueTimeNanos, int limit, int inFlight) {
+        this.acquiredCount = acquiredCount;
+        this.rejectedCount = rejectedCount;
+        this.queuedCount = queuedCount;
+        this.queueTimeNanos = queueTimeNanos;
+        this.limit = limit;
+        this.inFlight = inFlight;
+    }
+
+    /**
+     * @return Number of calls let through, after queueing or not.
+     */
+    public long getAcquiredCount() {
+        return acquiredCount;
+    }
+
+    /**
+     * @return Number of calls rejected, immediately or after waiting in the queue.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return Number of calls that found the limit reached and waited in the queue.
+     */
+    public long getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * @return Total time spent waiting in the queue, in nanoseconds.
+     */
+    public long getQueueTimeNanos() {
+        return queueTimeNanos;
+    }
+
+    /**
+     * @return The limit when the statistics were read.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Number of calls running when the statistics were read.
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public String toString() {
+        return "LimiterStats{acquired=" + acquiredCount + ", rejected=" + rejectedCount + ", queued=" + queuedCount
+                + ", queueTimeNanos=" + queueTimeNanos + ", limit=" + limit + ", inFlight=" + inFlight + "}";
+    }
+}
@@ -0,0 +1,122 @@
+package core.aop.proxy;
+
+import core.aop.impl.AsyncResults;
+import core.aop.impl.CompiledAdviceChain;
+import core.aop.impl.FusedAdviceChain;
+import core.aop.impl.PointcutAdvice;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.metrics.ContainerMetrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Runs the advice chain of a generated proxy. Called by the generated methods that have matching advices,
+ * it ends the compiled chain of each method in the generated invokeTarget method instead of Method.invoke.
+ * Public only because the generated classes live in the packages of their targets.
+ */
+public final class BytecodeProxyDispatcher {
+
+    private static final MethodHandle INVOKE_TARGET;
+
+    static {
+        try {
+            INVOKE_TARGET = MethodHandles.publicLookup().findVirtual(GeneratedProxy.class, "invokeTarget",
+                    MethodType.methodType(Object.class, int.class, Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object target;
+    private final List<Advice>[] methodAdvices;
+    private final boolean[] directMethods;
+    private final Method[] methods;
+    private final ContainerMetrics metrics;
+    private final boolean fused;
+    private AdviceChain[] adviceChains;
+
+    BytecodeProxyDispatcher(Object target, List<Advice> advices, Method[] methods, ContainerMetrics metrics, boolean fused) {
+        this.target = target;
+        this.methods = methods;
+        this.metrics = metrics;
+        this.fused = fused;
+        this.methodAdvices = selectAdvices(advices, methods, target.getClass());
+        this.directMethods = new boolean[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            directMethods[i] = methodAdvices[i].isEmpty();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Advice>[] selectAdvices(List<Advice> advices, Method[] methods, Class<?> targetClass) {
+        List<Advice>[] selected = new List[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            selected[i] = PointcutAdvice.select(advices, methods[i], targetClass);
+        }
+        return selected;
+    }
+
+    /**
+     * Whether each method calls the target directly, because no advice matches it
+     */
+    boolean[] getDirectMethods() {
+        return directMethods;
+    }
+
+    /**
+     * Bind the dispatcher to its proxy, once the proxy is constructed
+     */
+    void bind(GeneratedProxy proxy) {
+        AdviceChain[] chains = new AdviceChain[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            int methodIndex = i;
+            if (fused) {
+                MethodHandle targetHandle = MethodHandles.insertArguments(INVOKE_TARGET, 0, proxy, methodIndex);
+                chains[i] = FusedAdviceChain.compile(methodAdvices[i], methods[i], targetHandle);
+            } else {
+                chains[i] = CompiledAdviceChain.compile(methodAdvices[i], (target, method, args) -> proxy.invokeTarget(methodIndex, target, args));
+            }
+        }
+        adviceChains = chains;
+    }
+
+    /**
+     * Invoke a proxied method through the advices
+     *
+     * @param methodIndex Index of the method in the proxy class
+     * @param args        Arguments, primitives boxed
+     * @return Result, boxed
+     * @throws Throwable The exception thrown by an advice or the target method
+     */
+    public Object invoke(int methodIndex, Object[] args) throws Throwable {
+        Method method = methods[methodIndex];
+        AdviceChain adviceChain = adviceChains[methodIndex];
+        if (!metrics.isEnabled()) {
+            return adviceChain.invokeNext(target, method, args);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean async = false;
+        try {
+            Object result = adviceChain.invokeNext(target, method, args);
+            failed = false;
+            if (result instanceof CompletionStage) {
+                // Time the method until its result completes
+                async = true;
+                AsyncResults.whenComplete(result, (value, throwable) ->
+                        metrics.advisedMethodInvoked(method, System.nanoTime() - start, throwable != null));
+            }
+            return result;
+        } finally {
+            if (!async) {
+                metrics.advisedMethodInvoked(method, System.nanoTime() - start, failed);
+            }
+        }
+    }
+}
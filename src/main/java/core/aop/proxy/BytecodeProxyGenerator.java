@@ -0,0 +1,425 @@
+package core.aop.proxy;
+
+import core.aop.interfaces.Advice;
+import core.metrics.ContainerMetrics;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the proxy classes of the BYTECODE engine as hidden classes, in the package of their target class.
+ * A proxy class implements the interfaces of its target class, or extends the class if it has no interface.
+ * Each proxied method calls the target directly when no advice matches it, and the BytecodeProxyDispatcher
+ * otherwise. The generated invokeTarget method ends the advice chain with a direct call as well.
+ * <pre>
+ * final class Target$$Proxy implements Service, GeneratedProxy {
+ *     public String hello(String name) {
+ *         if (direct[0]) return ((Service) target).hello(name);
+ *         return (String) dispatcher.invoke(0, new Object[]{name});
+ *     }
+ *     public Object invokeTarget(int methodIndex, Object target, Object[] args) {
+ *         switch (methodIndex) {
+ *             case 0: return ((Service) target).hello((String) args[0]);
+ *             ...
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+final class BytecodeProxyGenerator {
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String DISPATCHER = Type.getInternalName(BytecodeProxyDispatcher.class);
+    private static final String GENERATED_PROXY = Type.getInternalName(GeneratedProxy.class);
+    private static final String INVOKE_DESCRIPTOR = "(I[Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final String INVOKE_TARGET_DESCRIPTOR = "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Object.class, BytecodeProxyDispatcher.class, boolean[].class);
+
+    /**
+     * Proxy class of each target class, generated on first use
+     */
+    private static final ClassValue<ProxyClass> PROXY_CLASSES = new ClassValue<ProxyClass>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> targetClass) {
+            try {
+                return generate(targetClass);
+            } catch (Exception | LinkageError e) {
+                // Not accessible from the package of the target, or not verifiable: use a JDK proxy
+                return ProxyClass.UNSUPPORTED;
+            }
+        }
+    };
+
+    private BytecodeProxyGenerator() {
+    }
+
+    /**
+     * Create a proxy with a generated class
+     *
+     * @param target  The target object.
+     * @param advices The advices to apply.
+     * @param metrics The metrics the proxy reports to.
+     * @param fused   Whether the advice chains are fused into MethodHandles.
+     * @return The proxy, or null if no class can be generated for the target
+     */
+    static Object newProxy(Object target, List<Advice> advices, ContainerMetrics metrics, boolean fused) {
+        ProxyClass proxyClass = PROXY_CLASSES.get(target.getClass());
+        if (proxyClass == ProxyClass.UNSUPPORTED) {
+            return null;
+        }
+        BytecodeProxyDispatcher dispatcher = new BytecodeProxyDispatcher(target, advices, proxyClass.methods, metrics, fused);
+        GeneratedProxy proxy;
+        try {
+            proxy = (GeneratedProxy) proxyClass.constructor.invokeExact(target, dispatcher, dispatcher.getDirectMethods());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException("Cannot create proxy for " + target.getClass().getName(), t);
+        }
+        dispatcher.bind(proxy);
+        return proxy;
+    }
+
+    private static ProxyClass generate(Class<?> targetClass) throws Exception {
+        if (targetClass.isHidden() || targetClass.isArray() || targetClass.isPrimitive()) {
+            return ProxyClass.UNSUPPORTED;
+        }
+        Class<?>[] interfaces = targetClass.getInterfaces();
+        boolean subclass = interfaces.length == 0;
+        if (subclass && !canSubclass(targetClass)) {
+            return ProxyClass.UNSUPPORTED;
+        }
+        Method[] methods = proxiedMethods(targetClass, interfaces, subclass);
+        String packageName = targetClass.getPackageName();
+        for (Class<?> type : interfaces) {
+            if (!isAccessible(type, targetClass)) {
+                return ProxyClass.UNSUPPORTED;
+            }
+        }
+        for (Method method : methods) {
+            if (!isAccessible(method.getReturnType(), targetClass) || (!subclass && !isAccessible(method.getDeclaringClass(), targetClass))) {
+                return ProxyClass.UNSUPPORTED;
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (!isAccessible(parameterType, targetClass)) {
+                    return ProxyClass.UNSUPPORTED;
+                }
+            }
+        }
+
+        String className = (packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/")
+                + targetClass.getSimpleName() + "$$Proxy";
+        byte[] bytes = generateClass(className, targetClass, interfaces, methods, subclass);
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup())
+                .defineHiddenClass(bytes, true);
+        MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE)
+                .asType(MethodType.methodType(GeneratedProxy.class, Object.class, BytecodeProxyDispatcher.class, boolean[].class));
+        return new ProxyClass(constructor, methods);
+    }
+
+    private static boolean canSubclass(Class<?> targetClass) {
+        if (Modifier.isFinal(targetClass.getModifiers()) || targetClass.isInterface()
+                || targetClass.isEnum() || targetClass.isRecord() || targetClass.isSealed()) {
+            return false;
+        }
+        try {
+            Constructor<?> constructor = targetClass.getDeclaredConstructor();
+            return !Modifier.isPrivate(constructor.getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The methods of the proxy: all methods of the interfaces and equals/hashCode/toString,
+     * or the public methods of the class that can be overridden
+     */
+    private static Method[] proxiedMethods(Class<?> targetClass, Class<?>[] interfaces, boolean subclass) throws NoSuchMethodException {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        if (subclass) {
+            for (Method method : targetClass.getMethods()) {
+                int modifiers = method.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !method.isBridge()) {
+                    methods.putIfAbsent(method.getName() + Type.getMethodDescriptor(method), method);
+                }
+            }
+        } else {
+            for (Class<?> type : interfaces) {
+                for (Method method : type.getMethods()) {
+                    if (!Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+                        methods.putIfAbsent(method.getName() + Type.getMethodDescriptor(method), method);
+                    }
+                }
+            }
+            for (Method method : new Method[]{
+                    Object.class.getMethod("equals", Object.class),
+                    Object.class.getMethod("hashCode"),
+                    Object.class.getMethod("toString")}) {
+                methods.putIfAbsent(method.getName() + Type.getMethodDescriptor(method), method);
+            }
+        }
+        return methods.values().toArray(new Method[0]);
+    }
+
+    /**
+     * Whether a type can be used by a class generated in the package of the target class
+     */
+    private static boolean isAccessible(Class<?> type, Class<?> targetClass) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (type.getPackageName().equals(targetClass.getPackageName()) && type.getClassLoader() == targetClass.getClassLoader()) {
+            return !Modifier.isPrivate(type.getModifiers()) && (type.getDeclaringClass() == null || isAccessible(type.getDeclaringClass(), targetClass));
+        }
+        return Modifier.isPublic(type.getModifiers()) && (type.getDeclaringClass() == null || isAccessible(type.getDeclaringClass(), targetClass));
+    }
+
+    private static byte[] generateClass(String className, Class<?> targetClass, Class<?>[] interfaces, Method[] methods, boolean subclass) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // The generated code never merges two different reference types
+                return OBJECT;
+            }
+        };
+        String superName = subclass ? Type.getInternalName(targetClass) : OBJECT;
+        List<String> interfaceNames = new ArrayList<>();
+        for (Class<?> type : interfaces) {
+            interfaceNames.add(Type.getInternalName(type));
+        }
+        interfaceNames.add(GENERATED_PROXY);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+                className, null, superName, interfaceNames.toArray(new String[0]));
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "target", "Ljava/lang/Object;", null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "dispatcher", "L" + DISPATCHER + ";", null, null).visitEnd();
+        writer.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "direct", "[Z", null, null).visitEnd();
+
+        generateConstructor(writer, className, superName);
+        String owner = Type.getInternalName(targetClass);
+        for (int i = 0; i < methods.length; i++) {
+            generateMethod(writer, className, methods[i], i, subclass ? owner : null);
+        }
+        generateInvokeTarget(writer, methods, subclass ? owner : null);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void generateConstructor(ClassWriter writer, String className, String superName) {
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE,
+                Type.getType(Object.class), Type.getObjectType(DISPATCHER), Type.getType(boolean[].class)), null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, superName, "<init>", "()V", false);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, "target", "Ljava/lang/Object;");
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, "dispatcher", "L" + DISPATCHER + ";");
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitFieldInsn(Opcodes.PUTFIELD, className, "direct", "[Z");
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Override of a proxied method: direct call without matching advices, dispatcher call with advices
+     */
+    private static void generateMethod(ClassWriter writer, String className, Method method, int methodIndex, String subclassOwner) {
+        String descriptor = Type.getMethodDescriptor(method);
+        Type[] parameterTypes = Type.getArgumentTypes(descriptor);
+        Type returnType = Type.getReturnType(descriptor);
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), descriptor, null, null);
+        mv.visitCode();
+
+        Label advised = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "direct", "[Z");
+        pushInt(mv, methodIndex);
+        mv.visitInsn(Opcodes.BALOAD);
+        mv.visitJumpInsn(Opcodes.IFEQ, advised);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "target", "Ljava/lang/Object;");
+        int slot = 1;
+        String owner = invokeTargetOwner(method, subclassOwner);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        for (Type parameterType : parameterTypes) {
+            mv.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), slot);
+            slot += parameterType.getSize();
+        }
+        invokeTargetMethod(mv, method, owner, descriptor, subclassOwner);
+        mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+
+        mv.visitLabel(advised);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, className, "dispatcher", "L" + DISPATCHER + ";");
+        pushInt(mv, methodIndex);
+        pushInt(mv, parameterTypes.length);
+        mv.visitTypeInsn(Opcodes.ANEWARRAY, OBJECT);
+        slot = 1;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            mv.visitInsn(Opcodes.DUP);
+            pushInt(mv, i);
+            mv.visitVarInsn(parameterTypes[i].getOpcode(Opcodes.ILOAD), slot);
+            box(mv, parameterTypes[i]);
+            mv.visitInsn(Opcodes.AASTORE);
+            slot += parameterTypes[i].getSize();
+        }
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, DISPATCHER, "invoke", INVOKE_DESCRIPTOR, false);
+        if (returnType.getSort() == Type.VOID) {
+            mv.visitInsn(Opcodes.POP);
+            mv.visitInsn(Opcodes.RETURN);
+        } else {
+            unbox(mv, returnType);
+            mv.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * invokeTarget(int methodIndex, Object target, Object[] args): a switch calling each method directly
+     */
+    private static void generateInvokeTarget(ClassWriter writer, Method[] methods, String subclassOwner) {
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "invokeTarget", INVOKE_TARGET_DESCRIPTOR, null, null);
+        mv.visitCode();
+        Label unknown = new Label();
+        if (methods.length > 0) {
+            Label[] cases = new Label[methods.length];
+            for (int i = 0; i < cases.length; i++) {
+                cases[i] = new Label();
+            }
+            mv.visitVarInsn(Opcodes.ILOAD, 1);
+            mv.visitTableSwitchInsn(0, methods.length - 1, unknown, cases);
+            for (int i = 0; i < methods.length; i++) {
+                Method method = methods[i];
+                String descriptor = Type.getMethodDescriptor(method);
+                Type[] parameterTypes = Type.getArgumentTypes(descriptor);
+                Type returnType = Type.getReturnType(descriptor);
+                String owner = invokeTargetOwner(method, subclassOwner);
+                mv.visitLabel(cases[i]);
+                mv.visitVarInsn(Opcodes.ALOAD, 2);
+                mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    mv.visitVarInsn(Opcodes.ALOAD, 3);
+                    pushInt(mv, j);
+                    mv.visitInsn(Opcodes.AALOAD);
+                    unbox(mv, parameterTypes[j]);
+                }
+                invokeTargetMethod(mv, method, owner, descriptor, subclassOwner);
+                if (returnType.getSort() == Type.VOID) {
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                } else {
+                    box(mv, returnType);
+                }
+                mv.visitInsn(Opcodes.ARETURN);
+            }
+        }
+        mv.visitLabel(unknown);
+        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitLdcInsn("Unknown method index");
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(Opcodes.ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * The class the target is cast to before the call: the target class for subclass proxies,
+     * the declaring interface (or Object) for interface proxies
+     */
+    private static String invokeTargetOwner(Method method, String subclassOwner) {
+        return subclassOwner != null ? subclassOwner : Type.getInternalName(method.getDeclaringClass());
+    }
+
+    private static void invokeTargetMethod(MethodVisitor mv, Method method, String owner, String descriptor, String subclassOwner) {
+        boolean isInterface = subclassOwner == null && method.getDeclaringClass().isInterface();
+        mv.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, owner, method.getName(), descriptor, isInterface);
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private static void box(MethodVisitor mv, Type type) {
+        String wrapper = wrapperType(type);
+        if (wrapper != null) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf", "(" + type.getDescriptor() + ")L" + wrapper + ";", false);
+        }
+    }
+
+    private static void unbox(MethodVisitor mv, Type type) {
+        String wrapper = wrapperType(type);
+        if (wrapper != null) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getClassName() + "Value", "()" + type.getDescriptor(), false);
+        } else if (!OBJECT.equals(type.getInternalName())) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, type.getSort() == Type.ARRAY ? type.getDescriptor() : type.getInternalName());
+        }
+    }
+
+    private static String wrapperType(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Generated proxy class of a target class.
+     */
+    private static class ProxyClass {
+        static final ProxyClass UNSUPPORTED = new ProxyClass(null, null);
+
+        final MethodHandle constructor; // (Object target, BytecodeProxyDispatcher, boolean[] direct) -> GeneratedProxy
+        final Method[] methods;
+
+        ProxyClass(MethodHandle constructor, Method[] methods) {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package core.aop.proxy;
+
+/**
+ * Implemented by the proxy classes generated by the BYTECODE engine.
+ */
+public interface GeneratedProxy {
+
+    /**
+     * Call a proxied method on a target directly, without reflection.
+     *
+     * @param methodIndex Index of the method in the proxy class
+     * @param target      Target object
+     * @param args        Arguments, primitives boxed
+     * @return Result, boxed, or null for void methods
+     * @throws Throwable The exception thrown by the target method, not wrapped
+     */
+    Object invokeTarget(int methodIndex, Object target, Object[] args) throws Throwable;
+}
@@ -0,0 +1,17 @@
+package core.aop.proxy;
+
+/**
+ * Engines the ProxyFactory can create proxies with.
+ */
+public enum ProxyEngine {
+    /**
+     * java.lang.reflect.Proxy: implements the interfaces of the target, dispatches through an InvocationHandler
+     * and calls the target with Method.invoke.
+     */
+    JDK,
+    /**
+     * Generated hidden class: implements the interfaces of the target, or extends its class if it has none,
+     * and calls the target directly. Falls back to JDK when the target cannot be proxied this way.
+     */
+    BYTECODE
+}
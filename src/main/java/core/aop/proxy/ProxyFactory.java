@@ -2,27 +2,145 @@ package core.aop.proxy;
 
 import core.aop.handler.AdviceInvocationHandler;
 import core.aop.interfaces.Advice;
+import core.metrics.ContainerMetrics;
 
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * ProxyFactory, used to create proxy objects.
  */
 public class ProxyFactory {
 
+    private static volatile ContainerMetrics metrics = ContainerMetrics.NOOP;
+    private static volatile ProxyEngine defaultEngine = ProxyEngine.JDK;
+    private static volatile boolean fuseAdviceChains;
+
     /**
-     * Creates a proxy object for the given target object and advice.
+     * Sets the metrics recording the latency of the methods called through proxies.
+     * Only proxies created after the call report to them.
+     *
+     * @param containerMetrics The container metrics, or null to turn metrics off.
+     */
+    public static void setMetrics(ContainerMetrics containerMetrics) {
+        metrics = containerMetrics == null ? ContainerMetrics.NOOP : containerMetrics;
+    }
+
+    /**
+     * Gets the metrics the proxies created from now on report to.
+     *
+     * @return The container metrics.
+     */
+    public static ContainerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the engine used by getProxy when no engine is given.
+     *
+     * @param engine The proxy engine, or null for JDK.
+     */
+    public static void setDefaultEngine(ProxyEngine engine) {
+        defaultEngine = engine == null ? ProxyEngine.JDK : engine;
+    }
+
+    /**
+     * Gets the engine used by getProxy when no engine is given.
+     *
+     * @return The proxy engine.
+     */
+    public static ProxyEngine getDefaultEngine() {
+        return defaultEngine;
+    }
+
+    /**
+     * Sets whether getProxy fuses advice chains when it is not told explicitly.
+     * Only proxies created after the call are affected.
+     *
+     * @param fuse True to fuse advice chains by default.
+     */
+    public static void setFuseAdviceChains(boolean fuse) {
+        fuseAdviceChains = fuse;
+    }
+
+    /**
+     * Gets whether getProxy fuses advice chains when it is not told explicitly.
+     *
+     * @return True if advice chains are fused by default.
+     */
+    public static boolean isFuseAdviceChains() {
+        return fuseAdviceChains;
+    }
+
+    /**
+     * Creates a proxy object for the given target object and advice, with the default engine.
      *
      * @param advices The advice to be applied to the target object list.
      * @param target The target object.
      * @return The proxy object.
      */
     public static Object getProxy(Object target, List<Advice> advices) {
+        return getProxy(target, advices, defaultEngine);
+    }
+
+    /**
+     * Creates a proxy object for the given target object and advice.
+     * Advices wrapped in a PointcutAdvice only apply to the methods their pointcut matches,
+     * and methods without any matching advice call the target directly.
+     * The BYTECODE engine falls back to a JDK proxy when no class can be generated for the target.
+     * With either engine, the caller gets the exception thrown by the target method or an advice as it is,
+     * a checked exception the interface method does not declare is wrapped in an UndeclaredThrowableException.
+     *
+     * @param target  The target object.
+     * @param advices The advice to be applied to the target object list.
+     * @param engine  The proxy engine.
+     * @return The proxy object.
+     */
+    public static Object getProxy(Object target, List<Advice> advices, ProxyEngine engine) {
+        return getProxy(target, advices, engine, fuseAdviceChains);
+    }
+
+    /**
+     * Creates a proxy object for the given target object and advice.
+     * Fused proxies compile the advice chain of each method into a single MethodHandle,
+     * which the JIT can inline down to the target call, instead of a chain of AdviceChain nodes.
+     *
+     * @param target           The target object.
+     * @param advices          The advice to be applied to the target object list.
+     * @param engine           The proxy engine.
+     * @param fuseAdviceChains True to fuse the advice chains of the proxy.
+     * @return The proxy object.
+     */
+    public static Object getProxy(Object target, List<Advice> advices, ProxyEngine engine, boolean fuseAdviceChains) {
+        if (engine == ProxyEngine.BYTECODE) {
+            Object proxy = BytecodeProxyGenerator.newProxy(target, advices, metrics, fuseAdviceChains);
+            if (proxy != null) {
+                return proxy;
+            }
+        }
         return Proxy.newProxyInstance(
                 target.getClass().getClassLoader(),
                 target.getClass().getInterfaces(),
-                new AdviceInvocationHandler(target, advices)
+                new AdviceInvocationHandler(target, advices, fuseAdviceChains)
         );
     }
+
+    /**
+     * Creates a proxy that obtains its target object on the first method invocation.
+     * Until then, nothing but the proxy itself is allocated.
+     *
+     * @param type         The interface implemented by the proxy.
+     * @param targetSource The source of the target object, called once.
+     * @param <T>          The interface type.
+     * @return The proxy object.
+     */
+    public static <T> T getLazyProxy(Class<T> type, Supplier<?> targetSource) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                new AdviceInvocationHandler(targetSource, Collections.emptyList())
+        ));
+    }
 }
\ No newline at end of file
@@ -1,26 +1,51 @@
 package core.cfgRd.annotation;
 
 import core.cfgRd.BeanDefinitionReader;
-import core.enums.ScopeType;
 import core.ioc.BeanDefinition;
 import core.ioc.DefaultListableBeanFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Reads bean definitions from annotated classes across the classpath.
- * This class scans for classes annotated with @Component and registers them as bean definitions.
+ * Classpath roots with a component index written at build time are read from the index.
+ * Other roots are scanned for classes annotated with @Component, which are registered as bean definitions.
  */
 public class AnnotationBeanDefinitionReader implements BeanDefinitionReader {
 
     private Map<String, BeanDefinition> beanDefinitions = new HashMap<>();
+    private ClassPathScanner classPathScanner = new ClassPathScanner();
+    private final ClassLoader classLoader;
+
+    /**
+     * Constructs an AnnotationBeanDefinitionReader reading the classpath of its own class loader.
+     */
+    public AnnotationBeanDefinitionReader() {
+        this(AnnotationBeanDefinitionReader.class.getClassLoader());
+    }
+
+    /**
+     * Constructs an AnnotationBeanDefinitionReader.
+     *
+     * @param classLoader The class loader to read the component indexes, scan the classpath and load the components with.
+     */
+    public AnnotationBeanDefinitionReader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
 
     /**
      * Loads bean definitions from classes annotated with @Component.
@@ -31,102 +56,198 @@ public class AnnotationBeanDefinitionReader implements BeanDefinitionReader {
      */
     @Override
     public Map<String, BeanDefinition> loadBeanDefinitions(String basePackage) {
+        ComponentIndex componentIndex = loadComponentIndex(basePackage);
         if (basePackage == null || basePackage.isEmpty()) {
-            return loadAllBeanDefinitions(); // Scan the entire classpath
+            return loadAllBeanDefinitions(componentIndex); // Scan the entire classpath
         } else {
-            return loadPackageBeanDefinitions(basePackage); // Scan the specified package
+            return loadPackageBeanDefinitions(basePackage, componentIndex); // Scan the specified package
+        }
+    }
+
+    /**
+     * Loads bean definitions from the component index files of the classpath.
+     *
+     * @param basePackage The base package of the components to load, or null/empty for all components.
+     * @return The component index, or null if no classpath root has one.
+     */
+    private ComponentIndex loadComponentIndex(String basePackage) {
+        ComponentIndex componentIndex;
+        try {
+            componentIndex = ComponentIndex.load(classLoader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        if (componentIndex != null) {
+            for (ComponentIndex.Entry entry : componentIndex.getEntries(basePackage)) {
+                try {
+                    // Load the class without running its static initializers
+                    Class<?> clazz = Class.forName(entry.getClassName(), false, classLoader);
+                    registerBeanDefinition(entry.getBeanId(), clazz, entry.getScope(), entry.isLazy());
+                } catch (ClassNotFoundException e) {
+                    // A stale entry, e.g. of a deleted class, does not prevent loading the other components
+                    System.err.println("Skipping component index entry of missing class " + entry.getClassName());
+                }
+            }
         }
+        return componentIndex;
     }
 
     /**
      * Loads bean definitions from classes annotated with @Component within the specified base package.
      *
-     * @param basePackage The base package to scan for annotated classes.
+     * @param basePackage    The base package to scan for annotated classes.
+     * @param componentIndex The component index, or null if there is none.
      * @return A map of bean definitions, where the key is the bean ID and the value is the BeanDefinition object.
      */
-    private Map<String, BeanDefinition> loadPackageBeanDefinitions(String basePackage) {
+    private Map<String, BeanDefinition> loadPackageBeanDefinitions(String basePackage, ComponentIndex componentIndex) {
+        List<ClassMetadata> components = new ArrayList<>();
         try {
             // Convert package name to resource path
             String resourcePath = basePackage.replace('.', '/');
-            Enumeration<URL> resources = getClass().getClassLoader().getResources(resourcePath);
+            Enumeration<URL> resources = classLoader.getResources(resourcePath);
 
             while (resources.hasMoreElements()) {
                 URL resource = resources.nextElement();
-                File directory = new File(resource.getFile());
-                if (directory.exists()) {
-                    scanClasses(directory, basePackage);
+                if (isIndexed(resource, resourcePath, componentIndex)) {
+                    continue; // Already loaded from the component index
+                }
+                if ("file".equals(resource.getProtocol())) {
+                    components.addAll(classPathScanner.scanDirectory(Paths.get(resource.toURI()), ""));
+                } else if ("jar".equals(resource.getProtocol())) {
+                    components.addAll(classPathScanner.scanJar(jarPath(resource), resourcePath));
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | URISyntaxException e) {
             e.printStackTrace();
         }
+        registerComponents(components);
         return beanDefinitions;
     }
 
     /**
      * Loads bean definitions from classes annotated with @Component across the entire classpath.
+     * Directories are found through the class loader, jar files through the java.class.path property.
      *
+     * @param componentIndex The component index, or null if there is none.
      * @return A map of bean definitions, where the key is the bean ID and the value is the BeanDefinition object.
      */
-    private Map<String, BeanDefinition> loadAllBeanDefinitions() {
+    private Map<String, BeanDefinition> loadAllBeanDefinitions(ComponentIndex componentIndex) {
+        List<ClassMetadata> components = new ArrayList<>();
         try {
-            // Get all classes from the classpath
-            Enumeration<URL> resources = getClass().getClassLoader().getResources("");
+            // Get all directories from the classpath
+            Enumeration<URL> resources = classLoader.getResources("");
             while (resources.hasMoreElements()) {
                 URL resource = resources.nextElement();
-                String protocol = resource.getProtocol();
-                if ("file".equals(protocol)) {
-                    String path = resource.getPath();
-                    scanClasses(new File(path), "");
+                if ("file".equals(resource.getProtocol()) && !isIndexed(resource, "", componentIndex)) {
+                    components.addAll(classPathScanner.scanDirectory(Paths.get(resource.toURI()), ""));
                 }
             }
-        } catch (IOException e) {
+            // Get all jar files from the classpath
+            for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                Path jar = Paths.get(entry);
+                if (entry.endsWith(".jar") && Files.isRegularFile(jar)
+                        && !isIndexed(new URL("jar:" + jar.toUri().toURL() + "!/"), "", componentIndex)) {
+                    components.addAll(classPathScanner.scanJar(jar, ""));
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
             e.printStackTrace();
         }
+        registerComponents(components);
         return beanDefinitions;
     }
 
     /**
-     * Recursively scans the directory for classes annotated with @Component.
+     * Registers the components found by scanning, in class name order, so that the result does not depend
+     * on the order the scan tasks finished in.
      *
-     * @param directory   The directory to scan.
-     * @param packageName The package name corresponding to the directory.
+     * @param components The metadata of the component classes.
      */
-    private void scanClasses(File directory, String packageName) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    scanClasses(file, packageName.isEmpty() ? file.getName() : packageName + "." + file.getName());
-                } else if (file.getName().endsWith(".class")) {
-                    String className = packageName.isEmpty() ? file.getName().substring(0, file.getName().length() - 6) : packageName + '.' + file.getName().substring(0, file.getName().length() - 6);
-                    System.out.println("Scanning class: " + className);
-                    try {
-                        Class<?> clazz = Class.forName(className);
-                        if (clazz.isAnnotationPresent(Component.class) && !Modifier.isAbstract(clazz.getModifiers())) {
-                            Component component = clazz.getAnnotation(Component.class);
-                            String beanId = component.value().isEmpty() ? clazz.getSimpleName() : component.value();
-
-                            BeanDefinition beanDefinition = new BeanDefinition();
-                            beanDefinition.setBeanClass(clazz);
-
-                            if (clazz.isAnnotationPresent(Scope.class)) {
-                                Scope scope = clazz.getAnnotation(Scope.class);
-                                beanDefinition.setScope(ScopeType.valueOf(scope.value().toUpperCase()));
-                            } else {
-                                beanDefinition.setScope(ScopeType.SINGLETON);
-                            }
-
-                            beanDefinitions.put(beanId, beanDefinition);
-                            System.out.println("Registered bean: " + beanId + " with class: " + className);
-                        }
-                    } catch (ClassNotFoundException e) {
-                        e.printStackTrace();
-                    }
-                }
+    private void registerComponents(List<ClassMetadata> components) {
+        components.sort(Comparator.comparing(ClassMetadata::getClassName));
+        for (ClassMetadata metadata : components) {
+            try {
+                registerComponent(metadata);
+            } catch (ClassNotFoundException e) {
+                e.printStackTrace();
             }
         }
     }
+
+    /**
+     * Gets the jar file of a jar URL, e.g. jar:file:/lib/app.jar!/beans/cfgRd.
+     *
+     * @param resource The jar URL.
+     * @return The path of the jar file.
+     */
+    private Path jarPath(URL resource) throws MalformedURLException, URISyntaxException {
+        String path = resource.getPath();
+        int separator = path.indexOf("!/");
+        return Paths.get(new URL(separator < 0 ? path : path.substring(0, separator)).toURI());
+    }
+
+    /**
+     * Loads a component class found by scanning and registers its bean definition.
+     *
+     * @param metadata The metadata read from the class file.
+     * @throws ClassNotFoundException If the class cannot be loaded.
+     */
+    private void registerComponent(ClassMetadata metadata) throws ClassNotFoundException {
+        // Load the class without running its static initializers
+        Class<?> clazz = Class.forName(metadata.getClassName(), false, classLoader);
+        String beanId = metadata.getAnnotationAttribute(Component.class, "value");
+        if (beanId == null || beanId.isEmpty()) {
+            beanId = clazz.getSimpleName();
+        }
+        registerBeanDefinition(beanId, clazz, metadata.getAnnotationAttribute(Scope.class, "value"), metadata.hasAnnotation(Lazy.class));
+        System.out.println("Registered bean: " + beanId + " with class: " + metadata.getClassName());
+    }
+
+    /**
+     * Registers the bean definition of a component class.
+     *
+     * @param beanId The bean ID.
+     * @param clazz  The component class.
+     * @param scope  The scope name, or null for singleton.
+     * @param lazy   Whether the component is annotated with @Lazy.
+     */
+    private void registerBeanDefinition(String beanId, Class<?> clazz, String scope, boolean lazy) {
+        BeanDefinition beanDefinition = new BeanDefinition();
+        beanDefinition.setBeanClass(clazz);
+        beanDefinition.setScopeName(scope == null ? "singleton" : scope);
+        beanDefinition.setLazy(lazy);
+        Scope scopeAnnotation = clazz.getAnnotation(Scope.class);
+        if (scopeAnnotation != null) {
+            // The class is loaded already, reading its annotation does not initialize it
+            beanDefinition.setPoolSize(scopeAnnotation.poolSize());
+            beanDefinition.setPoolMaxWaitMillis(scopeAnnotation.poolMaxWaitMillis());
+            beanDefinition.setResetMethodName(scopeAnnotation.resetMethod().isEmpty() ? null : scopeAnnotation.resetMethod());
+            beanDefinition.setValidateMethodName(scopeAnnotation.validateMethod().isEmpty() ? null : scopeAnnotation.validateMethod());
+        }
+        beanDefinitions.put(beanId, beanDefinition);
+    }
+
+    /**
+     * Checks whether the classpath root of a resource has a component index.
+     *
+     * @param resource       The resource found in the classpath root.
+     * @param resourcePath   The path of the resource relative to the root.
+     * @param componentIndex The component index, or null if there is none.
+     * @return true if the components of the root were loaded from the index.
+     */
+    private boolean isIndexed(URL resource, String resourcePath, ComponentIndex componentIndex) {
+        if (componentIndex == null) {
+            return false;
+        }
+        String url = resource.toString();
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        String root = url.substring(0, url.length() - resourcePath.length());
+        return componentIndex.isIndexed(root.endsWith("/") ? root : root + "/");
+    }
+
     public void injectDependencies(Object bean, Class<?> clazz, DefaultListableBeanFactory beanFactory) {
         for (Field field : clazz.getDeclaredFields()) {
             if (field.isAnnotationPresent(Autowired.class)) {
@@ -136,7 +257,7 @@ public class AnnotationBeanDefinitionReader implements BeanDefinitionReader {
                     String beanName = findBeanNameByType(field.getType(), beanFactory);
                     System.out.println("Found bean name: " + beanName);
                     if (beanName != null) {
-                        Object dependency = beanFactory.getBean(beanName);
+                        Object dependency = beanFactory.resolveDependency(beanName, field.getType(), field.isAnnotationPresent(Lazy.class));
                         field.set(bean, dependency);
                     }
                 } catch (IllegalAccessException e) {
@@ -147,11 +268,7 @@ public class AnnotationBeanDefinitionReader implements BeanDefinitionReader {
     }
 
     private String findBeanNameByType(Class<?> type, DefaultListableBeanFactory beanFactory) {
-        for (Map.Entry<String, BeanDefinition> entry : beanFactory.getBeanDefinitionMap().entrySet()) {
-            if (type.isAssignableFrom(entry.getValue().getBeanClass())) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        // Look up the candidates in the type index of the factory instead of scanning all Bean definitions
+        return beanFactory.getBeanTypeIndex().getFirstBeanNameForType(type);
     }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package core.cfgRd.annotation;
 
+import core.cfgRd.BeanDefinitionReader;
+import core.cfgRd.snapshot.SnapshotBeanDefinitionReader;
 import core.ioc.DefaultListableBeanFactory;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -10,7 +13,7 @@ import java.util.Map;
 public class AnnotationBeanFactory {
 
     private DefaultListableBeanFactory beanFactory;
-    private AnnotationBeanDefinitionReader reader;
+    private BeanDefinitionReader reader;
 
     /**
      * Constructs an AnnotationBeanFactory with the specified bean factory.
@@ -30,8 +33,22 @@ public class AnnotationBeanFactory {
      * @param beanFactory The DefaultListableBeanFactory to register bean definitions with.
      */
     public AnnotationBeanFactory(String basePackage, DefaultListableBeanFactory beanFactory) {
+        this(basePackage, beanFactory, null);
+    }
+
+    /**
+     * Constructs an AnnotationBeanFactory reading the bean definitions from a snapshot written by a previous start,
+     * as long as the scanned classes and the component indexes did not change.
+     *
+     * @param basePackage The base package to scan for annotated classes, or null/empty to scan the entire classpath.
+     * @param beanFactory The DefaultListableBeanFactory to register bean definitions with.
+     * @param snapshotFile The snapshot file, or null to always scan the classpath.
+     */
+    public AnnotationBeanFactory(String basePackage, DefaultListableBeanFactory beanFactory, Path snapshotFile) {
         this.beanFactory = beanFactory;
-        this.reader = new AnnotationBeanDefinitionReader();
+        this.reader = snapshotFile == null
+                ? new AnnotationBeanDefinitionReader()
+                : new SnapshotBeanDefinitionReader(new AnnotationBeanDefinitionReader(), snapshotFile);
         Map<String, core.ioc.BeanDefinition> beanDefinitions = reader.loadBeanDefinitions(basePackage);
         beanDefinitions.forEach(beanFactory::registerBeanDefinition);
     }
@@ -0,0 +1,223 @@
+package core.cfgRd.annotation;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the name, access flags and runtime-visible class annotations from class-file bytes.
+ * Only the constant pool and the RuntimeVisibleAnnotations attribute of the class are parsed,
+ * so components can be found without loading (and initializing) every class of the classpath.
+ */
+public class ClassFileMetadataReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    // Constant pool tags
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private ClassFileMetadataReader() {
+    }
+
+    /**
+     * Read the metadata of a class file
+     *
+     * @param classFile The bytes of the class file, from the current position of the buffer
+     * @return The class metadata
+     * @throws IOException If the bytes are not a valid class file
+     */
+    public static ClassMetadata read(ByteBuffer classFile) throws IOException {
+        try {
+            return parse(classFile.slice());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Malformed class file", e);
+        }
+    }
+
+    private static ClassMetadata parse(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.getShort(); // minor_version
+        in.getShort(); // major_version
+
+        // Keep the UTF-8 strings and the name index of each class entry, skip everything else
+        int constantPoolCount = in.getShort() & 0xFFFF;
+        String[] utf8 = new String[constantPoolCount];
+        int[] classNameIndex = new int[constantPoolCount];
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.get() & 0xFF;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    utf8[i] = readUtf8(in);
+                    break;
+                case CONSTANT_CLASS:
+                    classNameIndex[i] = in.getShort() & 0xFFFF;
+                    break;
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    skip(in, 2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    skip(in, 3);
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    skip(in, 4);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    skip(in, 8);
+                    i++; // 8-byte constants take two entries
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+
+        int accessFlags = in.getShort() & 0xFFFF;
+        String className = utf8[classNameIndex[in.getShort() & 0xFFFF]].replace('/', '.');
+        in.getShort(); // super_class
+        skip(in, 2 * (in.getShort() & 0xFFFF)); // interfaces
+        skipMembers(in); // fields
+        skipMembers(in); // methods
+
+        Map<String, Map<String, String>> annotations = new HashMap<>();
+        int attributesCount = in.getShort() & 0xFFFF;
+        for (int i = 0; i < attributesCount; i++) {
+            String attributeName = utf8[in.getShort() & 0xFFFF];
+            int length = in.getInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+                int annotationsCount = in.getShort() & 0xFFFF;
+                for (int j = 0; j < annotationsCount; j++) {
+                    String descriptor = utf8[in.getShort() & 0xFFFF];
+                    Map<String, String> values = new HashMap<>();
+                    readElementValuePairs(in, utf8, values);
+                    annotations.put(descriptorToClassName(descriptor), values);
+                }
+            } else {
+                skip(in, length);
+            }
+        }
+        return new ClassMetadata(className, accessFlags, annotations);
+    }
+
+    private static void skipMembers(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            skip(in, 6); // access_flags, name_index, descriptor_index
+            int attributesCount = in.getShort() & 0xFFFF;
+            for (int j = 0; j < attributesCount; j++) {
+                in.getShort(); // attribute_name_index
+                skip(in, in.getInt());
+            }
+        }
+    }
+
+    /**
+     * Read the element-value pairs of an annotation.
+     * String and enum values are kept, other values are skipped.
+     */
+    private static void readElementValuePairs(ByteBuffer in, String[] utf8, Map<String, String> values) throws IOException {
+        int pairsCount = in.getShort() & 0xFFFF;
+        for (int i = 0; i < pairsCount; i++) {
+            String name = utf8[in.getShort() & 0xFFFF];
+            String value = readElementValue(in, utf8);
+            if (value != null && values != null) {
+                values.put(name, value);
+            }
+        }
+    }
+
+    private static String readElementValue(ByteBuffer in, String[] utf8) throws IOException {
+        int tag = in.get() & 0xFF;
+        switch (tag) {
+            case 's':
+                return utf8[in.getShort() & 0xFFFF];
+            case 'e':
+                in.getShort(); // type_name_index
+                return utf8[in.getShort() & 0xFFFF];
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 'c':
+                in.getShort(); // const_value_index or class_info_index
+                return null;
+            case '@':
+                in.getShort(); // type_index
+                readElementValuePairs(in, utf8, null);
+                return null;
+            case '[':
+                int count = in.getShort() & 0xFFFF;
+                for (int i = 0; i < count; i++) {
+                    readElementValue(in, utf8);
+                }
+                return null;
+            default:
+                throw new IOException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    /**
+     * Decode a constant pool string, in the modified UTF-8 of class files
+     */
+    private static String readUtf8(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        char[] chars = new char[length];
+        int count = 0;
+        int end = in.position() + length;
+        while (in.position() < end) {
+            int b = in.get() & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (in.get() & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((in.get() & 0x3F) << 6) | (in.get() & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static String descriptorToClassName(String descriptor) {
+        // Lcore/cfgRd/annotation/Component; -> core.cfgRd.annotation.Component
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skip(ByteBuffer in, int length) {
+        in.position(in.position() + length);
+    }
+}
@@ -0,0 +1,58 @@
+package core.cfgRd.annotation;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Class name, access flags and runtime-visible annotations read from a class file without loading the class.
+ */
+public class ClassMetadata {
+
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+    private final int accessFlags;
+    private final Map<String, Map<String, String>> annotations;
+
+    public ClassMetadata(String className, int accessFlags, Map<String, Map<String, String>> annotations) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.annotations = annotations;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Check whether the class can be instantiated, i.e. it is neither abstract, an interface nor an annotation
+     *
+     * @return true for concrete classes
+     */
+    public boolean isConcrete() {
+        return (accessFlags & (Modifier.ABSTRACT | Modifier.INTERFACE | ACC_ANNOTATION)) == 0;
+    }
+
+    /**
+     * Check whether the class is annotated with an annotation
+     *
+     * @param annotationType The annotation class
+     * @return true if the class carries the annotation
+     */
+    public boolean hasAnnotation(Class<?> annotationType) {
+        return annotations.containsKey(annotationType.getName());
+    }
+
+    /**
+     * Get a String or enum attribute of a class annotation.
+     * Attributes left to their default value are not stored in the class file and return null.
+     *
+     * @param annotationType The annotation class
+     * @param attribute      The attribute name
+     * @return The attribute value, or null if the annotation or the attribute is missing
+     */
+    public String getAnnotationAttribute(Class<?> annotationType, String attribute) {
+        return annotations.getOrDefault(annotationType.getName(), Collections.emptyMap()).get(attribute);
+    }
+}
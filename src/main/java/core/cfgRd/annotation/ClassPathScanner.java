@@ -0,0 +1,318 @@
+package core.cfgRd.annotation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Scans directories and jar files for concrete classes annotated with @Component.
+ * Directories are split into one fork-join task per subtree. Jar files are memory-mapped,
+ * their zip central directory is read in place and the class entries are split into ranges,
+ * so nothing is extracted to disk. Results are sorted by class name, whatever the order the tasks finish in.
+ */
+public class ClassPathScanner {
+
+    /**
+     * Number of jar entries read by one task before the range is split.
+     */
+    private static final int ENTRIES_PER_TASK = 128;
+
+    // Zip format signatures and sizes
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int CENTRAL_DIRECTORY_ENTRY_SIZE = 46;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final ForkJoinPool pool;
+
+    public ClassPathScanner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The fork-join pool running the scan tasks
+     */
+    public ClassPathScanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Scan a directory of the classpath
+     *
+     * @param root        The classpath root directory
+     * @param packagePath The package to scan as a resource path (e.g. "beans/cfgRd"), or empty for the whole root
+     * @return Metadata of the component classes, sorted by class name
+     */
+    public List<ClassMetadata> scanDirectory(Path root, String packagePath) {
+        Path directory = packagePath.isEmpty() ? root : root.resolve(packagePath);
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        return sorted(pool.invoke(new DirectoryScanTask(directory.toFile())));
+    }
+
+    /**
+     * Scan a jar file of the classpath
+     *
+     * @param jar         The jar file
+     * @param packagePath The package to scan as a resource path (e.g. "beans/cfgRd"), or empty for the whole jar
+     * @return Metadata of the component classes, sorted by class name
+     * @throws IOException If the jar cannot be read
+     */
+    public List<ClassMetadata> scanJar(Path jar, String packagePath) throws IOException {
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return scanZipFile(jar, prefix);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            List<JarEntryLocation> entries = readCentralDirectory(buffer, prefix);
+            if (entries == null) {
+                // Zip64 or unexpected layout, let java.util.zip read it
+                return scanZipFile(jar, prefix);
+            }
+            return sorted(pool.invoke(new JarScanTask(buffer, entries, 0, entries.size())));
+        }
+    }
+
+    /**
+     * Read the class entries under the prefix from the central directory of a mapped jar
+     *
+     * @return The entries, or null if the central directory cannot be read in place
+     */
+    private static List<JarEntryLocation> readCentralDirectory(ByteBuffer jar, String prefix) {
+        int end = findEndOfCentralDirectory(jar);
+        if (end < 0) {
+            return null;
+        }
+        int totalEntries = jar.getShort(end + 10) & 0xFFFF;
+        long directoryOffset = jar.getInt(end + 16) & 0xFFFFFFFFL;
+        if (totalEntries == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+            return null; // Zip64
+        }
+        List<JarEntryLocation> entries = new ArrayList<>();
+        int position = (int) directoryOffset;
+        for (int i = 0; i < totalEntries; i++) {
+            if (jar.getInt(position) != CENTRAL_DIRECTORY_ENTRY) {
+                return null;
+            }
+            int method = jar.getShort(position + 10) & 0xFFFF;
+            long compressedSize = jar.getInt(position + 20) & 0xFFFFFFFFL;
+            long size = jar.getInt(position + 24) & 0xFFFFFFFFL;
+            int nameLength = jar.getShort(position + 28) & 0xFFFF;
+            int extraLength = jar.getShort(position + 30) & 0xFFFF;
+            int commentLength = jar.getShort(position + 32) & 0xFFFF;
+            long localHeaderOffset = jar.getInt(position + 42) & 0xFFFFFFFFL;
+            String name = readName(jar, position + CENTRAL_DIRECTORY_ENTRY_SIZE, nameLength);
+            if (name.startsWith(prefix) && name.endsWith(".class") && !name.endsWith("module-info.class")) {
+                if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+                    return null; // Zip64
+                }
+                entries.add(new JarEntryLocation(name, method, (int) compressedSize, (int) size, (int) localHeaderOffset));
+            }
+            position += CENTRAL_DIRECTORY_ENTRY_SIZE + nameLength + extraLength + commentLength;
+        }
+        return entries;
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer jar) {
+        int last = jar.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT_SIZE);
+        for (int position = last; position >= first; position--) {
+            if (jar.getInt(position) == END_OF_CENTRAL_DIRECTORY) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static String readName(ByteBuffer jar, int position, int length) {
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++) {
+            name[i] = jar.get(position + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a class entry of a mapped jar, inflating it if needed
+     *
+     * @return The class file bytes, or null for unsupported compression methods
+     */
+    private static ByteBuffer readEntry(ByteBuffer jar, JarEntryLocation entry) throws DataFormatException {
+        int header = entry.localHeaderOffset;
+        int nameLength = jar.getShort(header + 26) & 0xFFFF;
+        int extraLength = jar.getShort(header + 28) & 0xFFFF;
+        int dataStart = header + LOCAL_HEADER_SIZE + nameLength + extraLength;
+        ByteBuffer data = jar.duplicate();
+        data.limit(dataStart + entry.compressedSize).position(dataStart);
+        if (entry.method == ZipEntry.STORED) {
+            return data.slice();
+        }
+        if (entry.method != ZipEntry.DEFLATED) {
+            return null;
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            byte[] classFile = new byte[entry.size];
+            int length = 0;
+            while (length < classFile.length && !inflater.finished()) {
+                int inflated = inflater.inflate(classFile, length, classFile.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            return ByteBuffer.wrap(classFile, 0, length);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private List<ClassMetadata> scanZipFile(Path jar, String prefix) throws IOException {
+        List<ClassMetadata> components = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+            for (ZipEntry entry : Collections.list(zipFile.entries())) {
+                String name = entry.getName();
+                if (name.startsWith(prefix) && name.endsWith(".class") && !name.endsWith("module-info.class")) {
+                    byte[] classFile = zipFile.getInputStream(entry).readAllBytes();
+                    addIfComponent(ClassFileMetadataReader.read(ByteBuffer.wrap(classFile)), components);
+                }
+            }
+        }
+        return sorted(components);
+    }
+
+    private static void addIfComponent(ClassMetadata metadata, List<ClassMetadata> components) {
+        if (metadata.hasAnnotation(Component.class) && metadata.isConcrete()) {
+            components.add(metadata);
+        }
+    }
+
+    private static List<ClassMetadata> sorted(List<ClassMetadata> components) {
+        components.sort(Comparator.comparing(ClassMetadata::getClassName));
+        return components;
+    }
+
+    /**
+     * Location of a class entry inside a jar, read from the central directory.
+     */
+    private static class JarEntryLocation {
+        final String name;
+        final int method;
+        final int compressedSize;
+        final int size;
+        final int localHeaderOffset;
+
+        JarEntryLocation(String name, int method, int compressedSize, int size, int localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+
+    /**
+     * Scans one directory, forking a task for each subdirectory.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static class DirectoryScanTask extends RecursiveTask<List<ClassMetadata>> {
+        private final File directory;
+
+        DirectoryScanTask(File directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<ClassMetadata> compute() {
+            List<ClassMetadata> components = new ArrayList<>();
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return components;
+            }
+            List<DirectoryScanTask> subtasks = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    DirectoryScanTask subtask = new DirectoryScanTask(file);
+                    subtask.fork();
+                    subtasks.add(subtask);
+                } else if (file.getName().endsWith(".class") && !file.getName().equals("module-info.class")) {
+                    try {
+                        addIfComponent(ClassFileMetadataReader.read(ByteBuffer.wrap(Files.readAllBytes(file.toPath()))), components);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+            for (DirectoryScanTask subtask : subtasks) {
+                components.addAll(subtask.join());
+            }
+            return components;
+        }
+    }
+
+    /**
+     * Scans a range of the class entries of a mapped jar, splitting ranges that are too large.
+     */
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private static class JarScanTask extends RecursiveTask<List<ClassMetadata>> {
+        private final ByteBuffer jar;
+        private final List<JarEntryLocation> entries;
+        private final int from;
+        private final int to;
+
+        JarScanTask(ByteBuffer jar, List<JarEntryLocation> entries, int from, int to) {
+            this.jar = jar;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ClassMetadata> compute() {
+            if (to - from > ENTRIES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                JarScanTask left = new JarScanTask(jar, entries, from, middle);
+                left.fork();
+                List<ClassMetadata> components = new JarScanTask(jar, entries, middle, to).compute();
+                components.addAll(left.join());
+                return components;
+            }
+            List<ClassMetadata> components = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                JarEntryLocation entry = entries.get(i);
+                try {
+                    ByteBuffer classFile = readEntry(jar, entry);
+                    if (classFile != null) {
+                        addIfComponent(ClassFileMetadataReader.read(classFile), components);
+                    }
+                } catch (IOException | DataFormatException e) {
+                    System.err.println("Cannot read " + entry.name + ": " + e.getMessage());
+                }
+            }
+            return components;
+        }
+    }
+}
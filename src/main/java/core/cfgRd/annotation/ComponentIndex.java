@@ -0,0 +1,153 @@
+package core.cfgRd.annotation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the @Component classes of the classpath, written at build time by the ComponentIndexProcessor.
+ * Each line of an index file describes one component:
+ * <pre>
+ * beans.cfgRd.annotation.impl.UserServiceImpl;id=userService;scope=singleton
+ * beans.cfgRd.annotation.impl.ReportServiceImpl;id=reportService;scope=singleton;lazy=true
+ * </pre>
+ */
+public class ComponentIndex {
+
+    /**
+     * Location of the index file in each classpath root.
+     */
+    public static final String INDEX_LOCATION = "META-INF/components.index";
+
+    private final List<Entry> entries;
+    private final List<String> indexedRoots;
+
+    private ComponentIndex(List<Entry> entries, List<String> indexedRoots) {
+        this.entries = entries;
+        this.indexedRoots = indexedRoots;
+    }
+
+    /**
+     * Load all index files visible to the class loader
+     *
+     * @param classLoader Class loader to read the index files with
+     * @return The merged index, or null if there is no index file
+     * @throws IOException If an index file cannot be read
+     */
+    public static ComponentIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> resources = classLoader.getResources(INDEX_LOCATION);
+        if (!resources.hasMoreElements()) {
+            return null;
+        }
+        List<Entry> entries = new ArrayList<>();
+        List<String> indexedRoots = new ArrayList<>();
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            String url = resource.toString();
+            indexedRoots.add(url.substring(0, url.length() - INDEX_LOCATION.length()));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        entries.add(Entry.parse(line));
+                    }
+                }
+            }
+        }
+        return new ComponentIndex(Collections.unmodifiableList(entries), Collections.unmodifiableList(indexedRoots));
+    }
+
+    /**
+     * Get the components in a package and its sub-packages
+     *
+     * @param basePackage Base package, or null/empty for all components
+     * @return Index entries
+     */
+    public List<Entry> getEntries(String basePackage) {
+        if (basePackage == null || basePackage.isEmpty()) {
+            return entries;
+        }
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.getClassName().startsWith(basePackage + ".")) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check whether a classpath root has an index file, so that it does not need to be scanned
+     *
+     * @param rootUrl URL of the classpath root, ending with a slash
+     * @return true if the root is covered by the index
+     */
+    public boolean isIndexed(String rootUrl) {
+        return indexedRoots.contains(rootUrl);
+    }
+
+    /**
+     * One component of the index.
+     */
+    public static class Entry {
+        private final String className;
+        private final Map<String, String> attributes;
+
+        public Entry(String className, Map<String, String> attributes) {
+            this.className = className;
+            this.attributes = attributes;
+        }
+
+        static Entry parse(String line) {
+            String[] parts = line.split(";");
+            Map<String, String> attributes = new LinkedHashMap<>();
+            for (int i = 1; i < parts.length; i++) {
+                int separator = parts[i].indexOf('=');
+                if (separator > 0) {
+                    attributes.put(parts[i].substring(0, separator), parts[i].substring(separator + 1));
+                }
+            }
+            return new Entry(parts[0], attributes);
+        }
+
+        /**
+         * Format the entry as a line of the index file
+         *
+         * @return Index line
+         */
+        public String format() {
+            StringBuilder line = new StringBuilder(className);
+            attributes.forEach((key, value) -> line.append(';').append(key).append('=').append(value));
+            return line.toString();
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getBeanId() {
+            return attributes.get("id");
+        }
+
+        public String getScope() {
+            return attributes.get("scope");
+        }
+
+        public boolean isLazy() {
+            return Boolean.parseBoolean(attributes.get("lazy"));
+        }
+
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package core.cfgRd.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Delays the creation of a bean until it is first used.
+ * On a component, the bean is not created by the refresh of the factory, and the beans depending on it
+ * receive a proxy that creates it on the first method call.
+ * On an @Autowired field, that field receives such a proxy.
+ * Only injection points typed with an interface can receive a proxy, the other ones get the bean itself.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.FIELD})
+public @interface Lazy {
+}
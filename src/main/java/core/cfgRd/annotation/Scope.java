@@ -6,10 +6,33 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Specifies the scope of a component.
+ * Specifies the scope of a component: "singleton", "prototype" or the name of a scope registered
+ * on the bean factory, such as "thread", "request" or "pooled".
+ * The pool attributes apply to the "pooled" scope only.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.TYPE)
 public @interface Scope {
     String value() default "singleton";
+
+    /**
+     * @return Maximum number of instances of the pool.
+     */
+    int poolSize() default 8;
+
+    /**
+     * @return Maximum time a getBean waits for an instance when all of them are borrowed, in milliseconds.
+     */
+    long poolMaxWaitMillis() default 1000;
+
+    /**
+     * @return Name of a public no-argument method resetting an instance when it is released, empty for none.
+     */
+    String resetMethod() default "";
+
+    /**
+     * @return Name of a public no-argument method returning whether an idle instance can be borrowed again,
+     * empty for none. Invalid instances are destroyed.
+     */
+    String validateMethod() default "";
 }
\ No newline at end of file
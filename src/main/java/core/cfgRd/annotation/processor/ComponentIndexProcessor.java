@@ -0,0 +1,122 @@
+package core.cfgRd.annotation.processor;
+
+import core.cfgRd.annotation.ComponentIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor writing the component index at build time.
+ * Every concrete class annotated with @Component is written to META-INF/components.index,
+ * together with its bean ID, the value of its @Scope annotation and whether it is @Lazy.
+ * The AnnotationBeanDefinitionReader reads the index instead of scanning the classpath.
+ */
+@SupportedAnnotationTypes(ComponentIndexProcessor.COMPONENT_ANNOTATION)
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    static final String COMPONENT_ANNOTATION = "core.cfgRd.annotation.Component";
+    static final String SCOPE_ANNOTATION = "core.cfgRd.annotation.Scope";
+    static final String LAZY_ANNOTATION = "core.cfgRd.annotation.Lazy";
+
+    // Sorted by class name, so that the index is the same on every build
+    private final Map<String, ComponentIndex.Entry> entries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    TypeElement type = (TypeElement) element;
+                    String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+                    entries.put(className, createEntry(type, className));
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !entries.isEmpty()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private ComponentIndex.Entry createEntry(TypeElement type, String className) {
+        String beanId = annotationValue(type, COMPONENT_ANNOTATION, "value");
+        if (beanId == null || beanId.isEmpty()) {
+            beanId = type.getSimpleName().toString();
+        }
+        String scope = annotationValue(type, SCOPE_ANNOTATION, "value");
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("id", beanId);
+        attributes.put("scope", scope == null ? "singleton" : scope);
+        if (hasAnnotation(type, LAZY_ANNOTATION)) {
+            attributes.put("lazy", "true");
+        }
+        return new ComponentIndex.Entry(className, attributes);
+    }
+
+    private boolean hasAnnotation(TypeElement type, String annotationName) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read an annotation attribute, including its default value
+     */
+    private String annotationValue(TypeElement type, String annotationName, String attribute) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+                Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                        processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet()) {
+                    if (value.getKey().getSimpleName().contentEquals(attribute)) {
+                        return String.valueOf(value.getValue().getValue());
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.INDEX_LOCATION);
+            try (Writer writer = file.openWriter()) {
+                writer.write("# Generated by " + getClass().getName() + "\n");
+                for (ComponentIndex.Entry entry : entries.values()) {
+                    writer.write(entry.format());
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write component index: " + e.getMessage());
+        }
+    }
+}
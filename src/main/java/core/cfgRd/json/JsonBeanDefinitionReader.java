@@ -5,7 +5,6 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import core.cfgRd.BeanDefinitionReader;
-import core.enums.ScopeType;
 import core.ioc.BeanDefinition;
 
 import java.io.InputStreamReader;
@@ -77,9 +76,26 @@ public class JsonBeanDefinitionReader implements BeanDefinitionReader {
                     beanDefinition.setId(id);
                     beanDefinition.setBeanClass(clazz);
 
-                    // Handle the bean's scope (singleton or prototype), defaulting to singleton if not specified.
+                    // Handle the bean's scope (singleton, prototype or a registered scope), defaulting to singleton if not specified.
                     String scope = beanObject.has("scope") ? beanObject.get("scope").getAsString() : "SINGLETON";
-                    beanDefinition.setScope(ScopeType.valueOf(scope.toUpperCase()));
+                    beanDefinition.setScopeName(scope);
+
+                    // Handle lazy initialization, the bean is created on first use if "lazy" is true.
+                    beanDefinition.setLazy(beanObject.has("lazy") && beanObject.get("lazy").getAsBoolean());
+
+                    // Handle the pool settings of pooled beans, keeping the defaults of BeanDefinition if not specified.
+                    if (beanObject.has("poolSize")) {
+                        beanDefinition.setPoolSize(beanObject.get("poolSize").getAsInt());
+                    }
+                    if (beanObject.has("poolMaxWaitMillis")) {
+                        beanDefinition.setPoolMaxWaitMillis(beanObject.get("poolMaxWaitMillis").getAsLong());
+                    }
+                    if (beanObject.has("resetMethod")) {
+                        beanDefinition.setResetMethodName(beanObject.get("resetMethod").getAsString());
+                    }
+                    if (beanObject.has("validateMethod")) {
+                        beanDefinition.setValidateMethodName(beanObject.get("validateMethod").getAsString());
+                    }
 
                     // Handle property injection by extracting property definitions from the "properties" JsonObject.
                     JsonObject propertiesJson = beanObject.getAsJsonObject("properties");
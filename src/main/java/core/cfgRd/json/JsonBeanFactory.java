@@ -1,9 +1,11 @@
 package core.cfgRd.json;
 
 import core.cfgRd.BeanDefinitionReader;
+import core.cfgRd.snapshot.SnapshotBeanDefinitionReader;
 import core.ioc.BeanDefinition;
 import core.ioc.DefaultListableBeanFactory;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -21,8 +23,22 @@ public class JsonBeanFactory {
      * @param beanFactory The DefaultListableBeanFactory to register bean definitions with.
      */
     public JsonBeanFactory(String configFilePath, DefaultListableBeanFactory beanFactory) {
+        this(configFilePath, beanFactory, null);
+    }
+
+    /**
+     * Constructs a JsonBeanFactory reading the bean definitions from a snapshot written by a previous start,
+     * as long as the configuration file and the bean classes did not change.
+     *
+     * @param configFilePath The path to the JSON configuration file (resource path).
+     * @param beanFactory The DefaultListableBeanFactory to register bean definitions with.
+     * @param snapshotFile The snapshot file, or null to always parse the configuration file.
+     */
+    public JsonBeanFactory(String configFilePath, DefaultListableBeanFactory beanFactory, Path snapshotFile) {
         this.beanFactory = beanFactory;
-        this.reader = new JsonBeanDefinitionReader();
+        this.reader = snapshotFile == null
+                ? new JsonBeanDefinitionReader()
+                : new SnapshotBeanDefinitionReader(new JsonBeanDefinitionReader(), snapshotFile);
         Map<String, BeanDefinition> beanDefinitions = reader.loadBeanDefinitions(configFilePath);
         beanDefinitions.forEach(beanFactory::registerBeanDefinition);
     }
@@ -0,0 +1,388 @@
+package core.cfgRd.snapshot;
+
+import core.cfgRd.annotation.ComponentIndex;
+import core.enums.InjectionType;
+import core.ioc.BeanDefinition;
+import core.ioc.InjectionPlan;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Binary snapshot of resolved Bean definitions: classes, scopes, property references, init/destroy methods,
+ * pool settings and the constructor and setters of each injection plan.
+ * The snapshot records the modification time and size of the sources the definitions were read from:
+ * the configuration resource or the scanned package directories and jars, the component indexes,
+ * and the class files each Bean was resolved from: its class, superclasses and interfaces, which contribute
+ * inherited setters, and the parameter types of its constructor and setters. It is stale as soon as one of them changes.
+ * <pre>
+ * magic, version, location
+ * source count, (url, last modified, size)*
+ * bean count, (name, class, injection type, scope, lazy, init, destroy, pool settings, properties, plan)*
+ * </pre>
+ * Strings are written as a length and UTF-8 bytes, a length of -1 being null.
+ * The snapshot is read from a memory-mapped file and written to a temporary file moved over the previous one,
+ * so that a reader never sees a partial snapshot.
+ */
+public final class BeanDefinitionSnapshot {
+    private static final int MAGIC = 0x424E5350; // "BNSP"
+    private static final int VERSION = 1;
+
+    private BeanDefinitionSnapshot() {
+    }
+
+    /**
+     * Write the snapshot of Bean definitions read from a location
+     *
+     * @param file            Snapshot file, replaced if it exists
+     * @param location        Location the definitions were read from: a configuration resource or a base package
+     * @param beanDefinitions Bean definitions read from the location
+     * @param classLoader     Class loader the location and the Bean classes were read with
+     * @throws IOException If the snapshot cannot be written
+     */
+    public static void write(Path file, String location, Map<String, BeanDefinition> beanDefinitions,
+                             ClassLoader classLoader) throws IOException {
+        Map<String, long[]> sources = new LinkedHashMap<>();
+        addLocationSources(location, classLoader, sources);
+        Set<Class<?>> types = new HashSet<>();
+        for (BeanDefinition beanDefinition : beanDefinitions.values()) {
+            addTypes(beanDefinition, types);
+        }
+        for (Class<?> type : types) {
+            addSource(classLoader.getResource(classFileName(type.getName())), sources);
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, location);
+                out.writeInt(sources.size());
+                for (Map.Entry<String, long[]> source : sources.entrySet()) {
+                    writeString(out, source.getKey());
+                    out.writeLong(source.getValue()[0]);
+                    out.writeLong(source.getValue()[1]);
+                }
+                out.writeInt(beanDefinitions.size());
+                for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeBeanDefinition(out, entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Read the snapshot of Bean definitions read from a location
+     *
+     * @param file        Snapshot file
+     * @param location    Location the definitions are read from
+     * @param classLoader Class loader to load the Bean classes with
+     * @return The Bean definitions, or null if there is no snapshot, or it was written for another location,
+     * by another version, or one of its sources changed since
+     * @throws IOException                  If the snapshot cannot be read or is corrupted
+     * @throws ReflectiveOperationException If a class or a member of an injection plan no longer exists
+     */
+    public static Map<String, BeanDefinition> read(Path file, String location, ClassLoader classLoader)
+            throws IOException, ReflectiveOperationException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || !Objects.equals(location, readString(buffer))) {
+                return null;
+            }
+            int sourceCount = buffer.getInt();
+            for (int i = 0; i < sourceCount; i++) {
+                String url = readString(buffer);
+                long lastModified = buffer.getLong();
+                long size = buffer.getLong();
+                long[] current = stamp(new URL(url));
+                if (current == null || current[0] != lastModified || current[1] != size) {
+                    return null;
+                }
+            }
+            int beanCount = buffer.getInt();
+            Map<String, BeanDefinition> beanDefinitions = new HashMap<>(beanCount * 2);
+            for (int i = 0; i < beanCount; i++) {
+                String name = readString(buffer);
+                beanDefinitions.put(name, readBeanDefinition(buffer, classLoader));
+            }
+            return beanDefinitions;
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupted bean definition snapshot " + file, e);
+        }
+    }
+
+    private static void writeBeanDefinition(DataOutputStream out, BeanDefinition beanDefinition) throws IOException {
+        writeString(out, beanDefinition.getId());
+        writeString(out, beanDefinition.getBeanClass().getName());
+        writeString(out, beanDefinition.getInjectionType() == null ? null : beanDefinition.getInjectionType().name());
+        writeString(out, beanDefinition.getScopeName());
+        out.writeBoolean(beanDefinition.isLazy());
+        writeString(out, beanDefinition.getInitMethodName());
+        writeString(out, beanDefinition.getDestroyMethodName());
+        out.writeInt(beanDefinition.getPoolSize());
+        out.writeLong(beanDefinition.getPoolMaxWaitMillis());
+        writeString(out, beanDefinition.getResetMethodName());
+        writeString(out, beanDefinition.getValidateMethodName());
+        Map<String, String> propertyValues = beanDefinition.getPropertyValues();
+        out.writeInt(propertyValues == null ? -1 : propertyValues.size());
+        if (propertyValues != null) {
+            for (Map.Entry<String, String> property : propertyValues.entrySet()) {
+                writeString(out, property.getKey());
+                writeString(out, property.getValue());
+            }
+        }
+
+        // Injection plan members, left out if the class cannot be resolved, which fails again on creation
+        Constructor<?> constructor;
+        List<Method> setters;
+        try {
+            constructor = InjectionPlan.findConstructor(beanDefinition);
+            setters = InjectionPlan.findSetters(beanDefinition);
+        } catch (NoSuchMethodException e) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        out.writeInt(parameterTypes.length);
+        for (Class<?> parameterType : parameterTypes) {
+            writeString(out, parameterType.getName());
+        }
+        out.writeInt(setters.size());
+        for (Method setter : setters) {
+            writeString(out, setter.getName());
+            writeString(out, setter.getParameterTypes()[0].getName());
+        }
+    }
+
+    private static BeanDefinition readBeanDefinition(MappedByteBuffer buffer, ClassLoader classLoader)
+            throws ReflectiveOperationException {
+        BeanDefinition beanDefinition = new BeanDefinition();
+        beanDefinition.setId(readString(buffer));
+        // Load the class without running its static initializers
+        Class<?> beanClass = Class.forName(readString(buffer), false, classLoader);
+        beanDefinition.setBeanClass(beanClass);
+        String injectionType = readString(buffer);
+        beanDefinition.setInjectionType(injectionType == null ? null : InjectionType.valueOf(injectionType));
+        beanDefinition.setScopeName(readString(buffer));
+        beanDefinition.setLazy(buffer.get() != 0);
+        beanDefinition.setInitMethodName(readString(buffer));
+        beanDefinition.setDestroyMethodName(readString(buffer));
+        beanDefinition.setPoolSize(buffer.getInt());
+        beanDefinition.setPoolMaxWaitMillis(buffer.getLong());
+        beanDefinition.setResetMethodName(readString(buffer));
+        beanDefinition.setValidateMethodName(readString(buffer));
+        int propertyCount = buffer.getInt();
+        if (propertyCount >= 0) {
+            Map<String, String> propertyValues = new HashMap<>();
+            for (int i = 0; i < propertyCount; i++) {
+                propertyValues.put(readString(buffer), readString(buffer));
+            }
+            beanDefinition.setPropertyValues(propertyValues);
+        }
+
+        if (buffer.get() != 0) {
+            Class<?>[] parameterTypes = new Class<?>[buffer.getInt()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterTypes[i] = loadType(readString(buffer), classLoader);
+            }
+            Method[] setters = new Method[buffer.getInt()];
+            for (int i = 0; i < setters.length; i++) {
+                String setterName = readString(buffer);
+                setters[i] = beanClass.getMethod(setterName, loadType(readString(buffer), classLoader));
+            }
+            beanDefinition.setResolvedInjectionMembers(beanClass.getDeclaredConstructor(parameterTypes), setters);
+        }
+        return beanDefinition;
+    }
+
+    /**
+     * Collect the types the definition and its injection plan members are resolved from,
+     * leaving out the classes of the JDK
+     */
+    private static void addTypes(BeanDefinition beanDefinition, Set<Class<?>> types) {
+        addTypeHierarchy(beanDefinition.getBeanClass(), types);
+        try {
+            for (Class<?> parameterType : InjectionPlan.findConstructor(beanDefinition).getParameterTypes()) {
+                addTypeHierarchy(parameterType, types);
+            }
+        } catch (NoSuchMethodException e) {
+            // No plan is written for the Bean
+        }
+        for (Method setter : InjectionPlan.findSetters(beanDefinition)) {
+            addTypeHierarchy(setter.getParameterTypes()[0], types);
+        }
+    }
+
+    private static void addTypeHierarchy(Class<?> type, Set<Class<?>> types) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        ClassLoader loader = type.getClassLoader();
+        if (type.isPrimitive() || loader == null || loader == ClassLoader.getPlatformClassLoader() || !types.add(type)) {
+            return;
+        }
+        if (type.getSuperclass() != null) {
+            addTypeHierarchy(type.getSuperclass(), types);
+        }
+        for (Class<?> anInterface : type.getInterfaces()) {
+            addTypeHierarchy(anInterface, types);
+        }
+    }
+
+    /**
+     * Record the sources of a location: the configuration resource, or the directories and jars of a base package
+     * and the component indexes. A directory changes when a file is added to or removed from it,
+     * so recording every directory of a package detects new and deleted classes.
+     */
+    private static void addLocationSources(String location, ClassLoader classLoader, Map<String, long[]> sources) throws IOException {
+        URL resource = location == null || location.isEmpty() ? null : classLoader.getResource(location);
+        if (resource != null && !isDirectory(resource)) {
+            addSource(resource, sources);
+            return;
+        }
+        String resourcePath = location == null ? "" : location.replace('.', '/');
+        Enumeration<URL> roots = classLoader.getResources(resourcePath);
+        while (roots.hasMoreElements()) {
+            URL root = roots.nextElement();
+            if ("file".equals(root.getProtocol())) {
+                try (Stream<Path> directories = Files.walk(Paths.get(root.toURI()))) {
+                    for (Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                        addSource(directory.toUri().toURL(), sources);
+                    }
+                } catch (URISyntaxException e) {
+                    throw new IOException("Invalid classpath root " + root, e);
+                }
+            } else {
+                addSource(root, sources);
+            }
+        }
+        Enumeration<URL> indexes = classLoader.getResources(ComponentIndex.INDEX_LOCATION);
+        while (indexes.hasMoreElements()) {
+            addSource(indexes.nextElement(), sources);
+        }
+    }
+
+    private static void addSource(URL url, Map<String, long[]> sources) throws IOException {
+        if (url != null) {
+            long[] stamp = stamp(url);
+            if (stamp != null) {
+                sources.put(url.toString(), stamp);
+            }
+        }
+    }
+
+    /**
+     * @return The last modification time and size of a source, the jar file for a jar entry, or null if it no longer exists
+     */
+    private static long[] stamp(URL url) throws IOException {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return stamp(Paths.get(url.toURI()));
+            }
+            if ("jar".equals(url.getProtocol())) {
+                String path = url.getPath();
+                int separator = path.indexOf("!/");
+                return stamp(Paths.get(new URL(separator < 0 ? path : path.substring(0, separator)).toURI()));
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid source " + url, e);
+        }
+        URLConnection connection = url.openConnection();
+        return new long[]{connection.getLastModified(), connection.getContentLengthLong()};
+    }
+
+    private static long[] stamp(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        // The size of a directory is not meaningful on every file system
+        return new long[]{attributes.lastModifiedTime().toMillis(), attributes.isDirectory() ? 0 : attributes.size()};
+    }
+
+    private static boolean isDirectory(URL url) {
+        try {
+            return "file".equals(url.getProtocol()) && Files.isDirectory(Paths.get(url.toURI()));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static String classFileName(String className) {
+        return className.replace('.', '/') + ".class";
+    }
+
+    private static Class<?> loadType(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        switch (name) {
+            case "boolean": return boolean.class;
+            case "byte": return byte.class;
+            case "char": return char.class;
+            case "short": return short.class;
+            case "int": return int.class;
+            case "long": return long.class;
+            case "float": return float.class;
+            case "double": return double.class;
+            default: return Class.forName(name, false, classLoader);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package core.cfgRd.snapshot;
+
+import core.cfgRd.BeanDefinitionReader;
+import core.ioc.BeanDefinition;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Reads bean definitions from a snapshot written by a previous start, instead of parsing the configuration
+ * or scanning the classpath again. When there is no snapshot, or one of its sources changed,
+ * the definitions are read by the delegate reader and a new snapshot is written for the next start.
+ * <pre>
+ * BeanDefinitionReader reader = new SnapshotBeanDefinitionReader(new JsonBeanDefinitionReader(), Paths.get("target/bean.snapshot"));
+ * </pre>
+ */
+public class SnapshotBeanDefinitionReader implements BeanDefinitionReader {
+
+    private final BeanDefinitionReader delegate;
+    private final Path snapshotFile;
+    private final ClassLoader classLoader;
+    private volatile boolean loadedFromSnapshot;
+
+    /**
+     * Constructs a SnapshotBeanDefinitionReader using the class loader of the delegate reader.
+     *
+     * @param delegate     The reader used when the snapshot is missing or stale.
+     * @param snapshotFile The snapshot file, created if needed.
+     */
+    public SnapshotBeanDefinitionReader(BeanDefinitionReader delegate, Path snapshotFile) {
+        this(delegate, snapshotFile, delegate.getClass().getClassLoader());
+    }
+
+    /**
+     * Constructs a SnapshotBeanDefinitionReader.
+     *
+     * @param delegate     The reader used when the snapshot is missing or stale.
+     * @param snapshotFile The snapshot file, created if needed.
+     * @param classLoader  The class loader the delegate reads resources and classes with.
+     */
+    public SnapshotBeanDefinitionReader(BeanDefinitionReader delegate, Path snapshotFile, ClassLoader classLoader) {
+        this.delegate = delegate;
+        this.snapshotFile = snapshotFile;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Loads the bean definitions of a location from the snapshot if it is up to date, otherwise from the delegate.
+     * A snapshot that cannot be read or written is ignored, the definitions are then read by the delegate.
+     *
+     * @param location The location of the bean definitions, passed to the delegate.
+     * @return A map of bean definitions, where the key is the bean ID and the value is the BeanDefinition object.
+     */
+    @Override
+    public Map<String, BeanDefinition> loadBeanDefinitions(String location) {
+        try {
+            Map<String, BeanDefinition> beanDefinitions = BeanDefinitionSnapshot.read(snapshotFile, location, classLoader);
+            if (beanDefinitions != null) {
+                loadedFromSnapshot = true;
+                return beanDefinitions;
+            }
+        } catch (IOException | ReflectiveOperationException e) {
+            System.err.println("Ignoring bean definition snapshot " + snapshotFile + ": " + e);
+        }
+        loadedFromSnapshot = false;
+        Map<String, BeanDefinition> beanDefinitions = delegate.loadBeanDefinitions(location);
+        try {
+            BeanDefinitionSnapshot.write(snapshotFile, location, beanDefinitions, classLoader);
+        } catch (IOException e) {
+            System.err.println("Failed to write bean definition snapshot " + snapshotFile + ": " + e);
+        }
+        return beanDefinitions;
+    }
+
+    /**
+     * @return Whether the last loadBeanDefinitions read the definitions from the snapshot.
+     */
+    public boolean isLoadedFromSnapshot() {
+        return loadedFromSnapshot;
+    }
+}
@@ -1,5 +1,9 @@
 package core.enums;
 
 public enum ScopeType {
-    SINGLETON, PROTOTYPE
+    SINGLETON, PROTOTYPE,
+    /**
+     * A scope registered on the bean factory under the scope name of the bean definition, e.g. "thread" or "request"
+     */
+    CUSTOM
 }
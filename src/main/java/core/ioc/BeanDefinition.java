@@ -3,6 +3,8 @@ package core.ioc;
 import core.enums.InjectionType;
 import core.enums.ScopeType;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.util.Map;
 
 /**
@@ -13,9 +15,17 @@ public class BeanDefinition {
     private Class<?> beanClass; // Class object of the Bean
     private InjectionType injectionType; // Injection type of the Bean
     private ScopeType scope; // Scope of the Bean
+    private String scopeName; // Name of the registered scope, for the CUSTOM scope type
     private String initMethodName; // Initialization method name of the Bean
     private String destroyMethodName; // Destruction method name of the Bean
     private Map<String, String> propertyValues; // Property values for dependency injection
+    private boolean lazy; // Whether the Bean is created on first use instead of on refresh
+    private int poolSize = 8; // Maximum number of instances of a pooled Bean
+    private long poolMaxWaitMillis = 1000; // Maximum time a getBean waits for an instance of an exhausted pool
+    private String resetMethodName; // Method resetting a pooled Bean when it is released
+    private String validateMethodName; // Method checking a pooled Bean can be reused before it is borrowed again
+    private Constructor<?> resolvedConstructor; // Constructor of the injection plan, when restored from a snapshot
+    private Method[] resolvedSetters; // Setter targets of the injection plan, when restored from a snapshot
 
     public BeanDefinition() {
     }
@@ -58,6 +68,34 @@ public class BeanDefinition {
 
     public void setScope(ScopeType scope) {
         this.scope = scope;
+        this.scopeName = null;
+    }
+
+    /**
+     * @return Scope name: "singleton", "prototype" or the name of a registered scope, null if no scope is set
+     */
+    public String getScopeName() {
+        if (scope == ScopeType.CUSTOM) {
+            return scopeName;
+        }
+        return scope == null ? null : scope.name().toLowerCase();
+    }
+
+    /**
+     * Set the scope by name. "singleton" and "prototype", in any case, select the built-in scopes,
+     * other names select a scope registered on the Bean factory.
+     *
+     * @param scopeName Scope name, or null for the default scope
+     */
+    public void setScopeName(String scopeName) {
+        if (scopeName == null || scopeName.equalsIgnoreCase(ScopeType.SINGLETON.name())) {
+            setScope(scopeName == null ? null : ScopeType.SINGLETON);
+        } else if (scopeName.equalsIgnoreCase(ScopeType.PROTOTYPE.name())) {
+            setScope(ScopeType.PROTOTYPE);
+        } else {
+            this.scope = ScopeType.CUSTOM;
+            this.scopeName = scopeName;
+        }
     }
 
     public String getInitMethodName() {
@@ -76,6 +114,66 @@ public class BeanDefinition {
         this.destroyMethodName = destroyMethodName;
     }
 
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public long getPoolMaxWaitMillis() {
+        return poolMaxWaitMillis;
+    }
+
+    public void setPoolMaxWaitMillis(long poolMaxWaitMillis) {
+        this.poolMaxWaitMillis = poolMaxWaitMillis;
+    }
+
+    public String getResetMethodName() {
+        return resetMethodName;
+    }
+
+    public void setResetMethodName(String resetMethodName) {
+        this.resetMethodName = resetMethodName;
+    }
+
+    public String getValidateMethodName() {
+        return validateMethodName;
+    }
+
+    public void setValidateMethodName(String validateMethodName) {
+        this.validateMethodName = validateMethodName;
+    }
+
+    public Constructor<?> getResolvedConstructor() {
+        return resolvedConstructor;
+    }
+
+    public Method[] getResolvedSetters() {
+        return resolvedSetters;
+    }
+
+    /**
+     * Set the members of the injection plan resolved earlier, e.g. by a previous start,
+     * so that resolving the plan does not scan the class again
+     *
+     * @param constructor Constructor creating the Bean
+     * @param setters     Setter targets, in injection order
+     */
+    public void setResolvedInjectionMembers(Constructor<?> constructor, Method[] setters) {
+        this.resolvedConstructor = constructor;
+        this.resolvedSetters = setters;
+    }
+
     public Map<String, String> getPropertyValues() {
         return propertyValues;
     }
@@ -1,9 +1,10 @@
 package core.ioc;
 
 import core.enums.ScopeType;
+import core.ioc.scope.BeanScope;
+import core.metrics.ContainerMetrics;
 
 import java.util.Map;
-import java.util.function.Supplier;
 
 /**
  * Shared Bean provider, responsible for providing Bean instances
@@ -11,20 +12,14 @@ import java.util.function.Supplier;
 public class BeanProvider {
 
     private Map<String, BeanDefinition> beanDefinitionMap;
-    private Map<String, Object> singletonObjects;
-    private Map<String, Object> earlySingletonObjects;
-    private Map<String, Supplier<?>> singletonFactories;
+    private SingletonBeanRegistry singletonRegistry;
     private DefaultListableBeanFactory beanFactory;
 
     public BeanProvider(Map<String, BeanDefinition> beanDefinitionMap,
-                        Map<String, Object> singletonObjects,
-                        Map<String, Object> earlySingletonObjects,
-                        Map<String, Supplier<?>> singletonFactories,
+                        SingletonBeanRegistry singletonRegistry,
                         DefaultListableBeanFactory beanFactory) {
         this.beanDefinitionMap = beanDefinitionMap;
-        this.singletonObjects = singletonObjects;
-        this.earlySingletonObjects = earlySingletonObjects;
-        this.singletonFactories = singletonFactories;
+        this.singletonRegistry = singletonRegistry;
         this.beanFactory = beanFactory;
     }
 
@@ -43,25 +38,21 @@ public class BeanProvider {
         ScopeType scope = beanDefinition.getScope();
         // set default scope
         scope = scope == null ? ScopeType.SINGLETON : scope;
+        ContainerMetrics metrics = beanFactory.getMetrics();
+        metrics.getBeanCalled(scope);
         if (ScopeType.SINGLETON.equals(scope)) {
             // Singleton Bean
-            // Try to get the fully created Bean instance from the first-level cache
-            Object bean = singletonObjects.get(name);
-            if (bean == null) {
-                // If not found in the first-level cache, try to get the early-referenced Bean instance from the second-level cache
-                bean = getSingletonObjectsFromCache(name);
-                // If still not found, it means the Bean is not registered yet
-                if (bean == null) {
-                    try {
-                        // Create the Bean instance using the Bean factory
-                        bean = beanFactory.createBean(name, beanDefinition);
-                        // Put the fully created Bean instance into the first-level cache
-                        singletonObjects.put(name, bean);
-                        // Remove the early-referenced Bean instance from the second-level cache
-                        earlySingletonObjects.remove(name);
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
+            // Try to get the fully created Bean instance from the first-level cache without locking
+            Object bean = singletonRegistry.getSingleton(name);
+            if (bean != null) {
+                metrics.singletonCacheHit();
+            } else {
+                metrics.singletonCacheMiss();
+                try {
+                    // Create the Bean instance under its creation lock, or get its early reference
+                    bean = singletonRegistry.getSingleton(name, () -> beanFactory.createBean(name, beanDefinition));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
                 }
             }
             return bean;
@@ -74,27 +65,18 @@ public class BeanProvider {
                 throw new RuntimeException(e);
             }
         } else {
-            // Unknown scope
-            throw new IllegalArgumentException("Unknown scope: " + scope);
-        }
-    }
-
-    Object getSingletonObjectsFromCache(String name) {
-        Object bean;
-        // Try to get the early-referenced Bean instance from the second-level cache
-        bean = earlySingletonObjects.get(name);
-        if (bean == null) {
-            // If not found in the second-level cache, try to get the ObjectFactory from the third-level cache
-            Supplier<?> objectFactory = singletonFactories.get(name);
-            if (objectFactory != null) {
-                // Create the early-referenced Bean instance using the ObjectFactory
-                bean = objectFactory.get();
-                // Put the early-referenced Bean instance into the second-level cache
-                earlySingletonObjects.put(name, bean);
-                // Remove the ObjectFactory from the third-level cache
-                singletonFactories.remove(name);
+            // Registered scope
+            BeanScope beanScope = beanFactory.getRegisteredScope(beanDefinition.getScopeName());
+            if (beanScope == null) {
+                throw new IllegalArgumentException("Unknown scope: " + beanDefinition.getScopeName() + " of bean " + name);
             }
+            return beanScope.get(name, () -> {
+                Object bean = beanFactory.createBean(name, beanDefinition);
+                if (beanDefinition.getDestroyMethodName() != null) {
+                    beanScope.registerDestructionCallback(name, () -> beanFactory.destroyBean(bean, beanDefinition));
+                }
+                return bean;
+            });
         }
-        return bean;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,111 @@
+package core.ioc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index from types to the names of the Beans assignable to them.
+ * Every Bean class is indexed under itself, its superclasses and all the interfaces it implements,
+ * so that looking up the candidates for a type is a single map access.
+ */
+public class BeanTypeIndex {
+
+    /**
+     * Superclasses and interfaces of a class, computed once per class.
+     * Object is left out, every Bean would be a candidate for it.
+     */
+    private static final ClassValue<Class<?>[]> TYPE_HIERARCHY = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            Set<Class<?>> types = new LinkedHashSet<>();
+            collectTypes(type, types);
+            return types.toArray(new Class<?>[0]);
+        }
+    };
+
+    private static final String[] NO_NAMES = new String[0];
+
+    private final Map<Class<?>, String[]> beanNamesByType = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> beanClassByName = new ConcurrentHashMap<>();
+
+    /**
+     * Index a Bean under all types it is assignable to.
+     * A Bean registered again under the same name replaces the previous entry.
+     *
+     * @param name      Bean name
+     * @param beanClass Bean class
+     */
+    public synchronized void register(String name, Class<?> beanClass) {
+        remove(name);
+        if (beanClass == null) {
+            return;
+        }
+        beanClassByName.put(name, beanClass);
+        for (Class<?> type : TYPE_HIERARCHY.get(beanClass)) {
+            beanNamesByType.merge(type, new String[]{name}, BeanTypeIndex::append);
+        }
+    }
+
+    /**
+     * Remove a Bean from the index
+     *
+     * @param name Bean name
+     */
+    public synchronized void remove(String name) {
+        Class<?> beanClass = beanClassByName.remove(name);
+        if (beanClass == null) {
+            return;
+        }
+        for (Class<?> type : TYPE_HIERARCHY.get(beanClass)) {
+            beanNamesByType.computeIfPresent(type, (key, names) -> {
+                List<String> remaining = new ArrayList<>(Arrays.asList(names));
+                remaining.remove(name);
+                return remaining.isEmpty() ? null : remaining.toArray(NO_NAMES);
+            });
+        }
+    }
+
+    /**
+     * Get the names of the Beans assignable to a type, in registration order
+     *
+     * @param type Type to look up
+     * @return Bean names, empty if there is no candidate
+     */
+    public List<String> getBeanNamesForType(Class<?> type) {
+        String[] names = beanNamesByType.get(type);
+        return names == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Get the name of the first Bean assignable to a type
+     *
+     * @param type Type to look up
+     * @return Bean name, or null if there is no candidate
+     */
+    public String getFirstBeanNameForType(Class<?> type) {
+        String[] names = beanNamesByType.get(type);
+        return names == null ? null : names[0];
+    }
+
+    private static String[] append(String[] names, String[] added) {
+        String[] merged = Arrays.copyOf(names, names.length + added.length);
+        System.arraycopy(added, 0, merged, names.length, added.length);
+        return merged;
+    }
+
+    private static void collectTypes(Class<?> type, Set<Class<?>> types) {
+        if (type == null || type == Object.class || !types.add(type)) {
+            return;
+        }
+        collectTypes(type.getSuperclass(), types);
+        for (Class<?> anInterface : type.getInterfaces()) {
+            collectTypes(anInterface, types);
+        }
+    }
+}
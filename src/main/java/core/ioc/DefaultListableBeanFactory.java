@@ -1,53 +1,78 @@
 package core.ioc;
 
+import core.aop.proxy.ProxyFactory;
 import core.cfgRd.annotation.AnnotationBeanDefinitionReader;
 import core.enums.InjectionType;
-import core.utils.Utils;
+import core.enums.ScopeType;
+import core.ioc.instantiation.InstantiationStrategy;
+import core.ioc.instantiation.MethodHandleInstantiationStrategy;
+import core.ioc.scope.BeanScope;
+import core.ioc.scope.PooledScope;
+import core.ioc.scope.RequestScope;
+import core.ioc.scope.ThreadScope;
+import core.ioc.startup.BeanStartupStep;
+import core.ioc.startup.StartupPhase;
+import core.ioc.startup.StartupRecorder;
+import core.metrics.ContainerMetrics;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Default Bean factory, responsible for Bean creation and dependency injection
  */
 public class DefaultListableBeanFactory {
 
-    private Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
-    private Map<String, Object> singletonObjects = new HashMap<>();
-    private Map<String, Object> earlySingletonObjects = new HashMap<>();
-    private Map<String, Supplier<?>> singletonFactories = new HashMap<>();
-    private Set<String> creatingBeans = new HashSet<>();
-    private BeanProvider beanProvider = new BeanProvider(beanDefinitionMap, singletonObjects, earlySingletonObjects, singletonFactories, this);
+    private Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
+    private SingletonBeanRegistry singletonRegistry = new SingletonBeanRegistry();
+    private BeanTypeIndex beanTypeIndex = new BeanTypeIndex();
+    private Map<BeanDefinition, InjectionPlan> injectionPlans = new ConcurrentHashMap<>();
+    private volatile InstantiationStrategy instantiationStrategy = new MethodHandleInstantiationStrategy();
+    private BeanProvider beanProvider = new BeanProvider(beanDefinitionMap, singletonRegistry, this);
     private AnnotationBeanDefinitionReader annotationBeanDefinitionReader = new AnnotationBeanDefinitionReader();
+    private volatile ExecutorService preInstantiationExecutor;
+    private volatile DependencyGraph dependencyGraph;
+    private volatile StartupRecorder startupRecorder = StartupRecorder.OFF;
+    private volatile ContainerMetrics metrics = ContainerMetrics.NOOP;
+    private final Map<String, BeanScope> scopes = new ConcurrentHashMap<>();
+    private volatile long destroyTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+    private Thread shutdownHook;
+
     /**
-     * Constructor, receives Bean definition map, singleton cache, and early singleton cache
+     * Constructor, creates an empty Bean definition map and singleton registry
      */
     public DefaultListableBeanFactory() {
+        registerBuiltInScopes();
     }
 
     /**
-     * Constructor, receives Bean definition map, singleton cache, and early singleton cache
+     * Constructor, receives Bean definition map and singleton registry
      *
-     * @param beanDefinitionMap   Bean definition map
-     * @param singletonObjects    Singleton cache
-     * @param earlySingletonObjects Early singleton cache
-     * @param singletonFactories  Singleton factories cache
+     * @param beanDefinitionMap Bean definition map
+     * @param singletonRegistry Singleton registry
      */
     public DefaultListableBeanFactory(Map<String, BeanDefinition> beanDefinitionMap,
-                                      Map<String, Object> singletonObjects,
-                                      Map<String, Object> earlySingletonObjects,
-                                      Map<String, Supplier<?>> singletonFactories) {
+                                      SingletonBeanRegistry singletonRegistry) {
         this.beanDefinitionMap = beanDefinitionMap;
-        this.singletonObjects = singletonObjects;
-        this.earlySingletonObjects = earlySingletonObjects;
-        this.singletonFactories = singletonFactories;
-        this.beanProvider = new BeanProvider(beanDefinitionMap, singletonObjects, earlySingletonObjects, singletonFactories, this);
+        beanDefinitionMap.forEach((name, beanDefinition) -> beanTypeIndex.register(name, beanDefinition.getBeanClass()));
+        this.singletonRegistry = singletonRegistry;
+        this.beanProvider = new BeanProvider(beanDefinitionMap, singletonRegistry, this);
+        registerBuiltInScopes();
+    }
+
+    private void registerBuiltInScopes() {
+        scopes.put(ThreadScope.NAME, new ThreadScope());
+        scopes.put(RequestScope.NAME, new RequestScope());
+        scopes.put(PooledScope.NAME, new PooledScope(this));
     }
 
     /**
@@ -59,102 +84,417 @@ public class DefaultListableBeanFactory {
      * @throws Exception If Bean instance creation fails
      */
     public Object createBean(String name, BeanDefinition beanDefinition) throws Exception {
-        // ... (您的 createBean 方法代码不变) ...
-        if (creatingBeans.contains(name)) {
+        if (singletonRegistry.isCurrentlyInCreation(name)) {
             // If it is constructor injection, throw an exception
             if (beanDefinition.getInjectionType() == InjectionType.CONSTRUCTOR) {
                 throw new RuntimeException("Circular dependency detected: " + name);
             }
             // If it is setter injection, try to get the early reference from the secondary cache
-            Object earlyBean = earlySingletonObjects.get(name);
+            Object earlyBean = singletonRegistry.getEarlySingleton(name);
             if (earlyBean != null) {
                 return earlyBean;
             }
         }
         // Add the current Bean name to the set of Beans being created
-        creatingBeans.add(name);
+        singletonRegistry.beforeCreation(name);
+        BeanStartupStep startup = startupRecorder.beanCreationStarted(name);
+        ContainerMetrics metrics = this.metrics;
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
 
         try {
-            Object bean;
-            // Select injection method based on injection type
-            if (beanDefinition.getInjectionType() == InjectionType.CONSTRUCTOR) {
-                // Constructor injection
-                Constructor<?>[] constructors = beanDefinition.getBeanClass().getConstructors();
-                if (constructors.length == 0) {
-                    // If there is no constructor, use the default constructor
-                    bean = beanDefinition.getBeanClass().getDeclaredConstructor().newInstance();
-                } else {
-                    // If there is a constructor, use the first constructor
-                    Constructor<?> constructor = constructors[0];
-                    // Get the parameters of the constructor
-                    Parameter[] parameters = constructor.getParameters();
-                    // Store the instances of dependent Beans
-                    Object[] dependencies = new Object[parameters.length];
-                    // Iterate through the parameters of the constructor to get the instances of dependent Beans
-                    for (int i = 0; i < parameters.length; i++) {
-                        Class<?> parameterType = parameters[i].getType();
-                        // Generate the Bean name based on the class name
-                        String dependencyName = Utils.lowerCaseFirstLetter(parameterType.getSimpleName());
-                        // Get the instance of the dependent Bean
-                        dependencies[i] = getBean(dependencyName);
-                    }
-                    // Create the Bean instance using the constructor and the instances of dependent Beans
-                    bean = constructor.newInstance(dependencies);
-                }
-            } else {
-                // Setter injection
-                bean = beanDefinition.getBeanClass().getDeclaredConstructor().newInstance();
+            startup.phase(StartupPhase.INSTANTIATION);
+            // Get the injection plan resolved for this Bean definition
+            InjectionPlan plan = getInjectionPlan(beanDefinition);
+            String[] constructorDependencyNames = plan.getConstructorDependencyNames();
+            Class<?>[] constructorParameterTypes = plan.getConstructor().getParameterTypes();
+            // Store the instances of dependent Beans
+            Object[] dependencies = new Object[constructorDependencyNames.length];
+            for (int i = 0; i < constructorDependencyNames.length; i++) {
+                // Get the instance of the dependent Bean
+                dependencies[i] = resolveDependency(constructorDependencyNames[i], constructorParameterTypes[i], false);
             }
+            // Create the Bean instance using the constructor and the instances of dependent Beans
+            Object bean = plan.instantiate(dependencies);
 
             /* ---  Bean has been created at this point ---*/
-            // Put the Bean's ObjectFactory into the tertiary cache
-            singletonFactories.put(name, () -> bean);
+            if (isSingleton(beanDefinition)) {
+                // Only singletons expose early references, they are cleared once the singleton is registered.
+                // Other scopes create a new instance per lookup, a cycle between them cannot be resolved.
+                // Put the Bean's ObjectFactory into the tertiary cache
+                singletonRegistry.addSingletonFactory(name, () -> bean);
 
-            // Put the Bean's early reference into the secondary cache
-            earlySingletonObjects.put(name, bean);
+                // Put the Bean's early reference into the secondary cache
+                singletonRegistry.addEarlySingleton(name, bean);
+            }
 
             // Setter injection
-            // Even if constructor injection is used, setter injection will be performed. Because there may be optional parameters that need setter injection after constructor injection.
-            if (beanDefinition.getInjectionType() == InjectionType.SETTER || beanDefinition.getInjectionType() == InjectionType.CONSTRUCTOR) {
-                // Get all methods of the Bean
-                Method[] methods = beanDefinition.getBeanClass().getMethods();
-                // Iterate through the methods to find Setter methods
-                for (Method method : methods) {
-                    if (method.getName().startsWith("set") && method.getParameterCount() == 1) {
-                        // Get the parameter type of the Setter method
-                        Class<?> parameterType = method.getParameterTypes()[0];
-                        // Generate the name of the dependent Bean based on the class name
-                        String dependencyName = Utils.lowerCaseFirstLetter(parameterType.getSimpleName());
-                        // Check for circular dependency
-                        if (creatingBeans.contains(dependencyName)) {
-                            // Try to get from the secondary cache
-                            Object earlyDependency = earlySingletonObjects.get(dependencyName);
-                            if (earlyDependency != null) {
-                                method.invoke(bean, earlyDependency);
-                                continue;
-                            } else{
-                                // If not found in the secondary cache, it means there is a problem with the circular dependency, throw an exception
-                                throw new RuntimeException("Circular dependency cannot be resolved for " + name);
-                            }
-                        }
-                        // Get the instance of the dependent Bean
-                        Object dependency = getBean(dependencyName);
-                        // Call the Setter method to inject the dependency
-                        method.invoke(bean, dependency);
+            startup.phase(StartupPhase.SETTER_INJECTION);
+            String[] setterDependencyNames = plan.getSetterDependencyNames();
+            for (int i = 0; i < setterDependencyNames.length; i++) {
+                String dependencyName = setterDependencyNames[i];
+                // Check for circular dependency
+                if (singletonRegistry.isCurrentlyInCreation(dependencyName)) {
+                    // Try to get from the secondary cache
+                    Object earlyDependency = singletonRegistry.getEarlySingleton(dependencyName);
+                    if (earlyDependency != null) {
+                        plan.injectSetter(i, bean, earlyDependency);
+                        continue;
+                    } else {
+                        // If not found in the secondary cache, it means there is a problem with the circular dependency, throw an exception
+                        throw new RuntimeException("Circular dependency cannot be resolved for " + name);
                     }
                 }
+                // Get the instance of the dependent Bean and call the Setter method to inject it
+                plan.injectSetter(i, bean, resolveDependency(dependencyName, plan.getSetterMethods()[i].getParameterTypes()[0], false));
             }
             // call the annotation inject
+            startup.phase(StartupPhase.AUTOWIRED_INJECTION);
             annotationBeanDefinitionReader.injectDependencies(bean, beanDefinition.getBeanClass(), this);
             // Call the initialization method
-            invokeInitMethod(bean, beanDefinition.getInitMethodName());
+            startup.phase(StartupPhase.INIT_METHOD);
+            invokeInitMethod(bean, plan);
+            if (metrics.isEnabled()) {
+                metrics.beanCreated(beanDefinition.getScope() == null ? ScopeType.SINGLETON : beanDefinition.getScope(), System.nanoTime() - start);
+            }
             return bean;
         } finally {
+            startup.end();
             // Remove the current Bean name from the set of Beans being created
-            creatingBeans.remove(name);
+            singletonRegistry.afterCreation(name);
         }
     }
 
+    /**
+     * Prepare the factory for use: build the dependency graph of the registered Beans
+     * and create all singletons eagerly, instead of on the first getBean.
+     *
+     * @throws RuntimeException If a constructor cycle is found or a singleton cannot be created
+     */
+    public void refresh() {
+        preInstantiateSingletons();
+    }
+
+    /**
+     * Create all singleton Beans that are not lazy, level by level of the dependency graph.
+     * The Beans of a level do not depend on each other, so they are created in parallel
+     * on the pre-instantiation executor. The Beans of a cycle are created together by one task.
+     * Cycles are reported once here: cycles of constructor arguments cannot be created and fail the refresh,
+     * other cycles are resolved through early references.
+     *
+     * @throws RuntimeException If a constructor cycle is found or a singleton cannot be created
+     */
+    public void preInstantiateSingletons() {
+        DependencyGraph graph = DependencyGraph.build(this);
+        List<List<String>> constructorCycles = graph.getConstructorCycles();
+        if (!constructorCycles.isEmpty()) {
+            throw new RuntimeException("Circular dependency detected between constructor arguments: " + constructorCycles);
+        }
+        for (List<String> cycle : graph.getCycles()) {
+            System.out.println("Circular dependency between beans " + cycle + ", resolved through early references");
+        }
+        dependencyGraph = graph;
+
+        ExecutorService executor = preInstantiationExecutor;
+        boolean ownExecutor = executor == null;
+        if (ownExecutor) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "bean-pre-instantiation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        try {
+            for (List<List<String>> level : graph.getLevels()) {
+                List<List<String>> groups = new ArrayList<>();
+                for (List<String> group : level) {
+                    if (containsSingletonToCreate(group)) {
+                        groups.add(group);
+                    }
+                }
+                if (groups.size() == 1) {
+                    // Not worth a thread switch
+                    createSingletons(groups.get(0));
+                } else if (!groups.isEmpty()) {
+                    createSingletonsInParallel(groups, executor);
+                }
+            }
+        } finally {
+            if (ownExecutor) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private boolean containsSingletonToCreate(List<String> group) {
+        for (String name : group) {
+            if (isEagerSingleton(beanDefinitionMap.get(name)) && !singletonRegistry.containsSingleton(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void createSingletons(List<String> group) {
+        for (String name : group) {
+            if (isEagerSingleton(beanDefinitionMap.get(name))) {
+                getBean(name);
+            }
+        }
+    }
+
+    private boolean isEagerSingleton(BeanDefinition beanDefinition) {
+        return isSingleton(beanDefinition) && !beanDefinition.isLazy();
+    }
+
+    private static boolean isSingleton(BeanDefinition beanDefinition) {
+        // Beans without a scope are singletons, see BeanProvider
+        return beanDefinition.getScope() == null || beanDefinition.getScope() == ScopeType.SINGLETON;
+    }
+
+    private void createSingletonsInParallel(List<List<String>> groups, ExecutorService executor) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<String> group : groups) {
+            futures.add(executor.submit(() -> createSingletons(group)));
+        }
+        // Wait for the whole level before starting the next one, and report the first failure
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new RuntimeException("Failed to create singleton", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while creating singletons", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Set the executor creating the singletons of a level in parallel during refresh.
+     * The executor is not shut down by the factory. If none is set, a pool with one thread per processor
+     * is created for each refresh.
+     *
+     * @param preInstantiationExecutor Executor, or null to use a pool per refresh
+     */
+    public void setPreInstantiationExecutor(ExecutorService preInstantiationExecutor) {
+        this.preInstantiationExecutor = preInstantiationExecutor;
+    }
+
+    /**
+     * Set the recorder timing the creation of each Bean, e.g. a DefaultStartupRecorder.
+     * Recording is off by default.
+     *
+     * @param startupRecorder Startup recorder, or null to turn recording off
+     */
+    public void setStartupRecorder(StartupRecorder startupRecorder) {
+        this.startupRecorder = startupRecorder == null ? StartupRecorder.OFF : startupRecorder;
+    }
+
+    public StartupRecorder getStartupRecorder() {
+        return startupRecorder;
+    }
+
+    /**
+     * Set the metrics the factory reports getBean calls, singleton cache hits and misses and creation latency to,
+     * e.g. a DefaultContainerMetrics. Metrics are off by default.
+     *
+     * @param metrics Container metrics, or null to turn metrics off
+     */
+    public void setMetrics(ContainerMetrics metrics) {
+        this.metrics = metrics == null ? ContainerMetrics.NOOP : metrics;
+    }
+
+    public ContainerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Register a scope under a name, replacing the scope registered under that name if any.
+     * The "thread", "request" and "pooled" scopes are registered by default.
+     *
+     * @param name  Scope name, used by @Scope and the "scope" key of the JSON configuration
+     * @param scope Scope
+     * @throws IllegalArgumentException If the name is one of the built-in singleton and prototype scopes
+     */
+    public void registerScope(String name, BeanScope scope) {
+        if (name.equalsIgnoreCase(ScopeType.SINGLETON.name()) || name.equalsIgnoreCase(ScopeType.PROTOTYPE.name())) {
+            throw new IllegalArgumentException("Cannot replace the built-in scope " + name);
+        }
+        scopes.put(name, scope);
+    }
+
+    /**
+     * @param name Scope name
+     * @return The scope registered under the name, or null if there is none
+     */
+    public BeanScope getRegisteredScope(String name) {
+        return name == null ? null : scopes.get(name);
+    }
+
+    /**
+     * Give back an instance obtained from getBean to its scope, e.g. to the pool of a pooled Bean.
+     * Instances of the other scopes are left as they are.
+     *
+     * @param name Bean name
+     * @param bean Bean instance
+     * @throws IllegalArgumentException If no Bean with the given name is registered
+     */
+    public void releaseBean(String name, Object bean) {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(name);
+        if (beanDefinition == null) {
+            throw new IllegalArgumentException("No bean named " + name + " is registered");
+        }
+        BeanScope scope = getRegisteredScope(beanDefinition.getScopeName());
+        if (scope != null) {
+            scope.release(name, bean);
+        }
+    }
+
+    /**
+     * Call the destroy method of a Bean, if its definition has one
+     *
+     * @param bean           Bean instance
+     * @param beanDefinition Bean definition
+     * @throws RuntimeException If the destroy method cannot be found or fails
+     */
+    public void destroyBean(Object bean, BeanDefinition beanDefinition) {
+        if (beanDefinition.getDestroyMethodName() == null) {
+            return;
+        }
+        try {
+            // The destroy method handle was resolved with the injection plan, when the Bean was created
+            getInjectionPlan(beanDefinition).invokeDestroyMethod(bean);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Destroy method of " + beanDefinition.getBeanClass().getName() + " failed", e);
+        }
+    }
+
+    /**
+     * Destroy all singletons in reverse dependency order: a singleton is destroyed after the singletons needing it.
+     * The levels of the dependency graph are destroyed from the last one created, and the singletons
+     * of a level in parallel. A destroy method still running after the destroy timeout is interrupted and skipped,
+     * the shutdown goes on with the next singletons. The registry is empty afterwards.
+     * Only the singletons created so far are ordered, a definition never used cannot prevent the shutdown.
+     *
+     * @throws RuntimeException If a destroy method failed or the injection plan of a singleton could not be resolved,
+     *                          after all other singletons were destroyed
+     */
+    public void destroySingletons() {
+        Map<String, Exception> unresolved = new LinkedHashMap<>();
+        DependencyGraph graph = DependencyGraph.build(this, singletonRegistry.getSingletonNames(), unresolved);
+        List<List<List<String>>> levels = graph.getLevels();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "bean-destruction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        RuntimeException failure = null;
+        for (Map.Entry<String, Exception> entry : unresolved.entrySet()) {
+            // Without its plan the destroy method is unknown, the singleton is dropped without being destroyed
+            if (failure == null) {
+                failure = new RuntimeException("Cannot resolve the injection plan of bean " + entry.getKey(), entry.getValue());
+            }
+        }
+        try {
+            for (int i = levels.size() - 1; i >= 0; i--) {
+                List<String> names = new ArrayList<>();
+                List<Future<?>> futures = new ArrayList<>();
+                for (List<String> group : levels.get(i)) {
+                    for (String name : group) {
+                        BeanDefinition beanDefinition = beanDefinitionMap.get(name);
+                        Object bean = singletonRegistry.getSingleton(name);
+                        if (bean != null && beanDefinition.getDestroyMethodName() != null && !unresolved.containsKey(name)) {
+                            names.add(name);
+                            futures.add(executor.submit(() -> destroyBean(bean, beanDefinition)));
+                        }
+                    }
+                }
+                long deadline = System.nanoTime() + destroyTimeoutNanos;
+                for (int j = 0; j < futures.size(); j++) {
+                    try {
+                        futures.get(j).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        futures.get(j).cancel(true);
+                        System.err.println("Destroy method of bean " + names.get(j) + " timed out after "
+                                + TimeUnit.NANOSECONDS.toMillis(destroyTimeoutNanos) + " ms");
+                    } catch (ExecutionException e) {
+                        if (failure == null) {
+                            failure = e.getCause() instanceof RuntimeException
+                                    ? (RuntimeException) e.getCause()
+                                    : new RuntimeException("Failed to destroy bean " + names.get(j), e.getCause());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted while destroying singletons", e);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            singletonRegistry.clear();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Set the maximum time the destroy method of a singleton may run during destroySingletons, 10 seconds by default
+     *
+     * @param timeout Timeout
+     * @param unit    Unit of the timeout
+     */
+    public void setDestroyTimeout(long timeout, TimeUnit unit) {
+        this.destroyTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Destroy the singletons when the JVM shuts down. Registering the hook again does nothing.
+     */
+    public synchronized void registerShutdownHook() {
+        if (shutdownHook == null) {
+            shutdownHook = new Thread(this::destroySingletons, "bean-factory-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * @return The dependency graph built by the last refresh, or null before the first refresh
+     */
+    public DependencyGraph getDependencyGraph() {
+        return dependencyGraph;
+    }
+
+    /**
+     * Resolve a dependency for an injection point.
+     * A lazy injection point, or any injection point of a lazy Bean that is not created yet, receives a proxy
+     * creating the Bean on its first method call. The proxy implements the type of the injection point,
+     * so only interface types can be proxied, the others receive the Bean itself.
+     *
+     * @param name Name of the dependent Bean
+     * @param type Type of the injection point
+     * @param lazy Whether the injection point itself is marked lazy
+     * @return Bean instance, or a lazy proxy
+     */
+    public Object resolveDependency(String name, Class<?> type, boolean lazy) {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(name);
+        boolean lazyBean = beanDefinition != null && beanDefinition.isLazy();
+        if ((lazy || lazyBean) && type.isInterface() && !singletonRegistry.containsSingleton(name)) {
+            return ProxyFactory.getLazyProxy(type, () -> getBean(name));
+        }
+        return getBean(name);
+    }
+
     /**
      * Get Bean instance by name
      *
@@ -165,11 +505,72 @@ public class DefaultListableBeanFactory {
         return beanProvider.getBean(name);
     }
 
-    private void invokeInitMethod(Object bean, String methodName) throws Exception {
-        if (methodName != null && !methodName.isEmpty()) {
-            Method initMethod = bean.getClass().getMethod(methodName);
-            initMethod.invoke(bean);
+    /**
+     * Get the only Bean instance assignable to a type
+     *
+     * @param type Bean type, a class or an interface
+     * @param <T>  Bean type
+     * @return Bean instance
+     * @throws IllegalArgumentException if no Bean of the given type is registered
+     * @throws IllegalStateException    if more than one Bean of the given type is registered
+     */
+    public <T> T getBean(Class<T> type) {
+        List<String> names = beanTypeIndex.getBeanNamesForType(type);
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("No bean of type " + type.getName() + " is registered");
         }
+        if (names.size() > 1) {
+            throw new IllegalStateException("Expected a single bean of type " + type.getName() + " but found " + names);
+        }
+        return type.cast(getBean(names.get(0)));
+    }
+
+    /**
+     * Get the names of the Beans assignable to a type, in registration order
+     *
+     * @param type Bean type, a class or an interface
+     * @return Bean names, empty if there is no candidate
+     */
+    public List<String> getBeanNamesForType(Class<?> type) {
+        return beanTypeIndex.getBeanNamesForType(type);
+    }
+
+    /**
+     * Get the injection plan of a Bean definition, resolving it on first use
+     *
+     * @param beanDefinition Bean definition
+     * @return Injection plan
+     * @throws Exception If the injection plan cannot be resolved
+     */
+    public InjectionPlan getInjectionPlan(BeanDefinition beanDefinition) throws Exception {
+        InjectionPlan plan = injectionPlans.get(beanDefinition);
+        if (plan == null) {
+            plan = InjectionPlan.resolve(beanDefinition, instantiationStrategy);
+            InjectionPlan existing = injectionPlans.putIfAbsent(beanDefinition, plan);
+            if (existing != null) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Set the strategy used to instantiate Beans.
+     * Injection plans resolved with the previous strategy are discarded.
+     *
+     * @param instantiationStrategy Instantiation strategy
+     */
+    public void setInstantiationStrategy(InstantiationStrategy instantiationStrategy) {
+        this.instantiationStrategy = instantiationStrategy;
+        injectionPlans.clear();
+    }
+
+    public InstantiationStrategy getInstantiationStrategy() {
+        return instantiationStrategy;
+    }
+
+    private void invokeInitMethod(Object bean, InjectionPlan plan) throws Exception {
+        plan.invokeInitMethod(bean);
     }
 
     /**
@@ -180,10 +581,10 @@ public class DefaultListableBeanFactory {
      */
     public void registerBeanDefinition(String id, BeanDefinition beanDefinition) {
         // Duplicate registration
-        if (beanDefinitionMap.containsKey(id)) {
+        if (beanDefinitionMap.putIfAbsent(id, beanDefinition) != null) {
             throw new RuntimeException("Bean definition with id '" + id + "' already exists.");
         }
-        beanDefinitionMap.put(id, beanDefinition);
+        beanTypeIndex.register(id, beanDefinition.getBeanClass());
     }
 
     /**
@@ -199,4 +600,12 @@ public class DefaultListableBeanFactory {
     public Map<String, BeanDefinition> getBeanDefinitionMap() {
         return beanDefinitionMap;
     }
+
+    public BeanTypeIndex getBeanTypeIndex() {
+        return beanTypeIndex;
+    }
+
+    public SingletonBeanRegistry getSingletonRegistry() {
+        return singletonRegistry;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,306 @@
+package core.ioc;
+
+import core.cfgRd.annotation.Autowired;
+
+import java.lang.reflect.Field;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Dependency graph of the registered Beans.
+ * An edge goes from a Bean to each Bean it needs: its constructor arguments, its setter dependencies
+ * and its @Autowired fields. Beans that depend on each other are grouped into strongly connected groups,
+ * and the groups are sorted into levels so that every group only depends on groups of earlier levels.
+ */
+public class DependencyGraph {
+
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+    private final Map<String, Set<String>> constructorDependencies = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependents = new LinkedHashMap<>();
+
+    /**
+     * Build the dependency graph of all Bean definitions of a factory
+     *
+     * @param beanFactory Bean factory
+     * @return Dependency graph
+     * @throws RuntimeException If the injection plan of a Bean cannot be resolved
+     */
+    public static DependencyGraph build(DefaultListableBeanFactory beanFactory) {
+        return build(beanFactory, beanFactory.getBeanDefinitionMap().keySet(), null);
+    }
+
+    /**
+     * Build the dependency graph of some Bean definitions of a factory, e.g. of the singletons created so far.
+     * Dependencies on Beans outside of the given names are left out.
+     *
+     * @param beanFactory Bean factory
+     * @param beanNames   Names of the Beans of the graph
+     * @param unresolved  Receives the Beans whose injection plan cannot be resolved, which are added without
+     *                    dependencies, or null to fail on the first one
+     * @return Dependency graph
+     * @throws RuntimeException If the injection plan of a Bean cannot be resolved and unresolved is null
+     */
+    public static DependencyGraph build(DefaultListableBeanFactory beanFactory, Collection<String> beanNames,
+                                        Map<String, Exception> unresolved) {
+        Map<String, BeanDefinition> beanDefinitionMap = beanFactory.getBeanDefinitionMap();
+        DependencyGraph graph = new DependencyGraph();
+        // Sort the names so that the levels do not depend on the iteration order of the map
+        Set<String> names = new TreeSet<>(beanNames);
+        names.retainAll(beanDefinitionMap.keySet());
+        for (String name : names) {
+            graph.addBean(name);
+        }
+        for (String name : names) {
+            BeanDefinition beanDefinition = beanDefinitionMap.get(name);
+            InjectionPlan plan;
+            try {
+                plan = beanFactory.getInjectionPlan(beanDefinition);
+            } catch (Exception e) {
+                if (unresolved == null) {
+                    throw new RuntimeException("Cannot resolve the injection plan of bean " + name, e);
+                }
+                unresolved.put(name, e);
+                continue;
+            }
+            for (String dependency : plan.getConstructorDependencyNames()) {
+                if (names.contains(dependency)) {
+                    graph.addDependency(name, dependency, true);
+                }
+            }
+            for (String dependency : plan.getSetterDependencyNames()) {
+                if (names.contains(dependency)) {
+                    graph.addDependency(name, dependency, false);
+                }
+            }
+            for (Field field : beanDefinition.getBeanClass().getDeclaredFields()) {
+                if (field.isAnnotationPresent(Autowired.class)) {
+                    String dependency = beanFactory.getBeanTypeIndex().getFirstBeanNameForType(field.getType());
+                    if (dependency != null && names.contains(dependency)) {
+                        graph.addDependency(name, dependency, false);
+                    }
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Add a Bean without dependencies to the graph
+     *
+     * @param name Bean name
+     */
+    public void addBean(String name) {
+        dependencies.computeIfAbsent(name, key -> new LinkedHashSet<>());
+        constructorDependencies.computeIfAbsent(name, key -> new LinkedHashSet<>());
+        dependents.computeIfAbsent(name, key -> new LinkedHashSet<>());
+    }
+
+    /**
+     * Add a dependency between two Beans, adding the Beans if needed
+     *
+     * @param name        Name of the dependent Bean
+     * @param dependency  Name of the Bean it needs
+     * @param constructor Whether the dependency is a constructor argument
+     */
+    public void addDependency(String name, String dependency, boolean constructor) {
+        addBean(name);
+        addBean(dependency);
+        dependencies.get(name).add(dependency);
+        if (constructor) {
+            constructorDependencies.get(name).add(dependency);
+        }
+        dependents.get(dependency).add(name);
+    }
+
+    public Set<String> getBeanNames() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    /**
+     * @param name Bean name
+     * @return Names of the Beans the Bean needs, empty for unknown Beans
+     */
+    public Set<String> getDependencies(String name) {
+        return Collections.unmodifiableSet(dependencies.getOrDefault(name, Collections.emptySet()));
+    }
+
+    /**
+     * @param name Bean name
+     * @return Names of the Beans that need the Bean, empty for unknown Beans
+     */
+    public Set<String> getDependents(String name) {
+        return Collections.unmodifiableSet(dependents.getOrDefault(name, Collections.emptySet()));
+    }
+
+    /**
+     * Get the groups of Beans that depend on each other, directly or through other Beans
+     *
+     * @return The circular groups, each with its Bean names
+     */
+    public List<List<String>> getCycles() {
+        return cycles(dependencies);
+    }
+
+    /**
+     * Get the circular groups formed by constructor arguments only.
+     * Such a group cannot be created, none of its Beans can be instantiated before the others.
+     *
+     * @return The circular groups, each with its Bean names
+     */
+    public List<List<String>> getConstructorCycles() {
+        return cycles(constructorDependencies);
+    }
+
+    /**
+     * Sort the Beans into levels. The groups of a level only depend on groups of earlier levels,
+     * so they can be created in parallel once the earlier levels are done.
+     * A group holds a single Bean, or all the Beans of a cycle.
+     *
+     * @return The levels, each with its groups of Bean names
+     */
+    public List<List<List<String>>> getLevels() {
+        List<List<String>> groups = stronglyConnectedGroups(dependencies);
+        Map<String, Integer> groupOf = new HashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            for (String name : groups.get(i)) {
+                groupOf.put(name, i);
+            }
+        }
+        // Kahn's algorithm on the graph of the groups
+        int[] remaining = new int[groups.size()];
+        List<Set<Integer>> dependentGroups = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            dependentGroups.add(new LinkedHashSet<>());
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            Set<Integer> dependencyGroups = new LinkedHashSet<>();
+            for (String name : groups.get(i)) {
+                for (String dependency : dependencies.get(name)) {
+                    int group = groupOf.get(dependency);
+                    if (group != i) {
+                        dependencyGroups.add(group);
+                    }
+                }
+            }
+            remaining[i] = dependencyGroups.size();
+            for (int group : dependencyGroups) {
+                dependentGroups.get(group).add(i);
+            }
+        }
+        List<Integer> current = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            if (remaining[i] == 0) {
+                current.add(i);
+            }
+        }
+        List<List<List<String>>> levels = new ArrayList<>();
+        while (!current.isEmpty()) {
+            List<List<String>> level = new ArrayList<>();
+            List<Integer> next = new ArrayList<>();
+            for (int group : current) {
+                level.add(groups.get(group));
+                for (int dependent : dependentGroups.get(group)) {
+                    if (--remaining[dependent] == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            Collections.sort(next);
+            levels.add(level);
+            current = next;
+        }
+        return levels;
+    }
+
+    private static List<List<String>> cycles(Map<String, Set<String>> edges) {
+        List<List<String>> cycles = new ArrayList<>();
+        for (List<String> group : stronglyConnectedGroups(edges)) {
+            String first = group.get(0);
+            if (group.size() > 1 || edges.get(first).contains(first)) {
+                cycles.add(group);
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Tarjan's algorithm, iterative so that long dependency chains do not overflow the stack.
+     * The groups are returned in insertion order of their first Bean.
+     */
+    private static List<List<String>> stronglyConnectedGroups(Map<String, Set<String>> edges) {
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        Set<String> onStack = new LinkedHashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        List<List<String>> groups = new ArrayList<>();
+        for (String start : edges.keySet()) {
+            if (index.containsKey(start)) {
+                continue;
+            }
+            // Each frame is a Bean and the iterator over its remaining dependencies
+            Deque<Map.Entry<String, Iterator<String>>> frames = new ArrayDeque<>();
+            visit(start, index, lowLink, onStack, stack, frames, edges);
+            while (!frames.isEmpty()) {
+                Map.Entry<String, Iterator<String>> frame = frames.peek();
+                String name = frame.getKey();
+                if (frame.getValue().hasNext()) {
+                    String dependency = frame.getValue().next();
+                    if (!index.containsKey(dependency)) {
+                        visit(dependency, index, lowLink, onStack, stack, frames, edges);
+                    } else if (onStack.contains(dependency)) {
+                        lowLink.put(name, Math.min(lowLink.get(name), index.get(dependency)));
+                    }
+                    continue;
+                }
+                frames.pop();
+                if (!frames.isEmpty()) {
+                    String parent = frames.peek().getKey();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(name)));
+                }
+                if (lowLink.get(name).equals(index.get(name))) {
+                    List<String> group = new ArrayList<>();
+                    String member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        group.add(member);
+                    } while (!member.equals(name));
+                    groups.add(group);
+                }
+            }
+        }
+        // Tarjan finds the groups dependencies first, sort them and their Beans back into insertion order
+        Map<String, Integer> position = new HashMap<>();
+        for (String name : edges.keySet()) {
+            position.put(name, position.size());
+        }
+        for (List<String> group : groups) {
+            group.sort(Comparator.comparing(position::get));
+        }
+        groups.sort(Comparator.comparing(group -> position.get(group.get(0))));
+        return groups;
+    }
+
+    private static void visit(String name, Map<String, Integer> index, Map<String, Integer> lowLink, Set<String> onStack,
+                              Deque<String> stack, Deque<Map.Entry<String, Iterator<String>>> frames,
+                              Map<String, Set<String>> edges) {
+        index.put(name, index.size());
+        lowLink.put(name, index.get(name));
+        stack.push(name);
+        onStack.add(name);
+        frames.push(new AbstractMap.SimpleEntry<>(name, edges.get(name).iterator()));
+    }
+}
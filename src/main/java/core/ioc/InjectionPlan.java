@@ -0,0 +1,226 @@
+package core.ioc;
+
+import core.enums.InjectionType;
+import core.ioc.instantiation.BeanInstantiator;
+import core.ioc.instantiation.InstantiationStrategy;
+import core.utils.Utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Injection plan of a Bean definition.
+ * The constructor, the setter targets and the names of their dependencies are resolved once
+ * and stored as an instantiator and MethodHandles, so that creating a Bean no longer scans its class.
+ */
+public class InjectionPlan {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INIT_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final Constructor<?> constructor;
+    private final BeanInstantiator instantiator;
+    private final String[] constructorDependencyNames;
+    private final Method[] setterMethods;
+    private final MethodHandle[] setterHandles; // (Object bean, Object dependency) -> void
+    private final String[] setterDependencyNames;
+    private final MethodHandle initMethodHandle; // (Object bean) -> void, or null
+    private final MethodHandle destroyMethodHandle; // (Object bean) -> void, or null
+
+    private InjectionPlan(Constructor<?> constructor, BeanInstantiator instantiator, String[] constructorDependencyNames,
+                          Method[] setterMethods, String[] setterDependencyNames,
+                          Method initMethod, Method destroyMethod) throws IllegalAccessException {
+        this.constructor = constructor;
+        this.instantiator = instantiator;
+        this.constructorDependencyNames = constructorDependencyNames;
+        this.setterMethods = setterMethods;
+        this.setterDependencyNames = setterDependencyNames;
+        this.setterHandles = new MethodHandle[setterMethods.length];
+        for (int i = 0; i < setterMethods.length; i++) {
+            setterHandles[i] = unreflect(setterMethods[i]).asType(SETTER_TYPE);
+        }
+        this.initMethodHandle = initMethod == null ? null : unreflect(initMethod).asType(INIT_TYPE);
+        this.destroyMethodHandle = destroyMethod == null ? null : unreflect(destroyMethod).asType(INIT_TYPE);
+    }
+
+    /**
+     * Resolve the injection plan of a Bean definition
+     *
+     * @param beanDefinition        Bean definition
+     * @param instantiationStrategy Strategy creating the instantiator of the constructor
+     * @return Injection plan
+     * @throws Exception If the constructor or a method of the plan cannot be resolved
+     */
+    public static InjectionPlan resolve(BeanDefinition beanDefinition, InstantiationStrategy instantiationStrategy) throws Exception {
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        // Members restored from a snapshot skip the scan of the class
+        Constructor<?> constructor = beanDefinition.getResolvedConstructor() != null
+                ? beanDefinition.getResolvedConstructor() : findConstructor(beanDefinition);
+        List<Method> setters = beanDefinition.getResolvedSetters() != null
+                ? List.of(beanDefinition.getResolvedSetters()) : findSetters(beanDefinition);
+
+        String[] constructorDependencyNames = new String[constructor.getParameterCount()];
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            // Generate the Bean name based on the class name
+            constructorDependencyNames[i] = dependencyName(parameterTypes[i]);
+        }
+
+        String[] setterDependencyNames = new String[setters.size()];
+        for (int i = 0; i < setters.size(); i++) {
+            setterDependencyNames[i] = dependencyName(setters.get(i).getParameterTypes()[0]);
+        }
+
+        String initMethodName = beanDefinition.getInitMethodName();
+        Method initMethod = initMethodName == null || initMethodName.isEmpty() ? null : beanClass.getMethod(initMethodName);
+        String destroyMethodName = beanDefinition.getDestroyMethodName();
+        Method destroyMethod = destroyMethodName == null || destroyMethodName.isEmpty() ? null : beanClass.getMethod(destroyMethodName);
+
+        return new InjectionPlan(constructor, instantiationStrategy.getInstantiator(constructor), constructorDependencyNames,
+                setters.toArray(new Method[0]), setterDependencyNames, initMethod, destroyMethod);
+    }
+
+    /**
+     * Find the constructor creating the Bean of a definition
+     *
+     * @param beanDefinition Bean definition
+     * @return The first public constructor with constructor injection, otherwise the default constructor
+     * @throws NoSuchMethodException If the class has no default constructor
+     */
+    public static Constructor<?> findConstructor(BeanDefinition beanDefinition) throws NoSuchMethodException {
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        if (beanDefinition.getInjectionType() == InjectionType.CONSTRUCTOR && beanClass.getConstructors().length > 0) {
+            // If there is a public constructor, use the first constructor
+            return beanClass.getConstructors()[0];
+        }
+        // Otherwise use the default constructor
+        return beanClass.getDeclaredConstructor();
+    }
+
+    /**
+     * Find the setter targets of a definition
+     *
+     * @param beanDefinition Bean definition
+     * @return The public one-argument methods whose name starts with "set"
+     */
+    public static List<Method> findSetters(BeanDefinition beanDefinition) {
+        InjectionType injectionType = beanDefinition.getInjectionType();
+        // Even if constructor injection is used, setter injection will be performed. Because there may be optional parameters that need setter injection after constructor injection.
+        List<Method> setters = new ArrayList<>();
+        if (injectionType == InjectionType.SETTER || injectionType == InjectionType.CONSTRUCTOR) {
+            for (Method method : beanDefinition.getBeanClass().getMethods()) {
+                if (method.getName().startsWith("set") && method.getParameterCount() == 1) {
+                    setters.add(method);
+                }
+            }
+        }
+        return setters;
+    }
+
+    /**
+     * Create a Bean instance with the constructor of the plan
+     *
+     * @param dependencies Instances of the constructor dependencies
+     * @return Bean instance
+     * @throws Exception If the constructor throws an exception
+     */
+    public Object instantiate(Object[] dependencies) throws Exception {
+        return instantiator.instantiate(dependencies);
+    }
+
+    /**
+     * Inject a dependency through a setter target of the plan
+     *
+     * @param index      Index of the setter target
+     * @param bean       Bean instance
+     * @param dependency Instance of the dependency
+     * @throws Exception If the setter throws an exception
+     */
+    public void injectSetter(int index, Object bean, Object dependency) throws Exception {
+        try {
+            setterHandles[index].invokeExact(bean, dependency);
+        } catch (Throwable t) {
+            throw asException(t);
+        }
+    }
+
+    /**
+     * Call the initialization method of the plan, if there is one
+     *
+     * @param bean Bean instance
+     * @throws Exception If the initialization method throws an exception
+     */
+    public void invokeInitMethod(Object bean) throws Exception {
+        if (initMethodHandle != null) {
+            try {
+                initMethodHandle.invokeExact(bean);
+            } catch (Throwable t) {
+                throw asException(t);
+            }
+        }
+    }
+
+    /**
+     * Call the destruction method of the plan, if there is one
+     *
+     * @param bean Bean instance
+     * @throws Exception If the destruction method throws an exception
+     */
+    public void invokeDestroyMethod(Object bean) throws Exception {
+        if (destroyMethodHandle != null) {
+            try {
+                destroyMethodHandle.invokeExact(bean);
+            } catch (Throwable t) {
+                throw asException(t);
+            }
+        }
+    }
+
+    /**
+     * @return Whether the plan has a destruction method
+     */
+    public boolean hasDestroyMethod() {
+        return destroyMethodHandle != null;
+    }
+
+    public Constructor<?> getConstructor() {
+        return constructor;
+    }
+
+    public String[] getConstructorDependencyNames() {
+        return constructorDependencyNames;
+    }
+
+    public Method[] getSetterMethods() {
+        return setterMethods;
+    }
+
+    public String[] getSetterDependencyNames() {
+        return setterDependencyNames;
+    }
+
+    private static String dependencyName(Class<?> type) {
+        return Utils.lowerCaseFirstLetter(type.getSimpleName());
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        method.trySetAccessible();
+        return LOOKUP.unreflect(method);
+    }
+
+    private static Exception asException(Throwable t) {
+        if (t instanceof Exception) {
+            return (Exception) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new RuntimeException(t);
+    }
+}
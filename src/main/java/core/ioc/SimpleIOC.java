@@ -2,23 +2,24 @@ package core.ioc;
 
 import core.enums.InjectionType;
 import core.enums.ScopeType;
+import core.ioc.scope.BeanScope;
+import core.ioc.startup.StartupRecorder;
+import core.metrics.ContainerMetrics;
 
-import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Simple IOC container
  */
 public class SimpleIOC {
 
-    private Map<String, Object> singletonObjects = new HashMap<>();
-    private Map<String, Object> earlySingletonObjects = new HashMap<>();
-    private Map<String, Supplier<?>> singletonFactories = new HashMap<>();
-    private Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
-    private DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory(beanDefinitionMap, singletonObjects, earlySingletonObjects, singletonFactories);
-    private BeanProvider beanProvider = new BeanProvider(beanDefinitionMap, singletonObjects, earlySingletonObjects, singletonFactories, beanFactory);
+    private SingletonBeanRegistry singletonRegistry = new SingletonBeanRegistry();
+    private Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>();
+    private DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory(beanDefinitionMap, singletonRegistry);
+    private BeanProvider beanProvider = new BeanProvider(beanDefinitionMap, singletonRegistry, beanFactory);
 
     /**
      * Register Bean definition
@@ -32,6 +33,7 @@ public class SimpleIOC {
      */
     public void registerBean(String name, Class<?> clazz, InjectionType injectionType, ScopeType scope, String initMethodName, String destroyMethodName) {
         beanDefinitionMap.put(name, new BeanDefinition(clazz, injectionType, scope, initMethodName, destroyMethodName));
+        beanFactory.getBeanTypeIndex().register(name, clazz);
     }
 
     /**
@@ -46,27 +48,104 @@ public class SimpleIOC {
     }
 
     /**
-     * Destroy all singleton Beans
+     * Get the only Bean instance assignable to a type
+     *
+     * @param type Bean type, a class or an interface
+     * @param <T>  Bean type
+     * @return Bean instance
+     * @throws IllegalArgumentException if no Bean of the given type is registered
+     */
+    public <T> T getBean(Class<T> type) {
+        return beanFactory.getBean(type);
+    }
+
+    /**
+     * Create all singleton Beans eagerly, in parallel by level of the dependency graph
+     *
+     * @throws RuntimeException If a constructor cycle is found or a singleton cannot be created
+     */
+    public void refresh() {
+        beanFactory.refresh();
+    }
+
+    /**
+     * Set the executor creating the singletons in parallel during refresh
+     *
+     * @param executor Executor, or null to use a pool per refresh
+     */
+    public void setPreInstantiationExecutor(ExecutorService executor) {
+        beanFactory.setPreInstantiationExecutor(executor);
+    }
+
+    /**
+     * Set the recorder timing the creation of each Bean
+     *
+     * @param startupRecorder Startup recorder, or null to turn recording off
+     */
+    public void setStartupRecorder(StartupRecorder startupRecorder) {
+        beanFactory.setStartupRecorder(startupRecorder);
+    }
+
+    /**
+     * Set the metrics the container reports to
+     *
+     * @param metrics Container metrics, or null to turn metrics off
+     */
+    public void setMetrics(ContainerMetrics metrics) {
+        beanFactory.setMetrics(metrics);
+    }
+
+    /**
+     * Give back an instance obtained from getBean to its scope, e.g. to the pool of a pooled Bean
+     *
+     * @param name Bean name
+     * @param bean Bean instance
+     */
+    public void releaseBean(String name, Object bean) {
+        beanFactory.releaseBean(name, bean);
+    }
+
+    /**
+     * Register a scope under a name, e.g. a scope of your own next to the default "thread", "request" and "pooled" scopes
+     *
+     * @param name  Scope name
+     * @param scope Scope
+     */
+    public void registerScope(String name, BeanScope scope) {
+        beanFactory.registerScope(name, scope);
+    }
+
+    /**
+     * @param name Scope name
+     * @return The scope registered under the name, or null if there is none
+     */
+    public BeanScope getRegisteredScope(String name) {
+        return beanFactory.getRegisteredScope(name);
+    }
+
+    /**
+     * Destroy all singleton Beans, in reverse dependency order and in parallel where they do not depend on each other
      *
      * @throws Exception if Bean destruction fails
      */
     public void destroySingletons() throws Exception {
-        for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-            // 1. Iterate through beanDefinitionMap to get each Bean's name and definition
-            String beanName = entry.getKey();
-            BeanDefinition beanDefinition = entry.getValue();
-            // 2. Check if the Bean's scope is singleton
-            if (beanDefinition.getScope() == ScopeType.SINGLETON) {
-                // 3. If it is a singleton Bean, get the Bean instance from the singletonObjects cache
-                Object bean = singletonObjects.get(beanName);
-                // 4. Check if the Bean instance exists and a destroy method is defined
-                if (bean != null && beanDefinition.getDestroyMethodName() != null) {
-                    // 5. Get the Bean's destroy method
-                    Method destroyMethod = bean.getClass().getMethod(beanDefinition.getDestroyMethodName());
-                    // 6. Invoke the Bean's destroy method
-                    destroyMethod.invoke(bean);
-                }
-            }
-        }
+        beanFactory.destroySingletons();
+    }
+
+    /**
+     * Set the maximum time the destroy method of a singleton may run
+     *
+     * @param timeout Timeout
+     * @param unit    Unit of the timeout
+     */
+    public void setDestroyTimeout(long timeout, TimeUnit unit) {
+        beanFactory.setDestroyTimeout(timeout, unit);
+    }
+
+    /**
+     * Destroy the singletons when the JVM shuts down
+     */
+    public void registerShutdownHook() {
+        beanFactory.registerShutdownHook();
     }
 }
\ No newline at end of file
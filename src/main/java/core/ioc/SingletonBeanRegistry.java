@@ -0,0 +1,265 @@
+package core.ioc;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe registry of singleton Bean instances.
+ * Fully created singletons are read without locking. Creating a singleton is guarded by a lock
+ * of its own, so that different singletons can be created in parallel without blocking each other.
+ */
+public class SingletonBeanRegistry {
+
+    /**
+     * Interval between two deadlock checks while waiting for the creation lock of another thread.
+     */
+    private static final long DEADLOCK_CHECK_INTERVAL_MS = 10;
+
+    private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>(); // First-level cache
+    private final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>(); // Second-level cache
+    private final Map<String, Supplier<?>> singletonFactories = new ConcurrentHashMap<>(); // Third-level cache
+    private final Map<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>();
+    private final Map<String, Thread> creationOwners = new ConcurrentHashMap<>();
+    private final Map<Thread, String> waitingFor = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> creatingBeans = ThreadLocal.withInitial(HashSet::new);
+
+    /**
+     * Callback used to create a singleton that is not in the registry yet.
+     */
+    public interface SingletonCreator {
+        Object create() throws Exception;
+    }
+
+    /**
+     * Get a fully created singleton without locking
+     *
+     * @param name Bean name
+     * @return Bean instance, or null if the singleton has not been created yet
+     */
+    public Object getSingleton(String name) {
+        return singletonObjects.get(name);
+    }
+
+    /**
+     * Get a singleton, creating it under its creation lock if necessary
+     *
+     * @param name    Bean name
+     * @param creator Callback creating the Bean instance
+     * @return Bean instance
+     * @throws Exception If Bean instance creation fails
+     */
+    public Object getSingleton(String name, SingletonCreator creator) throws Exception {
+        Object bean = singletonObjects.get(name);
+        if (bean != null) {
+            return bean;
+        }
+        ReentrantLock lock = creationLocks.computeIfAbsent(name, key -> new ReentrantLock());
+        if (!acquireCreationLock(name, lock)) {
+            // The thread creating this Bean is waiting for a Bean this thread is creating,
+            // so resolve the circular reference with the early reference like a single thread would
+            Object earlyBean = getEarlySingleton(name);
+            if (earlyBean == null) {
+                throw new RuntimeException("Circular dependency detected: " + name);
+            }
+            return earlyBean;
+        }
+        try {
+            bean = singletonObjects.get(name);
+            if (bean == null) {
+                // Re-entering during a circular reference returns the early reference
+                bean = getEarlySingleton(name);
+                if (bean == null) {
+                    try {
+                        bean = creator.create();
+                    } catch (Exception | Error e) {
+                        // Do not keep the early reference of a singleton that failed to be created
+                        removeEarlyReferences(name);
+                        throw e;
+                    }
+                    addSingleton(name, bean);
+                }
+            }
+            return bean;
+        } finally {
+            releaseCreationLock(name, lock);
+        }
+    }
+
+    /**
+     * Put a fully created singleton into the first-level cache and clear its early references
+     *
+     * @param name Bean name
+     * @param bean Bean instance
+     */
+    public void addSingleton(String name, Object bean) {
+        singletonObjects.put(name, bean);
+        earlySingletonObjects.remove(name);
+        singletonFactories.remove(name);
+    }
+
+    /**
+     * Remove all singletons and early references, e.g. once they have been destroyed
+     */
+    public void clear() {
+        singletonObjects.clear();
+        earlySingletonObjects.clear();
+        singletonFactories.clear();
+    }
+
+    /**
+     * Clear the early references of a Bean from the second-level and third-level caches
+     *
+     * @param name Bean name
+     */
+    public void removeEarlyReferences(String name) {
+        earlySingletonObjects.remove(name);
+        singletonFactories.remove(name);
+    }
+
+    /**
+     * @return Number of early references held in the second-level and third-level caches,
+     * 0 when no singleton is being created
+     */
+    public int getEarlyReferenceCount() {
+        return earlySingletonObjects.size() + singletonFactories.size();
+    }
+
+    /**
+     * Put the ObjectFactory of a Bean into the third-level cache
+     *
+     * @param name           Bean name
+     * @param singletonFactory ObjectFactory returning the early reference
+     */
+    public void addSingletonFactory(String name, Supplier<?> singletonFactory) {
+        singletonFactories.put(name, singletonFactory);
+    }
+
+    /**
+     * Put the early reference of a Bean into the second-level cache
+     *
+     * @param name Bean name
+     * @param bean Early reference
+     */
+    public void addEarlySingleton(String name, Object bean) {
+        earlySingletonObjects.put(name, bean);
+    }
+
+    /**
+     * Get the early reference of a Bean from the second-level cache, or from the third-level cache
+     *
+     * @param name Bean name
+     * @return Early reference, or null if there is none
+     */
+    public Object getEarlySingleton(String name) {
+        Object bean = earlySingletonObjects.get(name);
+        if (bean == null) {
+            // Remove the ObjectFactory atomically, so that only one thread creates the early reference
+            Supplier<?> objectFactory = singletonFactories.remove(name);
+            if (objectFactory != null) {
+                bean = objectFactory.get();
+                Object existing = earlySingletonObjects.putIfAbsent(name, bean);
+                if (existing != null) {
+                    bean = existing;
+                }
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Mark a Bean as being created by the current thread
+     *
+     * @param name Bean name
+     */
+    public void beforeCreation(String name) {
+        creatingBeans.get().add(name);
+    }
+
+    /**
+     * Mark a Bean as no longer being created by the current thread
+     *
+     * @param name Bean name
+     */
+    public void afterCreation(String name) {
+        Set<String> names = creatingBeans.get();
+        names.remove(name);
+        if (names.isEmpty()) {
+            creatingBeans.remove();
+        }
+    }
+
+    /**
+     * Check whether the current thread is creating the Bean
+     *
+     * @param name Bean name
+     * @return true if the Bean is being created by the current thread
+     */
+    public boolean isCurrentlyInCreation(String name) {
+        return creatingBeans.get().contains(name);
+    }
+
+    public boolean containsSingleton(String name) {
+        return singletonObjects.containsKey(name);
+    }
+
+    public Set<String> getSingletonNames() {
+        return singletonObjects.keySet();
+    }
+
+    private boolean acquireCreationLock(String name, ReentrantLock lock) {
+        if (!lock.tryLock()) {
+            Thread current = Thread.currentThread();
+            waitingFor.put(current, name);
+            try {
+                while (!lock.tryLock(DEADLOCK_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    if (isWaitingForItself(current, name)) {
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for bean " + name, e);
+            } finally {
+                waitingFor.remove(current);
+            }
+        }
+        if (lock.getHoldCount() == 1) {
+            creationOwners.put(name, Thread.currentThread());
+        }
+        return true;
+    }
+
+    private void releaseCreationLock(String name, ReentrantLock lock) {
+        if (lock.getHoldCount() == 1) {
+            creationOwners.remove(name);
+        }
+        lock.unlock();
+    }
+
+    /**
+     * Follow the chain of creation lock owners and the Beans they wait for.
+     * If the chain leads back to the current thread, waiting would never end.
+     */
+    private boolean isWaitingForItself(Thread current, String name) {
+        String beanName = name;
+        for (int i = 0; i <= waitingFor.size(); i++) {
+            Thread owner = creationOwners.get(beanName);
+            if (owner == null) {
+                return false;
+            }
+            if (owner == current) {
+                return true;
+            }
+            beanName = waitingFor.get(owner);
+            if (beanName == null) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package core.ioc.instantiation;
+
+/**
+ * Creates instances of one Bean class with one constructor.
+ */
+@FunctionalInterface
+public interface BeanInstantiator {
+
+    /**
+     * Create a Bean instance
+     *
+     * @param args Constructor arguments
+     * @return Bean instance
+     * @throws Exception If the constructor throws an exception
+     */
+    Object instantiate(Object[] args) throws Exception;
+}
@@ -0,0 +1,19 @@
+package core.ioc.instantiation;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Strategy used by the Bean factory to turn a constructor into a BeanInstantiator.
+ * The instantiator is created once per Bean definition and used for every later creation.
+ */
+public interface InstantiationStrategy {
+
+    /**
+     * Create an instantiator for the constructor
+     *
+     * @param constructor Constructor of the Bean class
+     * @return Instantiator calling the constructor
+     * @throws Exception If the constructor cannot be accessed
+     */
+    BeanInstantiator getInstantiator(Constructor<?> constructor) throws Exception;
+}
@@ -0,0 +1,91 @@
+package core.ioc.instantiation;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Instantiation strategy generating a Supplier, Function or BiFunction per constructor with LambdaMetafactory.
+ * The generated lambda calls the constructor directly, so the JIT can inline the construction.
+ * Constructors with more than two parameters, or that cannot be accessed, use the fallback strategy.
+ */
+public class LambdaMetafactoryInstantiationStrategy implements InstantiationStrategy {
+
+    private final InstantiationStrategy fallback;
+
+    public LambdaMetafactoryInstantiationStrategy() {
+        this(new ReflectiveInstantiationStrategy());
+    }
+
+    /**
+     * @param fallback Strategy used for constructors the LambdaMetafactory cannot handle
+     */
+    public LambdaMetafactoryInstantiationStrategy(InstantiationStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public BeanInstantiator getInstantiator(Constructor<?> constructor) throws Exception {
+        try {
+            return generateInstantiator(constructor);
+        } catch (IllegalAccessException | LambdaConversionException | IllegalArgumentException e) {
+            // Not accessible or not supported, use reflection instead
+            return fallback.getInstantiator(constructor);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BeanInstantiator generateInstantiator(Constructor<?> constructor) throws Exception {
+        Class<?> beanClass = constructor.getDeclaringClass();
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        if (parameterTypes.length > 2) {
+            return fallback.getInstantiator(constructor);
+        }
+        // A full privilege lookup on the Bean class, the generated class is defined next to it
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup());
+        MethodHandle implementation = lookup.unreflectConstructor(constructor);
+        // Primitive parameters are passed boxed and unboxed by the generated class
+        MethodType instantiatedType = MethodType.methodType(beanClass, parameterTypes).wrap();
+
+        switch (parameterTypes.length) {
+            case 0: {
+                Supplier<Object> supplier = (Supplier<Object>) newLambda(LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                        implementation, instantiatedType));
+                return args -> supplier.get();
+            }
+            case 1: {
+                Function<Object, Object> function = (Function<Object, Object>) newLambda(LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class),
+                        implementation, instantiatedType));
+                return args -> function.apply(args[0]);
+            }
+            default: {
+                BiFunction<Object, Object, Object> function = (BiFunction<Object, Object, Object>) newLambda(LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(BiFunction.class), MethodType.methodType(Object.class, Object.class, Object.class),
+                        implementation, instantiatedType));
+                return args -> function.apply(args[0], args[1]);
+            }
+        }
+    }
+
+    /**
+     * Create the lambda of a call site returned by the LambdaMetafactory, which takes no captured arguments
+     */
+    private static Object newLambda(CallSite callSite) {
+        try {
+            return callSite.getTarget().invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package core.ioc.instantiation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * Instantiation strategy calling the constructor through a MethodHandle.
+ * This is the default strategy of the Bean factory.
+ */
+public class MethodHandleInstantiationStrategy implements InstantiationStrategy {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    @Override
+    public BeanInstantiator getInstantiator(Constructor<?> constructor) throws Exception {
+        constructor.trySetAccessible();
+        // (Object[]) -> Object, the arguments are cast to the parameter types of the constructor
+        MethodHandle handle = LOOKUP.unreflectConstructor(constructor)
+                .asType(MethodType.methodType(Object.class, constructor.getParameterTypes()))
+                .asSpreader(Object[].class, constructor.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return args -> {
+            try {
+                return handle.invokeExact(args);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        };
+    }
+}
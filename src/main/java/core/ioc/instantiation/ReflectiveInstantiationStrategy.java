@@ -0,0 +1,31 @@
+package core.ioc.instantiation;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Instantiation strategy calling the constructor through reflection.
+ * Works for every constructor and is the fallback of the other strategies.
+ */
+public class ReflectiveInstantiationStrategy implements InstantiationStrategy {
+
+    @Override
+    public BeanInstantiator getInstantiator(Constructor<?> constructor) {
+        constructor.trySetAccessible();
+        return args -> {
+            try {
+                return constructor.newInstance(args);
+            } catch (InvocationTargetException e) {
+                // Throw the exception of the constructor itself
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        };
+    }
+}
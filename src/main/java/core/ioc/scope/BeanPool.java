@@ -0,0 +1,385 @@
+package core.ioc.scope;
+
+import core.ioc.BeanDefinition;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded pool of the instances of one pooled Bean.
+ * A released instance is kept in a slot of the releasing thread, so that a thread borrowing and releasing
+ * in a loop reuses the same instance without contention. A thread whose slot is taken pushes the instance
+ * on a lock-free stack shared by all threads. Every live instance also has a slot in a fixed array,
+ * which a borrower scans when the pool is full, to find instances idle in the slot of another thread.
+ * Each instance has a state, and borrowing is a compare-and-set from IDLE to IN_USE,
+ * so an instance reachable from several places is only lent once. Releasing is a compare-and-set
+ * from IN_USE to RELEASING, so that only one of concurrent releases of an instance resets it. Only borrowers of an exhausted pool take a lock.
+ */
+final class BeanPool {
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    private static final int REMOVED = 2;
+    private static final int RELEASING = 3;
+
+    private static final MethodType RESET_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodType VALIDATE_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+    private final String name;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final MethodHandle resetHandle; // (Object bean) -> void, or null
+    private final MethodHandle validateHandle; // (Object bean) -> boolean, or null
+    private final Consumer<Object> destroyer;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicReference<Node> top = new AtomicReference<>();
+    private final ThreadLocal<Entry> threadCache = new ThreadLocal<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitTimeNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+
+    /**
+     * An instance and its place in the pool.
+     */
+    static final class Entry {
+        final Object bean;
+        final int slot;
+        final AtomicInteger state = new AtomicInteger(IN_USE);
+
+        Entry(Object bean, int slot) {
+            this.bean = bean;
+            this.slot = slot;
+        }
+    }
+
+    private static final class Node {
+        final Entry entry;
+        Node next;
+
+        Node(Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * @param name           Bean name
+     * @param beanDefinition Bean definition, giving the pool size, the maximum wait and the callbacks
+     * @param destroyer      Destroys the instances removed from the pool
+     * @throws IllegalArgumentException If the pool size is lower than 1, or a callback method is missing or invalid
+     */
+    BeanPool(String name, BeanDefinition beanDefinition, Consumer<Object> destroyer) {
+        if (beanDefinition.getPoolSize() < 1) {
+            throw new IllegalArgumentException("Pool size of bean " + name + " must be at least 1, got " + beanDefinition.getPoolSize());
+        }
+        this.name = name;
+        this.maxSize = beanDefinition.getPoolSize();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, beanDefinition.getPoolMaxWaitMillis()));
+        this.resetHandle = callback(beanDefinition, beanDefinition.getResetMethodName(), RESET_TYPE);
+        this.validateHandle = callback(beanDefinition, beanDefinition.getValidateMethodName(), VALIDATE_TYPE);
+        this.destroyer = destroyer;
+        this.entries = new AtomicReferenceArray<>(maxSize);
+    }
+
+    private static MethodHandle callback(BeanDefinition beanDefinition, String methodName, MethodType type) {
+        if (methodName == null || methodName.isEmpty()) {
+            return null;
+        }
+        try {
+            Method method = beanDefinition.getBeanClass().getMethod(methodName);
+            if (method.getReturnType() != type.returnType()) {
+                throw new IllegalArgumentException("Pool callback " + method + " must return " + type.returnType());
+            }
+            return MethodHandles.publicLookup().unreflect(method).asType(type);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot use " + methodName + " of " + beanDefinition.getBeanClass().getName()
+                    + " as a pool callback", e);
+        }
+    }
+
+    /**
+     * Borrow an idle instance, create one if the pool is not full, or wait for a release
+     *
+     * @param creator Callback creating a new instance
+     * @return The borrowed entry
+     * @throws IllegalStateException If no instance was released before the maximum wait
+     */
+    Entry borrow(BeanScope.BeanCreator creator) {
+        long waitStart = 0;
+        try {
+            for (;;) {
+                Entry entry = takeIdle();
+                boolean reserved = false;
+                if (entry == null) {
+                    reserved = reserve();
+                    if (!reserved) {
+                        entry = steal();
+                    }
+                }
+                if (entry != null) {
+                    if (isValid(entry)) {
+                        hits.increment();
+                        return entry;
+                    }
+                    remove(entry);
+                    continue;
+                }
+                if (reserved) {
+                    misses.increment();
+                    return create(creator);
+                }
+                if (waitStart == 0) {
+                    waitStart = System.nanoTime();
+                    waits.increment();
+                }
+                if (!awaitRelease(waitStart + maxWaitNanos)) {
+                    timeouts.increment();
+                    throw new IllegalStateException("Pool of bean " + name + " exhausted: " + maxSize
+                            + " instances borrowed after waiting " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+                }
+            }
+        } finally {
+            if (waitStart != 0) {
+                waitTimeNanos.add(System.nanoTime() - waitStart);
+            }
+        }
+    }
+
+    /**
+     * Give back a borrowed entry, resetting its instance. An instance whose reset fails is destroyed.
+     *
+     * @param entry Borrowed entry
+     * @throws IllegalStateException If the entry is not borrowed, or is being released by another call
+     */
+    void release(Entry entry) {
+        if (!entry.state.compareAndSet(IN_USE, RELEASING)) {
+            throw new IllegalStateException("Instance of bean " + name + " released twice or not borrowed");
+        }
+        if (resetHandle != null) {
+            try {
+                resetHandle.invokeExact(entry.bean);
+            } catch (Throwable t) {
+                remove(entry);
+                signalWaiters();
+                return;
+            }
+        }
+        entry.state.set(IDLE);
+        if (threadCache.get() == null) {
+            threadCache.set(entry);
+        } else {
+            push(entry);
+        }
+        signalWaiters();
+    }
+
+    /**
+     * Give back a borrowed instance
+     *
+     * @param bean Instance obtained from this pool
+     * @throws IllegalArgumentException If the instance does not belong to this pool
+     */
+    void release(Object bean) {
+        for (int i = 0; i < maxSize; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.bean == bean) {
+                release(entry);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Instance of " + bean.getClass().getName() + " does not belong to the pool of bean " + name);
+    }
+
+    /**
+     * Destroy the idle instances. Borrowed instances stay in the pool.
+     */
+    void clear() {
+        for (int i = 0; i < maxSize; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.state.compareAndSet(IDLE, IN_USE)) {
+                remove(entry);
+            }
+        }
+        top.set(null);
+        signalWaiters();
+    }
+
+    PoolStats stats() {
+        return new PoolStats(hits.sum(), misses.sum(), waits.sum(), waitTimeNanos.sum(), timeouts.sum(), destroyed.sum(),
+                size.get(), maxSize);
+    }
+
+    private Entry takeIdle() {
+        Entry cached = threadCache.get();
+        if (cached != null) {
+            threadCache.remove();
+            if (cached.state.compareAndSet(IDLE, IN_USE)) {
+                return cached;
+            }
+        }
+        Node node;
+        while ((node = pop()) != null) {
+            // Skip the entries borrowed meanwhile from a thread slot
+            if (node.entry.state.compareAndSet(IDLE, IN_USE)) {
+                return node.entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take an instance idle in the slot of another thread
+     */
+    private Entry steal() {
+        for (int i = 0; i < maxSize; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.state.compareAndSet(IDLE, IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private boolean reserve() {
+        for (;;) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Entry create(BeanScope.BeanCreator creator) {
+        Object bean;
+        try {
+            bean = creator.create();
+        } catch (Exception e) {
+            size.decrementAndGet();
+            signalWaiters();
+            throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+        }
+        // A removed entry frees its slot before the size, so a reserved size always finds a free slot
+        for (;;) {
+            for (int i = 0; i < maxSize; i++) {
+                if (entries.get(i) == null) {
+                    Entry entry = new Entry(bean, i);
+                    if (entries.compareAndSet(i, null, entry)) {
+                        return entry;
+                    }
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean isValid(Entry entry) {
+        if (validateHandle == null) {
+            return true;
+        }
+        try {
+            return (boolean) validateHandle.invokeExact(entry.bean);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    private void remove(Entry entry) {
+        entry.state.set(REMOVED);
+        entries.compareAndSet(entry.slot, entry, null);
+        size.decrementAndGet();
+        destroyed.increment();
+        try {
+            destroyer.accept(entry.bean);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to destroy pooled bean " + name + ": " + e);
+        }
+    }
+
+    private void push(Entry entry) {
+        Node node = new Node(entry);
+        Node current;
+        do {
+            current = top.get();
+            node.next = current;
+        } while (!top.compareAndSet(current, node));
+    }
+
+    private Node pop() {
+        for (;;) {
+            Node current = top.get();
+            if (current == null) {
+                return null;
+            }
+            if (top.compareAndSet(current, current.next)) {
+                return current;
+            }
+        }
+    }
+
+    private boolean awaitRelease(long deadline) {
+        lock.lock();
+        try {
+            // Registered before the check so that a release seeing no waiter happened before it
+            waiting.incrementAndGet();
+            try {
+                if (hasIdleEntry() || size.get() < maxSize) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                released.awaitNanos(remaining);
+                return true;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the pool of bean " + name, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasIdleEntry() {
+        for (int i = 0; i < maxSize; i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.state.get() == IDLE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void signalWaiters() {
+        if (waiting.get() > 0) {
+            lock.lock();
+            try {
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
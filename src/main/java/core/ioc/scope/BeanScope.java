@@ -0,0 +1,53 @@
+package core.ioc.scope;
+
+/**
+ * Scope SPI: decides which instance of a Bean a getBean call returns, and when the instances are destroyed.
+ * Singleton and prototype are built into the Bean provider, other scopes are registered on the Bean factory
+ * under a name, which the bean definitions refer to through @Scope or the "scope" key of the JSON configuration.
+ */
+public interface BeanScope {
+
+    /**
+     * Callback used to create a Bean that is not in the scope yet.
+     */
+    @FunctionalInterface
+    interface BeanCreator {
+        Object create() throws Exception;
+    }
+
+    /**
+     * Get the instance of a Bean in the current scope, creating it if necessary
+     *
+     * @param name    Bean name
+     * @param creator Callback creating the Bean instance
+     * @return Bean instance
+     * @throws IllegalStateException If the scope is not active on the current thread
+     */
+    Object get(String name, BeanCreator creator);
+
+    /**
+     * Remove the instance of a Bean from the current scope, without destroying it
+     *
+     * @param name Bean name
+     * @return The removed instance, or null if there was none
+     */
+    Object remove(String name);
+
+    /**
+     * Register a callback destroying a Bean of the current scope when the scope ends
+     *
+     * @param name     Bean name
+     * @param callback Callback destroying the Bean
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+
+    /**
+     * Give back an instance obtained from getBean, for scopes lending their instances such as the pooled scope.
+     * Other scopes ignore it.
+     *
+     * @param name Bean name
+     * @param bean Bean instance
+     */
+    default void release(String name, Object bean) {
+    }
+}
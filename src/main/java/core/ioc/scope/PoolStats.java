@@ -0,0 +1,87 @@
+package core.ioc.scope;
+
+/**
+ * Statistics of the pool of a pooled Bean, counted since it was created.
+ */
+public class PoolStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long waitCount;
+    private final long waitTimeNanos;
+    private final long timeoutCount;
+    private final long destroyedCount;
+    private final int size;
+    private final int maxSize;
+
+    public PoolStats(long hitCount, long missCount, long waitCount, long waitTimeNanos, long timeoutCount, long destroyedCount,
+                     int size, int maxSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.waitCount = waitCount;
+        this.waitTimeNanos = waitTimeNanos;
+        this.timeoutCount = timeoutCount;
+        this.destroyedCount = destroyedCount;
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return Number of borrows served by an idle instance.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return Number of borrows that created a new instance.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return Number of borrows that found all the instances borrowed and waited for a release.
+     */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * @return Total time spent waiting for a release, in nanoseconds.
+     */
+    public long getWaitTimeNanos() {
+        return waitTimeNanos;
+    }
+
+    /**
+     * @return Number of borrows that failed after waiting the maximum time.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * @return Number of instances destroyed because they were invalid, failed to reset or were cleared.
+     */
+    public long getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    /**
+     * @return Number of live instances, idle or borrowed.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{hits=" + hitCount + ", misses=" + missCount + ", waits=" + waitCount
+                + ", waitTimeNanos=" + waitTimeNanos + ", timeouts=" + timeoutCount + ", destroyed=" + destroyedCount
+                + ", size=" + size + "/" + maxSize + "}";
+    }
+}
@@ -0,0 +1,47 @@
+package core.ioc.scope;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An instance borrowed from the pool of a pooled Bean, given back when the handle is closed.
+ * <pre>
+ * try (PooledBean&lt;Parser&gt; parser = pooledScope.borrow("parser", Parser.class)) {
+ *     parser.get().parse(input);
+ * }
+ * </pre>
+ *
+ * @param <T> Bean type
+ */
+public final class PooledBean<T> implements AutoCloseable {
+    private final BeanPool pool;
+    private final BeanPool.Entry entry;
+    private final T bean;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    PooledBean(BeanPool pool, BeanPool.Entry entry, T bean) {
+        this.pool = pool;
+        this.entry = entry;
+        this.bean = bean;
+    }
+
+    /**
+     * @return The borrowed instance
+     * @throws IllegalStateException If the handle is closed
+     */
+    public T get() {
+        if (closed.get()) {
+            throw new IllegalStateException("Pooled bean already released");
+        }
+        return bean;
+    }
+
+    /**
+     * Give the instance back to the pool. Closing the handle again, from any thread, does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            pool.release(entry);
+        }
+    }
+}
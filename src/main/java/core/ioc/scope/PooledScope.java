@@ -0,0 +1,108 @@
+package core.ioc.scope;
+
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pooled scope, registered as "pooled": getBean borrows an instance from a bounded pool of the Bean,
+ * and the caller gives it back with release, or borrows it through a PooledBean handle closed by try-with-resources.
+ * For Beans that are costly to create but can be reused, such as parsers and buffers.
+ * The pool size, the maximum wait when all the instances are borrowed, and the reset and validate methods
+ * are set on the Bean definition, through @Scope or the JSON configuration.
+ * Instances leave the pool, and their destroy method is called, when they fail validation or reset, or on clear.
+ */
+public class PooledScope implements BeanScope {
+    public static final String NAME = "pooled";
+
+    private final DefaultListableBeanFactory beanFactory;
+    private final Map<String, BeanPool> pools = new ConcurrentHashMap<>();
+
+    public PooledScope(DefaultListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object get(String name, BeanCreator creator) {
+        return pool(name).borrow(creator).bean;
+    }
+
+    /**
+     * Pooled instances are not bound to the caller, there is nothing to remove.
+     *
+     * @param name Bean name
+     * @return null
+     */
+    @Override
+    public Object remove(String name) {
+        return null;
+    }
+
+    /**
+     * Ignored: the pool calls the destroy method of the instances it removes itself.
+     */
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+    }
+
+    /**
+     * Give back an instance obtained from getBean
+     *
+     * @param name Bean name
+     * @param bean Bean instance
+     * @throws IllegalArgumentException If the instance does not belong to the pool of the Bean
+     * @throws IllegalStateException    If the instance is not borrowed
+     */
+    @Override
+    public void release(String name, Object bean) {
+        pool(name).release(bean);
+    }
+
+    /**
+     * Borrow an instance through a handle giving it back when closed
+     *
+     * @param name Bean name
+     * @param type Bean type
+     * @param <T>  Bean type
+     * @return Handle of the borrowed instance
+     * @throws IllegalStateException If no instance was released before the maximum wait
+     */
+    public <T> PooledBean<T> borrow(String name, Class<T> type) {
+        BeanPool pool = pool(name);
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition(name);
+        BeanPool.Entry entry = pool.borrow(() -> beanFactory.createBean(name, beanDefinition));
+        return new PooledBean<>(pool, entry, type.cast(entry.bean));
+    }
+
+    /**
+     * @param name Bean name
+     * @return Statistics of the pool of the Bean, or null if it was never borrowed
+     */
+    public PoolStats stats(String name) {
+        BeanPool pool = pools.get(name);
+        return pool == null ? null : pool.stats();
+    }
+
+    /**
+     * Destroy the idle instances of all pools. Borrowed instances are kept.
+     */
+    public void clear() {
+        pools.values().forEach(BeanPool::clear);
+    }
+
+    private BeanPool pool(String name) {
+        BeanPool pool = pools.get(name);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(name, key -> {
+                BeanDefinition beanDefinition = beanFactory.getBeanDefinition(key);
+                if (beanDefinition == null) {
+                    throw new IllegalArgumentException("No bean named " + key + " is registered");
+                }
+                return new BeanPool(key, beanDefinition, bean -> beanFactory.destroyBean(bean, beanDefinition));
+            });
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,128 @@
+package core.ioc.scope;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Request scope, registered as "request": each request gets its own instance of a Bean, created on first use.
+ * A request runs between begin() and end() on a thread, or through call(), which also restores the request
+ * the thread was in before, so that requests can nest. Tasks handed to other threads share the Beans
+ * of the request that created them when they are wrapped with wrap().
+ * <pre>
+ * requestScope.call(() -> handler.handle(request));
+ * </pre>
+ * The request is bound to the thread through a ThreadLocal, the same binding a ScopedValue gives on the JDKs
+ * where it is final: call() and wrap() never leave a request attached to a thread after they return.
+ */
+public class RequestScope implements BeanScope {
+    public static final String NAME = "request";
+
+    private final ThreadLocal<ScopeContext> current = new ThreadLocal<>();
+
+    @Override
+    public Object get(String name, BeanCreator creator) {
+        return currentContext(name).get(name, creator);
+    }
+
+    @Override
+    public Object remove(String name) {
+        ScopeContext context = current.get();
+        return context == null ? null : context.remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        currentContext(name).registerDestructionCallback(name, callback);
+    }
+
+    /**
+     * Start a request on the current thread
+     *
+     * @throws IllegalStateException If a request is already active on the current thread
+     */
+    public void begin() {
+        if (current.get() != null) {
+            throw new IllegalStateException("A request scope is already active on thread " + Thread.currentThread().getName());
+        }
+        current.set(new ScopeContext());
+    }
+
+    /**
+     * End the request of the current thread and destroy its Beans
+     *
+     * @throws IllegalStateException If no request is active on the current thread
+     * @throws RuntimeException      If a destruction callback fails
+     */
+    public void end() {
+        ScopeContext context = current.get();
+        if (context == null) {
+            throw new IllegalStateException("No request scope is active on thread " + Thread.currentThread().getName());
+        }
+        current.remove();
+        context.destroy();
+    }
+
+    /**
+     * @return Whether a request is active on the current thread
+     */
+    public boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Run a task in a new request, ending it when the task returns
+     *
+     * @param task Task
+     * @param <T>  Result type
+     * @return The result of the task
+     * @throws Exception The exception thrown by the task
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        ScopeContext context = new ScopeContext();
+        ScopeContext previous = current.get();
+        current.set(context);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+            context.destroy();
+        }
+    }
+
+    /**
+     * Bind a task to the request of the current thread, so that it sees the same Beans when it runs on another thread.
+     * The task does not end the request, the thread that began it does.
+     *
+     * @param task Task
+     * @return The wrapped task
+     * @throws IllegalStateException If no request is active on the current thread
+     */
+    public Runnable wrap(Runnable task) {
+        ScopeContext context = currentContext(null);
+        return () -> {
+            ScopeContext previous = current.get();
+            current.set(context);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private void restore(ScopeContext previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    private ScopeContext currentContext(String beanName) {
+        ScopeContext context = current.get();
+        if (context == null) {
+            throw new IllegalStateException("No request scope is active on thread " + Thread.currentThread().getName()
+                    + (beanName == null ? "" : ", cannot get bean " + beanName));
+        }
+        return context;
+    }
+}
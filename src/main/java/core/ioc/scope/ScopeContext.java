@@ -0,0 +1,91 @@
+package core.ioc.scope;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Bean instances of one scope occurrence, e.g. one thread or one request, with their destruction callbacks.
+ * A context may be shared by the threads of a task, so all methods are synchronized.
+ */
+public class ScopeContext {
+    private final Map<String, Object> beans = new LinkedHashMap<>();
+    private final Map<String, Runnable> destructionCallbacks = new LinkedHashMap<>();
+    private boolean destroyed;
+
+    /**
+     * Get the instance of a Bean, creating it if necessary.
+     * The context stays locked during the creation, so that each Bean is created once per context.
+     *
+     * @param name    Bean name
+     * @param creator Callback creating the Bean instance
+     * @return Bean instance
+     * @throws IllegalStateException If the context has been destroyed
+     */
+    public synchronized Object get(String name, BeanScope.BeanCreator creator) {
+        if (destroyed) {
+            throw new IllegalStateException("Scope already ended, cannot get bean " + name);
+        }
+        Object bean = beans.get(name);
+        if (bean == null) {
+            try {
+                bean = creator.create();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            beans.put(name, bean);
+        }
+        return bean;
+    }
+
+    public synchronized Object remove(String name) {
+        destructionCallbacks.remove(name);
+        return beans.remove(name);
+    }
+
+    public synchronized void registerDestructionCallback(String name, Runnable callback) {
+        destructionCallbacks.put(name, callback);
+    }
+
+    /**
+     * @return Names of the Beans created in this context, in creation order
+     */
+    public synchronized List<String> getBeanNames() {
+        return new ArrayList<>(beans.keySet());
+    }
+
+    /**
+     * Destroy the Beans of this context, in reverse creation order. Every callback is called
+     * even if one fails, and the first failure is rethrown afterwards.
+     *
+     * @throws RuntimeException If a destruction callback fails
+     */
+    public void destroy() {
+        List<Runnable> callbacks;
+        synchronized (this) {
+            if (destroyed) {
+                return;
+            }
+            destroyed = true;
+            callbacks = new ArrayList<>(destructionCallbacks.values());
+            beans.clear();
+            destructionCallbacks.clear();
+        }
+        RuntimeException failure = null;
+        for (int i = callbacks.size() - 1; i >= 0; i--) {
+            try {
+                callbacks.get(i).run();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package core.ioc.scope;
+
+/**
+ * Thread scope, registered as "thread": each thread gets its own instance of a Bean.
+ * The scope is always active. Its Beans live until end() is called on their thread,
+ * which pooled threads should do between two tasks.
+ */
+public class ThreadScope implements BeanScope {
+    public static final String NAME = "thread";
+
+    private final ThreadLocal<ScopeContext> contexts = ThreadLocal.withInitial(ScopeContext::new);
+
+    @Override
+    public Object get(String name, BeanCreator creator) {
+        return contexts.get().get(name, creator);
+    }
+
+    @Override
+    public Object remove(String name) {
+        return contexts.get().remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        contexts.get().registerDestructionCallback(name, callback);
+    }
+
+    /**
+     * End the scope on the current thread: destroy its Beans. The next getBean on this thread creates new ones.
+     *
+     * @throws RuntimeException If a destruction callback fails
+     */
+    public void end() {
+        ScopeContext context = contexts.get();
+        contexts.remove();
+        context.destroy();
+    }
+}
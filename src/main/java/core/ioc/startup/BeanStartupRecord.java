@@ -0,0 +1,90 @@
+package core.ioc.startup;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Startup timing of one Bean, summed over all its creations.
+ * The time of each phase is split into the time of the Bean itself and the time spent creating
+ * the dependencies it pulled in during that phase.
+ */
+public class BeanStartupRecord {
+
+    private final String beanName;
+    private final int creations;
+    private final long[] selfNanos;
+    private final long[] dependencyNanos;
+    private final List<String> dependencies;
+    private final boolean root;
+
+    BeanStartupRecord(String beanName, int creations, long[] selfNanos, long[] dependencyNanos,
+                      List<String> dependencies, boolean root) {
+        this.beanName = beanName;
+        this.creations = creations;
+        this.selfNanos = selfNanos;
+        this.dependencyNanos = dependencyNanos;
+        this.dependencies = Collections.unmodifiableList(dependencies);
+        this.root = root;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * @return Number of times the Bean was created, more than one for prototypes
+     */
+    public int getCreations() {
+        return creations;
+    }
+
+    /**
+     * @param phase Creation phase
+     * @return Time spent in the phase by the Bean itself, in nanoseconds
+     */
+    public long getSelfNanos(StartupPhase phase) {
+        return selfNanos[phase.ordinal()];
+    }
+
+    /**
+     * @param phase Creation phase
+     * @return Time spent in the phase creating dependencies, in nanoseconds
+     */
+    public long getDependencyNanos(StartupPhase phase) {
+        return dependencyNanos[phase.ordinal()];
+    }
+
+    public long getSelfNanos() {
+        return sum(selfNanos);
+    }
+
+    public long getDependencyNanos() {
+        return sum(dependencyNanos);
+    }
+
+    public long getTotalNanos() {
+        return getSelfNanos() + getDependencyNanos();
+    }
+
+    /**
+     * @return Names of the Beans created while this Bean was being created, in creation order
+     */
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * @return Whether the Bean was created directly, and not as the dependency of another Bean
+     */
+    public boolean isRoot() {
+        return root;
+    }
+
+    private static long sum(long[] nanos) {
+        long sum = 0;
+        for (long value : nanos) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,32 @@
+package core.ioc.startup;
+
+/**
+ * Timing of the creation of one Bean, driven by the factory.
+ */
+public interface BeanStartupStep {
+
+    /**
+     * Step that records nothing.
+     */
+    BeanStartupStep OFF = new BeanStartupStep() {
+        @Override
+        public void phase(StartupPhase phase) {
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    /**
+     * End the current phase, if any, and start the given one
+     *
+     * @param phase Phase starting now
+     */
+    void phase(StartupPhase phase);
+
+    /**
+     * End the current phase and the creation of the Bean
+     */
+    void end();
+}
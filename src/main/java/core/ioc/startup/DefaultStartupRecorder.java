@@ -0,0 +1,145 @@
+package core.ioc.startup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup recorder keeping the timing of every Bean in memory.
+ * Each thread keeps a stack of the Beans it is creating: when a Bean finishes, its total time is charged
+ * to the current phase of the Bean below it on the stack as dependency time.
+ */
+public class DefaultStartupRecorder implements StartupRecorder {
+
+    private static final int PHASES = StartupPhase.values().length;
+
+    private final ThreadLocal<Frame> currentFrame = new ThreadLocal<>();
+    private final Map<String, Accumulator> beans = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public BeanStartupStep beanCreationStarted(String beanName) {
+        Frame frame = new Frame(beanName, currentFrame.get());
+        currentFrame.set(frame);
+        return frame;
+    }
+
+    /**
+     * Get the timing recorded so far
+     *
+     * @return Startup report
+     */
+    public StartupReport getReport() {
+        // Take the order and the record of each Bean together, creations may still be running
+        Map<Long, BeanStartupRecord> records = new TreeMap<>();
+        for (Accumulator accumulator : beans.values()) {
+            synchronized (accumulator) {
+                records.put(accumulator.order, accumulator.toRecord());
+            }
+        }
+        return new StartupReport(new ArrayList<>(records.values()));
+    }
+
+    /**
+     * Forget the timing recorded so far
+     */
+    public void reset() {
+        beans.clear();
+    }
+
+    private void record(Frame frame) {
+        Accumulator accumulator = beans.computeIfAbsent(frame.beanName, Accumulator::new);
+        accumulator.add(frame);
+    }
+
+    /**
+     * Creation of a Bean on the stack of the current thread.
+     */
+    private class Frame implements BeanStartupStep {
+        final String beanName;
+        final Frame parent;
+        final long order = sequence.getAndIncrement();
+        final long start = System.nanoTime();
+        final long[] selfNanos = new long[PHASES];
+        final long[] dependencyNanos = new long[PHASES];
+        final List<String> dependencies = new ArrayList<>();
+        StartupPhase phase;
+        long phaseStart;
+        long nestedNanos; // Time spent in dependencies during the current phase
+
+        Frame(String beanName, Frame parent) {
+            this.beanName = beanName;
+            this.parent = parent;
+        }
+
+        @Override
+        public void phase(StartupPhase next) {
+            long now = System.nanoTime();
+            endPhase(now);
+            phase = next;
+            phaseStart = now;
+        }
+
+        @Override
+        public void end() {
+            long now = System.nanoTime();
+            endPhase(now);
+            if (parent == null) {
+                currentFrame.remove();
+            } else {
+                currentFrame.set(parent);
+                parent.nestedNanos += now - start;
+                parent.dependencies.add(beanName);
+            }
+            record(this);
+        }
+
+        private void endPhase(long now) {
+            if (phase != null) {
+                int index = phase.ordinal();
+                selfNanos[index] += now - phaseStart - nestedNanos;
+                dependencyNanos[index] += nestedNanos;
+                nestedNanos = 0;
+                phase = null;
+            }
+        }
+    }
+
+    /**
+     * Sum of the creations of a Bean, possibly from several threads.
+     */
+    private static class Accumulator {
+        final String beanName;
+        final long[] selfNanos = new long[PHASES];
+        final long[] dependencyNanos = new long[PHASES];
+        final Set<String> dependencies = new LinkedHashSet<>();
+        long order = Long.MAX_VALUE; // Order of the first creation start
+        int creations;
+        boolean root;
+
+        Accumulator(String beanName) {
+            this.beanName = beanName;
+        }
+
+        synchronized void add(Frame frame) {
+            for (int i = 0; i < PHASES; i++) {
+                selfNanos[i] += frame.selfNanos[i];
+                dependencyNanos[i] += frame.dependencyNanos[i];
+            }
+            dependencies.addAll(frame.dependencies);
+            creations++;
+            root |= frame.parent == null;
+            order = Math.min(order, frame.order);
+        }
+
+        synchronized BeanStartupRecord toRecord() {
+            return new BeanStartupRecord(beanName, creations, selfNanos.clone(), dependencyNanos.clone(),
+                    new ArrayList<>(dependencies), root);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package core.ioc.startup;
+
+/**
+ * Phases of the creation of a Bean, in the order the factory runs them.
+ */
+public enum StartupPhase {
+    /**
+     * Resolving the constructor arguments and calling the constructor
+     */
+    INSTANTIATION,
+    /**
+     * Injecting the setter dependencies
+     */
+    SETTER_INJECTION,
+    /**
+     * Injecting the @Autowired fields
+     */
+    AUTOWIRED_INJECTION,
+    /**
+     * Calling the initialization method
+     */
+    INIT_METHOD
+}
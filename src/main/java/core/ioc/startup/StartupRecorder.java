@@ -0,0 +1,20 @@
+package core.ioc.startup;
+
+/**
+ * Records the time spent creating Beans. The factory starts a step for every Bean it creates.
+ */
+public interface StartupRecorder {
+
+    /**
+     * Recorder used when startup recording is off. Its steps do nothing, so the factory only pays for an interface call.
+     */
+    StartupRecorder OFF = beanName -> BeanStartupStep.OFF;
+
+    /**
+     * Start recording the creation of a Bean, on the current thread
+     *
+     * @param beanName Bean name
+     * @return Step to report the phases of the creation to
+     */
+    BeanStartupStep beanCreationStarted(String beanName);
+}
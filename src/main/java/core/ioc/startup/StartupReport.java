@@ -0,0 +1,135 @@
+package core.ioc.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Startup timing of the Beans of a factory, as recorded by a DefaultStartupRecorder.
+ */
+public class StartupReport {
+
+    private final List<BeanStartupRecord> beans;
+    private final Map<String, BeanStartupRecord> beansByName = new LinkedHashMap<>();
+
+    StartupReport(List<BeanStartupRecord> beans) {
+        this.beans = Collections.unmodifiableList(beans);
+        for (BeanStartupRecord bean : beans) {
+            beansByName.put(bean.getBeanName(), bean);
+        }
+    }
+
+    /**
+     * @return The records of all created Beans, in order of their first creation
+     */
+    public List<BeanStartupRecord> getBeans() {
+        return beans;
+    }
+
+    /**
+     * @param beanName Bean name
+     * @return The record of the Bean, or null if it was not created
+     */
+    public BeanStartupRecord getBean(String beanName) {
+        return beansByName.get(beanName);
+    }
+
+    /**
+     * Get the Beans that took the most time by themselves, dependencies excluded
+     *
+     * @param limit Maximum number of Beans
+     * @return The records, slowest first
+     */
+    public List<BeanStartupRecord> getSlowestBeans(int limit) {
+        List<BeanStartupRecord> sorted = new ArrayList<>(beans);
+        sorted.sort(Comparator.comparingLong((BeanStartupRecord bean) -> bean.getSelfNanos()).reversed());
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * @return The time spent creating Beans, summed over the Beans created directly
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (BeanStartupRecord bean : beans) {
+            if (bean.isRoot()) {
+                total += bean.getTotalNanos();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Dump the Beans as a tree, each Bean under the Bean whose creation pulled it in
+     * <pre>
+     * service 12.40 ms (self 2.10 ms)
+     * +- dependency 10.30 ms (self 10.30 ms)
+     * </pre>
+     *
+     * @return The tree, one Bean per line
+     */
+    public String dumpTree() {
+        StringBuilder tree = new StringBuilder();
+        for (BeanStartupRecord bean : beans) {
+            if (bean.isRoot()) {
+                dump(bean, "", "", new HashSet<>(), tree);
+            }
+        }
+        return tree.toString();
+    }
+
+    private void dump(BeanStartupRecord bean, String prefix, String childPrefix, Set<String> path, StringBuilder tree) {
+        tree.append(prefix).append(bean.getBeanName()).append(' ').append(millis(bean.getTotalNanos()))
+                .append(" (self ").append(millis(bean.getSelfNanos())).append(')');
+        if (bean.getCreations() > 1) {
+            tree.append(" x").append(bean.getCreations());
+        }
+        tree.append('\n');
+        if (!path.add(bean.getBeanName())) {
+            return; // Already on the path, do not loop
+        }
+        List<String> dependencies = bean.getDependencies();
+        for (int i = 0; i < dependencies.size(); i++) {
+            BeanStartupRecord dependency = beansByName.get(dependencies.get(i));
+            if (dependency != null) {
+                boolean last = i == dependencies.size() - 1;
+                dump(dependency, childPrefix + "+- ", childPrefix + (last ? "   " : "|  "), path, tree);
+            }
+        }
+        path.remove(bean.getBeanName());
+    }
+
+    /**
+     * Format the report as a table, one Bean per line with the self and dependency time of each phase
+     *
+     * @return The table
+     */
+    @Override
+    public String toString() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-30s %8s %12s %12s", "Bean", "Created", "Total", "Self"));
+        for (StartupPhase phase : StartupPhase.values()) {
+            table.append(String.format(Locale.ROOT, " %24s", phase.name().toLowerCase(Locale.ROOT) + " self/deps"));
+        }
+        table.append('\n');
+        for (BeanStartupRecord bean : beans) {
+            table.append(String.format(Locale.ROOT, "%-30s %8d %12s %12s", bean.getBeanName(), bean.getCreations(),
+                    millis(bean.getTotalNanos()), millis(bean.getSelfNanos())));
+            for (StartupPhase phase : StartupPhase.values()) {
+                table.append(String.format(Locale.ROOT, " %24s",
+                        millis(bean.getSelfNanos(phase)) + "/" + millis(bean.getDependencyNanos(phase))));
+            }
+            table.append('\n');
+        }
+        return table.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000.0);
+    }
+}
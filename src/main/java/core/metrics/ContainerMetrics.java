@@ -0,0 +1,94 @@
+package core.metrics;
+
+import core.enums.ScopeType;
+
+import java.lang.reflect.Method;
+
+/**
+ * Metrics SPI of the container. The Bean factory and the AOP proxies report to it from their hot paths,
+ * so implementations must not block.
+ */
+public interface ContainerMetrics {
+
+    /**
+     * Metrics that record nothing, used when metrics are off.
+     */
+    ContainerMetrics NOOP = new ContainerMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void getBeanCalled(ScopeType scope) {
+        }
+
+        @Override
+        public void singletonCacheHit() {
+        }
+
+        @Override
+        public void singletonCacheMiss() {
+        }
+
+        @Override
+        public void beanCreated(ScopeType scope, long nanos) {
+        }
+
+        @Override
+        public void advisedMethodInvoked(Method method, long nanos, boolean failed) {
+        }
+
+        @Override
+        public void batchDispatched(Method method, int batchSize, long waitNanos) {
+        }
+    };
+
+    /**
+     * @return Whether the metrics record anything, callers skip reading the clock otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * A Bean was requested by name or type
+     *
+     * @param scope Scope of the Bean
+     */
+    void getBeanCalled(ScopeType scope);
+
+    /**
+     * A singleton was found in the singleton cache without locking
+     */
+    void singletonCacheHit();
+
+    /**
+     * A singleton was not in the singleton cache, it was created or waited for
+     */
+    void singletonCacheMiss();
+
+    /**
+     * A Bean instance was created, dependencies included
+     *
+     * @param scope Scope of the Bean
+     * @param nanos Creation time, in nanoseconds
+     */
+    void beanCreated(ScopeType scope, long nanos);
+
+    /**
+     * A method of an advised proxy returned or threw
+     *
+     * @param method Method called through the proxy
+     * @param nanos  Time spent in the advices and the target method, in nanoseconds
+     * @param failed Whether the method threw an exception
+     */
+    void advisedMethodInvoked(Method method, long nanos, boolean failed);
+
+    /**
+     * The calls buffered for a @Batched method were dispatched as one batch call
+     *
+     * @param method    Batched single-item method
+     * @param batchSize Number of calls in the batch
+     * @param waitNanos Time the oldest call of the batch waited before the dispatch, in nanoseconds
+     */
+    void batchDispatched(Method method, int batchSize, long waitNanos);
+}
@@ -0,0 +1,51 @@
+package core.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the container metrics. Latencies are in microseconds,
+ * advised methods are keyed by "Class#method(ParameterTypes)".
+ */
+public interface ContainerMetricsMXBean {
+
+    long getSingletonGetBeanCount();
+
+    long getPrototypeGetBeanCount();
+
+    long getSingletonCacheHits();
+
+    long getSingletonCacheMisses();
+
+    long getSingletonCreations();
+
+    long getPrototypeCreations();
+
+    double getBeanCreationMeanMicros();
+
+    long getBeanCreationP99Micros();
+
+    long getBeanCreationMaxMicros();
+
+    Map<String, Long> getAdvisedMethodCalls();
+
+    Map<String, Long> getAdvisedMethodFailures();
+
+    Map<String, Double> getAdvisedMethodMeanMicros();
+
+    Map<String, Long> getAdvisedMethodP99Micros();
+
+    /**
+     * @return Mean number of calls per batch, for each @Batched method
+     */
+    Map<String, Double> getBatchMeanSizes();
+
+    /**
+     * @return 99th percentile of the time calls wait for their batch, for each @Batched method
+     */
+    Map<String, Long> getBatchWaitP99Micros();
+
+    /**
+     * Forget everything recorded so far
+     */
+    void reset();
+}
@@ -0,0 +1,291 @@
+package core.metrics;
+
+import core.enums.ScopeType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Container metrics kept in memory with LongAdder counters and lock-free histograms.
+ * They can be read with snapshot(), or through JMX once registered with registerMBean().
+ */
+public class DefaultContainerMetrics implements ContainerMetrics, ContainerMetricsMXBean {
+
+    private static final int SCOPES = ScopeType.values().length;
+
+    private final LongAdder[] getBeanCalls = new LongAdder[SCOPES];
+    private final LongAdder singletonCacheHits = new LongAdder();
+    private final LongAdder singletonCacheMisses = new LongAdder();
+    private final LatencyHistogram[] creationLatencies = new LatencyHistogram[SCOPES];
+    private final Map<Method, MethodMetrics> advisedMethods = new ConcurrentHashMap<>();
+    private final Map<Method, BatchMetrics> batchedMethods = new ConcurrentHashMap<>();
+    private volatile ObjectName objectName;
+
+    public DefaultContainerMetrics() {
+        for (int i = 0; i < SCOPES; i++) {
+            getBeanCalls[i] = new LongAdder();
+            creationLatencies[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void getBeanCalled(ScopeType scope) {
+        getBeanCalls[scope.ordinal()].increment();
+    }
+
+    @Override
+    public void singletonCacheHit() {
+        singletonCacheHits.increment();
+    }
+
+    @Override
+    public void singletonCacheMiss() {
+        singletonCacheMisses.increment();
+    }
+
+    @Override
+    public void beanCreated(ScopeType scope, long nanos) {
+        creationLatencies[scope.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void advisedMethodInvoked(Method method, long nanos, boolean failed) {
+        MethodMetrics metrics = advisedMethods.get(method);
+        if (metrics == null) {
+            metrics = advisedMethods.computeIfAbsent(method, key -> new MethodMetrics());
+        }
+        metrics.latency.record(nanos);
+        if (failed) {
+            metrics.failures.increment();
+        }
+    }
+
+    @Override
+    public void batchDispatched(Method method, int batchSize, long waitNanos) {
+        BatchMetrics metrics = batchedMethods.get(method);
+        if (metrics == null) {
+            metrics = batchedMethods.computeIfAbsent(method, key -> new BatchMetrics());
+        }
+        metrics.sizes.record(batchSize);
+        metrics.waits.record(waitNanos);
+    }
+
+    /**
+     * Read all metrics
+     *
+     * @return Snapshot of the metrics
+     */
+    public MetricsSnapshot snapshot() {
+        long[] calls = new long[SCOPES];
+        HistogramSnapshot[] creations = new HistogramSnapshot[SCOPES];
+        for (int i = 0; i < SCOPES; i++) {
+            calls[i] = getBeanCalls[i].sum();
+            creations[i] = creationLatencies[i].snapshot();
+        }
+        Map<String, HistogramSnapshot> latencies = new TreeMap<>();
+        Map<String, Long> failures = new TreeMap<>();
+        advisedMethods.forEach((method, metrics) -> {
+            String key = methodKey(method);
+            latencies.put(key, metrics.latency.snapshot());
+            failures.put(key, metrics.failures.sum());
+        });
+        Map<String, HistogramSnapshot> batchSizes = new TreeMap<>();
+        Map<String, HistogramSnapshot> batchWaits = new TreeMap<>();
+        batchedMethods.forEach((method, metrics) -> {
+            String key = methodKey(method);
+            batchSizes.put(key, metrics.sizes.snapshot());
+            batchWaits.put(key, metrics.waits.snapshot());
+        });
+        return new MetricsSnapshot(calls, singletonCacheHits.sum(), singletonCacheMisses.sum(), creations, latencies, failures,
+                batchSizes, batchWaits);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < SCOPES; i++) {
+            getBeanCalls[i].reset();
+            creationLatencies[i].reset();
+        }
+        singletonCacheHits.reset();
+        singletonCacheMisses.reset();
+        advisedMethods.clear();
+        batchedMethods.clear();
+    }
+
+    /**
+     * Register the metrics with the platform MBean server, under core.metrics:type=ContainerMetrics,name=&lt;name&gt;
+     *
+     * @param name Name distinguishing the containers of the JVM
+     * @return Object name of the MBean
+     * @throws RuntimeException If the MBean cannot be registered, e.g. because the name is taken
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName registered = new ObjectName("core.metrics:type=ContainerMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+            objectName = registered;
+            return registered;
+        } catch (JMException e) {
+            throw new RuntimeException("Cannot register container metrics MBean " + name, e);
+        }
+    }
+
+    /**
+     * Unregister the MBean registered by registerMBean, if any
+     */
+    public void unregisterMBean() {
+        ObjectName registered = objectName;
+        if (registered == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(registered)) {
+                server.unregisterMBean(registered);
+            }
+            objectName = null;
+        } catch (JMException e) {
+            throw new RuntimeException("Cannot unregister container metrics MBean " + registered, e);
+        }
+    }
+
+    @Override
+    public long getSingletonGetBeanCount() {
+        return getBeanCalls[ScopeType.SINGLETON.ordinal()].sum();
+    }
+
+    @Override
+    public long getPrototypeGetBeanCount() {
+        return getBeanCalls[ScopeType.PROTOTYPE.ordinal()].sum();
+    }
+
+    @Override
+    public long getSingletonCacheHits() {
+        return singletonCacheHits.sum();
+    }
+
+    @Override
+    public long getSingletonCacheMisses() {
+        return singletonCacheMisses.sum();
+    }
+
+    @Override
+    public long getSingletonCreations() {
+        return creationLatencies[ScopeType.SINGLETON.ordinal()].snapshot().getCount();
+    }
+
+    @Override
+    public long getPrototypeCreations() {
+        return creationLatencies[ScopeType.PROTOTYPE.ordinal()].snapshot().getCount();
+    }
+
+    @Override
+    public double getBeanCreationMeanMicros() {
+        long count = 0;
+        long sum = 0;
+        for (LatencyHistogram histogram : creationLatencies) {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            count += snapshot.getCount();
+            sum += snapshot.getSum();
+        }
+        return count == 0 ? 0 : sum / 1000.0 / count;
+    }
+
+    @Override
+    public long getBeanCreationP99Micros() {
+        long p99 = 0;
+        for (LatencyHistogram histogram : creationLatencies) {
+            p99 = Math.max(p99, histogram.snapshot().getPercentile(99));
+        }
+        return TimeUnit.NANOSECONDS.toMicros(p99);
+    }
+
+    @Override
+    public long getBeanCreationMaxMicros() {
+        long max = 0;
+        for (LatencyHistogram histogram : creationLatencies) {
+            max = Math.max(max, histogram.snapshot().getMax());
+        }
+        return TimeUnit.NANOSECONDS.toMicros(max);
+    }
+
+    @Override
+    public Map<String, Long> getAdvisedMethodCalls() {
+        Map<String, Long> calls = new TreeMap<>();
+        snapshot().getAdvisedMethodLatencies().forEach((method, latency) -> calls.put(method, latency.getCount()));
+        return calls;
+    }
+
+    @Override
+    public Map<String, Long> getAdvisedMethodFailures() {
+        return new TreeMap<>(snapshot().getAdvisedMethodFailures());
+    }
+
+    @Override
+    public Map<String, Double> getAdvisedMethodMeanMicros() {
+        Map<String, Double> means = new TreeMap<>();
+        snapshot().getAdvisedMethodLatencies().forEach((method, latency) -> means.put(method, latency.getMean() / 1000.0));
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getAdvisedMethodP99Micros() {
+        Map<String, Long> percentiles = new TreeMap<>();
+        snapshot().getAdvisedMethodLatencies().forEach((method, latency) ->
+                percentiles.put(method, TimeUnit.NANOSECONDS.toMicros(latency.getPercentile(99))));
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Double> getBatchMeanSizes() {
+        Map<String, Double> means = new TreeMap<>();
+        snapshot().getBatchSizes().forEach((method, sizes) -> means.put(method, sizes.getMean()));
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getBatchWaitP99Micros() {
+        Map<String, Long> percentiles = new TreeMap<>();
+        snapshot().getBatchWaits().forEach((method, waits) ->
+                percentiles.put(method, TimeUnit.NANOSECONDS.toMicros(waits.getPercentile(99))));
+        return percentiles;
+    }
+
+    /**
+     * Key of an advised method, e.g. "beans.aop.MyService#doSomething(String)"
+     */
+    static String methodKey(Method method) {
+        StringBuilder key = new StringBuilder(method.getDeclaringClass().getName()).append('#').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterTypes[i].getSimpleName());
+        }
+        return key.append(')').toString();
+    }
+
+    private static class MethodMetrics {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder failures = new LongAdder();
+    }
+
+    private static class BatchMetrics {
+        final LatencyHistogram sizes = new LatencyHistogram();
+        final LatencyHistogram waits = new LatencyHistogram();
+    }
+}
@@ -0,0 +1,70 @@
+package core.metrics;
+
+/**
+ * Values of a LatencyHistogram at one point in time. Percentiles are upper bounds of the bucket they fall in,
+ * so they overestimate by less than a factor of two.
+ */
+public class HistogramSnapshot {
+
+    private final long[] buckets;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] buckets, long count, long sum, long max) {
+        this.buckets = buckets;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Sum of the recorded values, in nanoseconds
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return Largest recorded value, in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return Mean of the recorded values in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get a percentile of the recorded values
+     *
+     * @param percentile Percentile, between 0 and 100
+     * @return Upper bound of the percentile in nanoseconds, never above the maximum, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (long bucket : buckets) {
+            total += bucket;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank && buckets[i] > 0) {
+                return Math.min(LatencyHistogram.upperBound(i), max);
+            }
+        }
+        return max;
+    }
+}
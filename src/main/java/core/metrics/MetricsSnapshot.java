@@ -0,0 +1,127 @@
+package core.metrics;
+
+import core.enums.ScopeType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Values of the container metrics at one point in time, for scrapers and tests.
+ */
+public class MetricsSnapshot {
+
+    private final long[] getBeanCalls;
+    private final long singletonCacheHits;
+    private final long singletonCacheMisses;
+    private final HistogramSnapshot[] creationLatencies;
+    private final Map<String, HistogramSnapshot> advisedMethodLatencies;
+    private final Map<String, Long> advisedMethodFailures;
+    private final Map<String, HistogramSnapshot> batchSizes;
+    private final Map<String, HistogramSnapshot> batchWaits;
+
+    MetricsSnapshot(long[] getBeanCalls, long singletonCacheHits, long singletonCacheMisses,
+                    HistogramSnapshot[] creationLatencies, Map<String, HistogramSnapshot> advisedMethodLatencies,
+                    Map<String, Long> advisedMethodFailures, Map<String, HistogramSnapshot> batchSizes,
+                    Map<String, HistogramSnapshot> batchWaits) {
+        this.getBeanCalls = getBeanCalls;
+        this.singletonCacheHits = singletonCacheHits;
+        this.singletonCacheMisses = singletonCacheMisses;
+        this.creationLatencies = creationLatencies;
+        this.advisedMethodLatencies = Collections.unmodifiableMap(advisedMethodLatencies);
+        this.advisedMethodFailures = Collections.unmodifiableMap(advisedMethodFailures);
+        this.batchSizes = Collections.unmodifiableMap(batchSizes);
+        this.batchWaits = Collections.unmodifiableMap(batchWaits);
+    }
+
+    /**
+     * @param scope Bean scope
+     * @return Number of getBean calls for Beans of the scope
+     */
+    public long getGetBeanCalls(ScopeType scope) {
+        return getBeanCalls[scope.ordinal()];
+    }
+
+    public long getSingletonCacheHits() {
+        return singletonCacheHits;
+    }
+
+    public long getSingletonCacheMisses() {
+        return singletonCacheMisses;
+    }
+
+    /**
+     * @param scope Bean scope
+     * @return Creation latency of the Beans of the scope, in nanoseconds. Its count is the number of creations.
+     */
+    public HistogramSnapshot getCreationLatency(ScopeType scope) {
+        return creationLatencies[scope.ordinal()];
+    }
+
+    public long getPrototypeCreations() {
+        return getCreationLatency(ScopeType.PROTOTYPE).getCount();
+    }
+
+    /**
+     * @return Latency of each advised method, in nanoseconds, keyed by "Class#method(ParameterTypes)"
+     */
+    public Map<String, HistogramSnapshot> getAdvisedMethodLatencies() {
+        return advisedMethodLatencies;
+    }
+
+    /**
+     * @return Number of calls that threw, for each advised method
+     */
+    public Map<String, Long> getAdvisedMethodFailures() {
+        return advisedMethodFailures;
+    }
+
+    /**
+     * @return Number of calls per batch, for each @Batched method, keyed like the advised methods
+     */
+    public Map<String, HistogramSnapshot> getBatchSizes() {
+        return batchSizes;
+    }
+
+    /**
+     * @return Time the oldest call of each batch waited, in nanoseconds, for each @Batched method
+     */
+    public Map<String, HistogramSnapshot> getBatchWaits() {
+        return batchWaits;
+    }
+
+    /**
+     * Flatten the snapshot into named values, e.g. "getBean.singleton" or "advised.Service#hello().p99Nanos"
+     *
+     * @return Values by name, in a stable order
+     */
+    public Map<String, Number> toMap() {
+        Map<String, Number> values = new LinkedHashMap<>();
+        for (ScopeType scope : ScopeType.values()) {
+            values.put("getBean." + scope.name().toLowerCase(), getGetBeanCalls(scope));
+        }
+        values.put("singletonCache.hits", singletonCacheHits);
+        values.put("singletonCache.misses", singletonCacheMisses);
+        for (ScopeType scope : ScopeType.values()) {
+            putHistogram(values, "creation." + scope.name().toLowerCase(), getCreationLatency(scope));
+        }
+        advisedMethodLatencies.forEach((method, latency) -> {
+            putHistogram(values, "advised." + method, latency);
+            values.put("advised." + method + ".failures", advisedMethodFailures.getOrDefault(method, 0L));
+        });
+        batchSizes.forEach((method, sizes) -> {
+            values.put("batch." + method + ".count", sizes.getCount());
+            values.put("batch." + method + ".meanSize", sizes.getMean());
+            values.put("batch." + method + ".maxSize", sizes.getMax());
+            putHistogram(values, "batch." + method + ".wait", batchWaits.get(method));
+        });
+        return values;
+    }
+
+    private static void putHistogram(Map<String, Number> values, String prefix, HistogramSnapshot histogram) {
+        values.put(prefix + ".count", histogram.getCount());
+        values.put(prefix + ".meanNanos", histogram.getMean());
+        values.put(prefix + ".p99Nanos", histogram.getPercentile(99));
+        values.put(prefix + ".maxNanos", histogram.getMax());
+    }
+}
@@ -0,0 +1,188 @@
+package aop;
+
+import beans.aop.MyService;
+import beans.aop.MyServiceImpl;
+import core.aop.impl.AbstractHookAdvice;
+import core.aop.impl.CompiledAdviceChain;
+import core.aop.impl.FusedAdviceChain;
+import core.aop.impl.MethodHandleTargetInvoker;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdviceChainTest, a test class for the compiled advice chains.
+ */
+public class AdviceChainTest {
+
+    @Test
+    void testCompiledChainIsReusable() throws Throwable {
+        List<String> calls = new ArrayList<>();
+        List<Advice> advices = List.of(new NamedAdvice("outer", calls), new NamedAdvice("inner", calls));
+        Method method = String.class.getMethod("concat", String.class);
+        AdviceChain chain = CompiledAdviceChain.compile(advices, MethodHandleTargetInvoker.forMethod(method));
+
+        assertEquals("ab", chain.invokeNext("a", method, new Object[]{"b"}));
+        assertEquals("cd", chain.invokeNext("c", method, new Object[]{"d"}));
+        assertEquals(List.of("outer", "inner", "outer", "inner"), calls);
+        assertSame(MethodHandleTargetInvoker.forMethod(method), MethodHandleTargetInvoker.forMethod(method));
+    }
+
+    @Test
+    void testTargetExceptionReachesAdvicesUnwrapped() {
+        List<Throwable> thrown = new ArrayList<>();
+        Advice advice = new NamedAdvice("catching", new ArrayList<>()) {
+            @Override
+            public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+                try {
+                    return adviceChain.invokeNext(target, method, args);
+                } catch (Throwable t) {
+                    thrown.add(t);
+                    throw t;
+                }
+            }
+        };
+        MyService proxy = (MyService) ProxyFactory.getProxy(new MyServiceImpl(), List.of(advice));
+
+        assertEquals("Result", proxy.doSomethingWithResult());
+        RuntimeException e = assertThrows(RuntimeException.class, proxy::doSomethingWithException);
+        assertSame(e, thrown.get(0));
+    }
+
+    @Test
+    void testFusedChainInlinesHooks() throws Throwable {
+        List<String> calls = new ArrayList<>();
+        List<Advice> advices = List.of(new RecordingHookAdvice(calls), new NamedAdvice("around", calls));
+        Method concat = String.class.getMethod("concat", String.class);
+        Method charAt = String.class.getMethod("charAt", int.class);
+
+        AdviceChain chain = FusedAdviceChain.compile(advices, concat, MethodHandleTargetInvoker.forMethod(concat).getHandle());
+        assertEquals("ab", chain.invokeNext("a", concat, new Object[]{"b"}));
+        assertEquals(List.of("before concat", "around", "after concat=ab"), calls);
+
+        calls.clear();
+        AdviceChain failing = FusedAdviceChain.compile(advices, charAt, MethodHandleTargetInvoker.forMethod(charAt).getHandle());
+        assertThrows(StringIndexOutOfBoundsException.class, () -> failing.invokeNext("a", charAt, new Object[]{5}));
+        assertEquals(List.of("before charAt", "around", "afterThrowing charAt"), calls);
+    }
+
+    @Test
+    void testFusedProxiesBehaveLikeCompiledProxies() {
+        for (boolean fuse : new boolean[]{false, true}) {
+            for (ProxyEngine engine : ProxyEngine.values()) {
+                List<String> calls = new ArrayList<>();
+                MyService proxy = (MyService) ProxyFactory.getProxy(new MyServiceImpl(), List.of(new RecordingHookAdvice(calls)), engine, fuse);
+
+                assertEquals("Result", proxy.doSomethingWithResult());
+                assertThrows(RuntimeException.class, proxy::doSomethingWithException);
+                assertEquals(List.of("before doSomethingWithResult", "after doSomethingWithResult=Result",
+                        "before doSomethingWithException", "afterThrowing doSomethingWithException"), calls, engine + " fused=" + fuse);
+            }
+        }
+    }
+
+    @Test
+    void testAdvicesAndCallersSeeTheTargetException() {
+        for (boolean fuse : new boolean[]{false, true}) {
+            for (ProxyEngine engine : ProxyEngine.values()) {
+                List<Throwable> thrown = new ArrayList<>();
+                Advice hooks = new AbstractHookAdvice() {
+                    @Override
+                    public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+                        thrown.add(throwable);
+                    }
+                };
+                Advice catching = new NamedAdvice("catching", new ArrayList<>()) {
+                    @Override
+                    public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+                        try {
+                            return adviceChain.invokeNext(target, method, args);
+                        } catch (Throwable t) {
+                            thrown.add(t);
+                            throw t;
+                        }
+                    }
+                };
+                Parser proxy = (Parser) ProxyFactory.getProxy(new FailingParser(), List.of(catching, hooks), engine, fuse);
+
+                IOException checked = assertThrows(IOException.class, () -> proxy.parse("checked"));
+                IllegalStateException unchecked = assertThrows(IllegalStateException.class, () -> proxy.parse("unchecked"));
+                assertEquals(List.of(checked, checked, unchecked, unchecked), thrown, engine + " fused=" + fuse);
+            }
+        }
+    }
+
+    public interface Parser {
+        int parse(String text) throws IOException;
+    }
+
+    public static class FailingParser implements Parser {
+        @Override
+        public int parse(String text) throws IOException {
+            if ("checked".equals(text)) {
+                throw new IOException(text);
+            }
+            throw new IllegalStateException(text);
+        }
+    }
+
+    static class RecordingHookAdvice extends AbstractHookAdvice {
+        private final List<String> calls;
+
+        RecordingHookAdvice(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public void before(Object target, Method method, Object[] args) {
+            calls.add("before " + method.getName());
+        }
+
+        @Override
+        public void after(Object target, Method method, Object[] args, Object result) {
+            calls.add("after " + method.getName() + "=" + result);
+        }
+
+        @Override
+        public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+            calls.add("afterThrowing " + method.getName());
+        }
+    }
+
+    static class NamedAdvice implements Advice {
+        private final String name;
+        private final List<String> calls;
+
+        NamedAdvice(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public void before(Object target, Method method, Object[] args) {
+        }
+
+        @Override
+        public void after(Object target, Method method, Object[] args, Object result) {
+        }
+
+        @Override
+        public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+        }
+
+        @Override
+        public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+            calls.add(name);
+            return adviceChain.invokeNext(target, method, args);
+        }
+    }
+}
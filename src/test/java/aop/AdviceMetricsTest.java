@@ -0,0 +1,43 @@
+package aop;
+
+import beans.aop.MyService;
+import beans.aop.MyServiceImpl;
+import core.aop.interfaces.Advice;
+import core.aop.proxy.ProxyFactory;
+import core.metrics.DefaultContainerMetrics;
+import core.metrics.HistogramSnapshot;
+import core.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdviceMetricsTest, a test class for the latency metrics of advised methods.
+ */
+public class AdviceMetricsTest {
+
+    @Test
+    void testAdvisedMethodLatency() {
+        DefaultContainerMetrics metrics = new DefaultContainerMetrics();
+        ProxyFactory.setMetrics(metrics);
+        MyService proxy;
+        try {
+            proxy = (MyService) ProxyFactory.getProxy(new MyServiceImpl(), Collections.<Advice>singletonList(new MyService.LoggerAdvice()));
+        } finally {
+            ProxyFactory.setMetrics(null);
+        }
+
+        proxy.doSomethingWithResult();
+        proxy.doSomethingWithResult();
+        assertThrows(RuntimeException.class, proxy::doSomethingWithException);
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        HistogramSnapshot latency = snapshot.getAdvisedMethodLatencies().get("beans.aop.MyService#doSomethingWithResult()");
+        assertEquals(2, latency.getCount());
+        assertTrue(latency.getMax() > 0);
+        assertEquals(0L, snapshot.getAdvisedMethodFailures().get("beans.aop.MyService#doSomethingWithResult()"));
+        assertEquals(1L, snapshot.getAdvisedMethodFailures().get("beans.aop.MyService#doSomethingWithException()"));
+    }
+}
@@ -6,7 +6,7 @@ package aop;
     A[Client] --> B(ProxyFactory);
     B --> C{Proxy};
     C --> D[AdviceInvocationHandler];
-    D --> E[DefaultAdviceChain];
+    D --> E[CompiledAdviceChain];
     E --> F[Advice];
     E --> G[TargetObject];
     G --> E;
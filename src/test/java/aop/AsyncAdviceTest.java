@@ -0,0 +1,163 @@
+package aop;
+
+import core.aop.annotation.Async;
+import core.aop.impl.AsyncAdvice;
+import core.aop.interfaces.Advice;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import core.metrics.DefaultContainerMetrics;
+import core.metrics.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AsyncAdviceTest, a test class for advices on methods returning futures and for @Async methods.
+ */
+public class AsyncAdviceTest {
+
+    @Test
+    void testHooksAndMetricsRunWhenTheFutureCompletes() {
+        for (boolean fuse : new boolean[]{false, true}) {
+            List<String> calls = new ArrayList<>();
+            DefaultContainerMetrics metrics = new DefaultContainerMetrics();
+            ProxyFactory.setMetrics(metrics);
+            PendingJobs target = new PendingJobs();
+            Jobs proxy;
+            try {
+                proxy = (Jobs) ProxyFactory.getProxy(target, List.<Advice>of(new AdviceChainTest.RecordingHookAdvice(calls)),
+                        ProxyEngine.JDK, fuse);
+            } finally {
+                ProxyFactory.setMetrics(null);
+            }
+
+            CompletableFuture<String> first = proxy.submit("first");
+            CompletableFuture<String> second = proxy.submit("second");
+            assertEquals(List.of("before submit", "before submit"), calls);
+            assertNull(metrics.snapshot().getAdvisedMethodLatencies().get("aop.AsyncAdviceTest$Jobs#submit(String)"));
+
+            target.pending.get(0).complete("done");
+            target.pending.get(1).completeExceptionally(new IllegalStateException("failed"));
+            assertEquals("done", first.join());
+            assertTrue(second.isCompletedExceptionally());
+            assertEquals(List.of("before submit", "before submit", "after submit=done", "afterThrowing submit"), calls);
+            HistogramSnapshot latency = metrics.snapshot().getAdvisedMethodLatencies().get("aop.AsyncAdviceTest$Jobs#submit(String)");
+            assertEquals(2, latency.getCount());
+            assertEquals(1L, metrics.snapshot().getAdvisedMethodFailures().get("aop.AsyncAdviceTest$Jobs#submit(String)"));
+        }
+    }
+
+    @Test
+    void testAsyncMethodsRunOnTheExecutor() throws Exception {
+        for (ProxyEngine engine : ProxyEngine.values()) {
+            AsyncJobs target = new AsyncJobs();
+            Jobs proxy = (Jobs) ProxyFactory.getProxy(target, List.of(AsyncAdvice.forAnnotatedMethods()), engine);
+
+            Thread caller = Thread.currentThread();
+            assertEquals("job on another thread", proxy.submit("job").get(5, TimeUnit.SECONDS));
+            assertNotSame(caller, target.lastThread);
+
+            proxy.fire();
+            assertTrue(target.fired.await(5, TimeUnit.SECONDS));
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> proxy.submit(null).get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof NullPointerException);
+            // Not annotated: runs on the calling thread
+            assertEquals("job on the caller", proxy.submitOnCaller("job").join());
+        }
+    }
+
+    @Test
+    void testAsyncClassLeavesObjectMethodsOnTheCaller() throws Exception {
+        for (ProxyEngine engine : ProxyEngine.values()) {
+            AsyncClassJobs target = new AsyncClassJobs();
+            Jobs proxy = (Jobs) ProxyFactory.getProxy(target, List.of(AsyncAdvice.forAnnotatedMethods()), engine);
+
+            assertEquals("job on another thread", proxy.submit("job").get(5, TimeUnit.SECONDS));
+            assertEquals("AsyncClassJobs", proxy.toString(), engine.toString());
+            assertEquals(42, proxy.hashCode(), engine.toString());
+            assertFalse(proxy.equals(null), engine.toString());
+        }
+    }
+
+    public interface Jobs {
+        CompletableFuture<String> submit(String name);
+
+        CompletableFuture<String> submitOnCaller(String name);
+
+        void fire();
+    }
+
+    public static class PendingJobs implements Jobs {
+        final List<CompletableFuture<String>> pending = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<String> submit(String name) {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<String> submitOnCaller(String name) {
+            return submit(name);
+        }
+
+        @Override
+        public void fire() {
+        }
+    }
+
+    @Async
+    public static class AsyncClassJobs extends PendingJobs implements Jobs {
+        final Thread caller = Thread.currentThread();
+
+        @Override
+        public CompletableFuture<String> submit(String name) {
+            return CompletableFuture.completedFuture(name + (Thread.currentThread() == caller ? " on the caller" : " on another thread"));
+        }
+
+        @Override
+        public String toString() {
+            return "AsyncClassJobs";
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+
+    public static class AsyncJobs implements Jobs {
+        final CountDownLatch fired = new CountDownLatch(1);
+        final Thread caller = Thread.currentThread();
+        volatile Thread lastThread;
+
+        @Async
+        @Override
+        public CompletableFuture<String> submit(String name) {
+            lastThread = Thread.currentThread();
+            return CompletableFuture.completedFuture(name.concat(" on another thread"));
+        }
+
+        @Override
+        public CompletableFuture<String> submitOnCaller(String name) {
+            return CompletableFuture.completedFuture(name + (Thread.currentThread() == caller ? " on the caller" : " elsewhere"));
+        }
+
+        @Async
+        @Override
+        public void fire() {
+            if (Thread.currentThread() != caller) {
+                fired.countDown();
+            }
+        }
+    }
+}
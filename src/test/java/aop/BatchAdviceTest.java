@@ -0,0 +1,120 @@
+package aop;
+
+import core.aop.annotation.Batched;
+import core.aop.impl.BatchAdvice;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import core.metrics.DefaultContainerMetrics;
+import core.metrics.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BatchAdviceTest, a test class for the request-collapsing @Batched advice.
+ */
+public class BatchAdviceTest {
+
+    @Test
+    void testConcurrentCallsAreCollapsed() throws Exception {
+        for (ProxyEngine engine : ProxyEngine.values()) {
+            DefaultContainerMetrics metrics = new DefaultContainerMetrics();
+            ExecutorService executor = Executors.newCachedThreadPool();
+            try {
+                SimpleLookup target = new SimpleLookup();
+                Lookup proxy = (Lookup) ProxyFactory.getProxy(target, List.of(new BatchAdvice(executor, metrics)), engine);
+
+                List<Future<String>> names = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    int id = i % 2;
+                    names.add(executor.submit(() -> proxy.findName(id)));
+                }
+                for (int i = 0; i < 4; i++) {
+                    assertEquals("user-" + i % 2, names.get(i).get(5, TimeUnit.SECONDS), engine.toString());
+                }
+                assertEquals(1, target.batches.size(), engine.toString());
+                assertEquals(2, target.batches.get(0).size(), engine.toString());
+
+                HistogramSnapshot sizes = metrics.snapshot().getBatchSizes().values().iterator().next();
+                assertEquals(1, sizes.getCount());
+                assertEquals(4, sizes.getMax());
+                assertEquals(1, metrics.snapshot().getBatchWaits().values().iterator().next().getCount());
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testFullBatchesAndFailuresReachEveryCaller() throws Exception {
+        DefaultContainerMetrics metrics = new DefaultContainerMetrics();
+        SimpleLookup target = new SimpleLookup();
+        Lookup proxy = (Lookup) ProxyFactory.getProxy(target, List.of(new BatchAdvice(Runnable::run, metrics)));
+
+        // A full batch is dispatched without waiting for the timeout
+        CompletableFuture<Integer> first = proxy.findAge(1);
+        CompletableFuture<Integer> second = proxy.findAge(2);
+        CompletableFuture<Integer> third = proxy.findAge(3);
+        assertEquals(20, second.get(1, TimeUnit.SECONDS));
+        assertEquals(10, first.get(1, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), target.batches.get(0));
+        // A batch failing fails all of its calls
+        ExecutionException e = assertThrows(ExecutionException.class, () -> third.get(5, TimeUnit.SECONDS));
+        assertEquals("odd batch", e.getCause().getMessage());
+        assertEquals(List.of(3), target.batches.get(1));
+        assertEquals(2, metrics.snapshot().getBatchSizes().values().iterator().next().getCount());
+        assertTrue(metrics.snapshot().toMap().containsKey("batch.aop.BatchAdviceTest$Lookup#findAge(int).wait.p99Nanos"));
+    }
+
+    public interface Lookup {
+        String findName(int id);
+
+        CompletableFuture<Integer> findAge(int id);
+    }
+
+    public static class SimpleLookup implements Lookup {
+        final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+        @Batched(value = "findNames", maxWaitMillis = 200)
+        @Override
+        public String findName(int id) {
+            throw new UnsupportedOperationException("Called through findNames");
+        }
+
+        public Map<Integer, String> findNames(List<Integer> ids) {
+            batches.add(ids);
+            Map<Integer, String> names = new HashMap<>();
+            for (Integer id : ids) {
+                names.put(id, "user-" + id);
+            }
+            return names;
+        }
+
+        @Batched(value = "findAges", maxSize = 2, maxWaitMillis = 20)
+        @Override
+        public CompletableFuture<Integer> findAge(int id) {
+            throw new UnsupportedOperationException("Called through findAges");
+        }
+
+        public List<Integer> findAges(List<Integer> ids) {
+            batches.add(ids);
+            if (ids.size() % 2 == 1) {
+                throw new IllegalArgumentException("odd batch");
+            }
+            // Results in the order of the items
+            return List.of(ids.get(0) * 10, ids.get(1) * 10);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package aop;
+
+import core.aop.impl.BulkheadAdvice;
+import core.aop.limit.AimdLimit;
+import core.aop.limit.ConcurrencyLimiter;
+import core.aop.limit.LimiterStats;
+import core.aop.proxy.ProxyFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BulkheadAdviceTest, a test class for the concurrency-limiting advice and its limits.
+ */
+public class BulkheadAdviceTest {
+
+    @Test
+    void testCallsOverTheLimitAreRejectedOrQueued() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            for (long queueTimeout : new long[]{0, 5_000}) {
+                BulkheadAdvice bulkhead = new BulkheadAdvice(BulkheadAdvice.Scope.BEAN, queueTimeout, TimeUnit.MILLISECONDS,
+                        () -> new AimdLimit(1, 1, 1, 1, TimeUnit.HOURS, 0.5));
+                BlockingWorker target = new BlockingWorker();
+                Worker proxy = (Worker) ProxyFactory.getProxy(target, List.of(bulkhead));
+
+                Future<String> running = executor.submit(() -> proxy.work("first"));
+                assertTrue(target.started.await(5, TimeUnit.SECONDS));
+                if (queueTimeout == 0) {
+                    assertThrows(RejectedExecutionException.class, () -> proxy.other("second"));
+                    target.release.countDown();
+                } else {
+                    Future<String> queued = executor.submit(() -> proxy.other("second"));
+                    ConcurrencyLimiter limiter = bulkhead.getLimiter(target, null);
+                    while (limiter.stats().getQueuedCount() == 0) {
+                        Thread.sleep(1);
+                    }
+                    target.release.countDown();
+                    assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+                }
+                assertEquals("first", running.get(5, TimeUnit.SECONDS));
+
+                LimiterStats stats = bulkhead.getLimiter(target, null).stats();
+                assertEquals(queueTimeout == 0 ? 1 : 0, stats.getRejectedCount(), stats.toString());
+                assertEquals(queueTimeout == 0 ? 0 : 1, stats.getQueuedCount(), stats.toString());
+                assertEquals(0, stats.getInFlight());
+                assertEquals(queueTimeout == 0, stats.getQueueTimeNanos() == 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testAimdLimitAdaptsToLatency() throws InterruptedException {
+        AimdLimit limit = new AimdLimit(4, 2, 5, 10, TimeUnit.MILLISECONDS, 0.5);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(limit);
+        // A fast call using little of the limit does not raise it
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 1);
+        assertEquals(4, limiter.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 3);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(1), 3);
+        assertEquals(5, limiter.getLimit());
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(50), 3);
+        assertEquals(2, limiter.getLimit());
+
+        assertTrue(limiter.acquire(0));
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(1)));
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(50));
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(2, limiter.getLimit());
+        assertEquals(1, limiter.stats().getRejectedCount());
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimit(1, 2, 3, 1, TimeUnit.SECONDS, 0.5));
+    }
+
+    public interface Worker {
+        String work(String value);
+
+        String other(String value);
+    }
+
+    public static class BlockingWorker implements Worker {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String work(String value) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        }
+
+        @Override
+        public String other(String value) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package aop;
+
+import beans.aop.MyService;
+import beans.aop.MyServiceImpl;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.AdviceChain;
+import core.aop.proxy.GeneratedProxy;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BytecodeProxyTest, a test class for the proxies generated by the BYTECODE engine.
+ */
+public class BytecodeProxyTest {
+
+    @Test
+    void testInterfaceProxyRunsAdvices() {
+        List<String> calls = new ArrayList<>();
+        Advice recording = new AroundAdvice() {
+            @Override
+            public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+                calls.add(method.getName());
+                return adviceChain.invokeNext(target, method, args);
+            }
+        };
+        MyService proxy = (MyService) ProxyFactory.getProxy(new MyServiceImpl(), Collections.singletonList(recording), ProxyEngine.BYTECODE);
+
+        assertTrue(proxy instanceof GeneratedProxy);
+        assertFalse(Proxy.isProxyClass(proxy.getClass()));
+        assertEquals("Result", proxy.doSomethingWithResult());
+        assertThrows(RuntimeException.class, proxy::doSomethingWithException);
+        assertEquals(List.of("doSomethingWithResult", "doSomethingWithException"), calls);
+    }
+
+    @Test
+    void testPrimitivesAndCheckedExceptions() {
+        Advice doubling = new AroundAdvice() {
+            @Override
+            public Object around(Object target, Method method, Object[] args, AdviceChain adviceChain) throws Throwable {
+                Object result = adviceChain.invokeNext(target, method, args);
+                return result instanceof Long ? (Long) result * 2 : result;
+            }
+        };
+        Calculator proxy = (Calculator) ProxyFactory.getProxy(new SimpleCalculator(), Collections.singletonList(doubling), ProxyEngine.BYTECODE);
+
+        assertEquals(10L, proxy.add(2, 3L));
+        assertEquals(1.5, proxy.half(3), 0.0);
+        // Checked exceptions are not wrapped in UndeclaredThrowableException or InvocationTargetException
+        assertThrows(IOException.class, proxy::fail);
+    }
+
+    @Test
+    void testSubclassProxyWithoutAdvicesCallsTargetDirectly() {
+        Counter target = new Counter();
+        Counter proxy = (Counter) ProxyFactory.getProxy(target, Collections.emptyList(), ProxyEngine.BYTECODE);
+
+        assertNotSame(target, proxy);
+        assertEquals(1, proxy.increment());
+        assertEquals(2, proxy.increment());
+        assertEquals(2, target.value);
+    }
+
+    @Test
+    void testFallsBackToJdkProxy() {
+        List<String> list = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        List<String> proxy = (List<String>) ProxyFactory.getProxy(list, Collections.emptyList(), ProxyEngine.BYTECODE);
+
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        proxy.add("a");
+        assertEquals(List.of("a"), list);
+    }
+
+    abstract static class AroundAdvice implements Advice {
+        @Override
+        public void before(Object target, Method method, Object[] args) {
+        }
+
+        @Override
+        public void after(Object target, Method method, Object[] args, Object result) {
+        }
+
+        @Override
+        public void afterThrowing(Object target, Method method, Object[] args, Throwable throwable) {
+        }
+    }
+
+    public interface Calculator {
+        long add(int a, long b);
+
+        double half(int value);
+
+        void fail() throws IOException;
+    }
+
+    public static class SimpleCalculator implements Calculator {
+        @Override
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        @Override
+        public double half(int value) {
+            return value / 2.0;
+        }
+
+        @Override
+        public void fail() throws IOException {
+            throw new IOException("failed");
+        }
+    }
+
+    public static class Counter {
+        int value;
+
+        public int increment() {
+            return ++value;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package aop;
+
+import core.aop.annotation.Cacheable;
+import core.aop.cache.CacheStats;
+import core.aop.cache.SegmentedLruCache;
+import core.aop.impl.CacheAdvice;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CacheAdviceTest, a test class for the segmented LRU cache and the @Cacheable advice.
+ */
+public class CacheAdviceTest {
+
+    @Test
+    void testSegmentedLruEvictionAndExpiry() {
+        AtomicLong now = new AtomicLong();
+        SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(5, (key, value) -> value.length(), 10, TimeUnit.NANOSECONDS, now::get);
+        cache.put("hot", "a");
+        cache.put("warm", "b");
+        assertEquals("a", cache.getIfPresent("hot"));
+        assertEquals("b", cache.getIfPresent("warm"));
+        // A scan of entries read once evicts the other entries read once, not the protected ones
+        for (int i = 0; i < 10; i++) {
+            cache.put("scan" + i, "c");
+        }
+        assertEquals("a", cache.getIfPresent("hot"));
+        assertEquals("b", cache.getIfPresent("warm"));
+        assertNull(cache.getIfPresent("scan0"));
+        assertEquals(5, cache.weightedSize());
+
+        // Evicts the other probation entries, then the least recently used protected entry
+        cache.put("heavy", "dddd");
+        assertEquals(5, cache.weightedSize());
+        assertNull(cache.getIfPresent("scan9"));
+        assertEquals("dddd", cache.getIfPresent("heavy"));
+        cache.put("too heavy", "eeeeee");
+        assertNull(cache.getIfPresent("too heavy"));
+
+        now.addAndGet(10);
+        assertNull(cache.getIfPresent("warm"));
+        CacheStats stats = cache.stats();
+        assertEquals(5, stats.getHitCount());
+        assertEquals(4, stats.getMissCount());
+        assertEquals(1, stats.getExpirationCount());
+        assertEquals(11, stats.getEvictionCount());
+    }
+
+    @Test
+    void testCacheableMethodsAreMemoized() {
+        for (ProxyEngine engine : ProxyEngine.values()) {
+            CacheAdvice cacheAdvice = new CacheAdvice();
+            SimpleRepository target = new SimpleRepository();
+            Repository proxy = (Repository) ProxyFactory.getProxy(target, List.of(cacheAdvice.forAnnotatedMethods()), engine);
+
+            assertEquals("user-1", proxy.findName(1));
+            assertEquals("user-1", proxy.findName(1));
+            assertEquals("user-2", proxy.findName(2));
+            assertNull(proxy.findMissing(1));
+            assertNull(proxy.findMissing(1));
+            assertEquals(3, proxy.count());
+            assertEquals(4, proxy.count());
+
+            assertEquals(3, target.calls.get());
+            CacheStats stats = cacheAdvice.getCache("names").stats();
+            assertEquals(1, stats.getHitCount());
+            assertEquals(2, stats.getLoadCount());
+            assertEquals(1, cacheAdvice.getCache(SimpleRepository.class.getName() + "#findMissing").stats().getHitCount());
+        }
+    }
+
+    @Test
+    void testConcurrentMissesAreCoalesced() throws Exception {
+        CacheAdvice cacheAdvice = new CacheAdvice();
+        SimpleRepository target = new SimpleRepository();
+        target.release = new CountDownLatch(1);
+        Repository proxy = (Repository) ProxyFactory.getProxy(target, List.of(cacheAdvice.forAnnotatedMethods()));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> proxy.findName(7)));
+            }
+            // Let every caller reach the cache before the single load completes
+            while (cacheAdvice.getCache("names") == null || cacheAdvice.getCache("names").stats().getMissCount() < 8) {
+                Thread.sleep(1);
+            }
+            target.release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("user-7", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, target.calls.get());
+        assertEquals(1, cacheAdvice.getCache("names").stats().getLoadCount());
+    }
+
+    @Test
+    void testFailedStagesAreNotCached() throws Exception {
+        CacheAdvice cacheAdvice = new CacheAdvice();
+        SimpleRepository target = new SimpleRepository();
+        Repository proxy = (Repository) ProxyFactory.getProxy(target, List.of(cacheAdvice.forAnnotatedMethods()));
+
+        // A stage failed before it is stored
+        target.nextLoad = CompletableFuture.failedFuture(new IllegalStateException("down"));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(proxy.load(1).isCompletedExceptionally());
+        }
+        assertEquals(3, target.calls.get());
+
+        // A stage failing once it is stored
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        target.nextLoad = pending;
+        assertSame(pending, proxy.load(2));
+        assertSame(pending, proxy.load(2));
+        assertEquals(4, target.calls.get());
+        pending.completeExceptionally(new IllegalStateException("down"));
+        target.nextLoad = CompletableFuture.completedFuture("user-2");
+        assertEquals("user-2", proxy.load(2).get(1, TimeUnit.SECONDS));
+        assertEquals("user-2", proxy.load(2).get(1, TimeUnit.SECONDS));
+        assertEquals(5, target.calls.get());
+    }
+
+    public interface Repository {
+        String findName(int id);
+
+        CompletableFuture<String> load(int id);
+
+        String findMissing(int id);
+
+        int count();
+    }
+
+    public static class SimpleRepository implements Repository {
+        final AtomicInteger calls = new AtomicInteger();
+        volatile CountDownLatch release;
+
+        @Cacheable(value = "names", maximumSize = 100)
+        @Override
+        public String findName(int id) {
+            calls.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "user-" + id;
+        }
+
+        volatile CompletableFuture<String> nextLoad;
+
+        @Cacheable("loads")
+        @Override
+        public CompletableFuture<String> load(int id) {
+            calls.incrementAndGet();
+            return nextLoad;
+        }
+
+        @Cacheable
+        @Override
+        public String findMissing(int id) {
+            calls.incrementAndGet();
+            return null;
+        }
+
+        private int count = 2;
+
+        @Override
+        public int count() {
+            return ++count;
+        }
+    }
+}
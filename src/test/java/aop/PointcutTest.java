@@ -0,0 +1,88 @@
+package aop;
+
+import beans.aop.MyService;
+import beans.aop.MyServiceImpl;
+import core.aop.impl.PointcutAdvice;
+import core.aop.impl.Pointcuts;
+import core.aop.interfaces.Advice;
+import core.aop.interfaces.Pointcut;
+import core.aop.proxy.ProxyEngine;
+import core.aop.proxy.ProxyFactory;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PointcutTest, a test class for pointcut matching and advice selection.
+ */
+public class PointcutTest {
+
+    @Test
+    void testPointcuts() throws Exception {
+        Method result = MyService.class.getMethod("doSomethingWithResult");
+        Method toString = Object.class.getMethod("toString");
+        Method greet = Greeter.class.getMethod("greet", String.class);
+
+        assertTrue(Pointcuts.methodName("doSomething*").matches(result, MyServiceImpl.class));
+        assertTrue(Pointcuts.methodName("*With*").matches(result, MyServiceImpl.class));
+        assertFalse(Pointcuts.methodName("doSomething").matches(result, MyServiceImpl.class));
+        assertTrue(Pointcuts.declaredBy(MyService.class).matches(result, MyServiceImpl.class));
+        assertFalse(Pointcuts.declaredBy(MyService.class).matches(toString, MyServiceImpl.class));
+        // The annotation is on the implementation, the proxied method is the interface method
+        assertTrue(Pointcuts.annotatedWith(Traced.class).matches(greet, SimpleGreeter.class));
+        assertFalse(Pointcuts.annotatedWith(Traced.class).matches(toString, SimpleGreeter.class));
+        Pointcut pointcut = Pointcuts.declaredBy(MyService.class).and(Pointcuts.methodName("*Exception").negate());
+        assertTrue(pointcut.matches(result, MyServiceImpl.class));
+        assertFalse(pointcut.matches(MyService.class.getMethod("doSomethingWithException"), MyServiceImpl.class));
+    }
+
+    @Test
+    void testOnlyMatchingAdvicesAreChained() {
+        for (ProxyEngine engine : ProxyEngine.values()) {
+            List<String> calls = new ArrayList<>();
+            List<Advice> advices = List.of(
+                    new PointcutAdvice(Pointcuts.declaredBy(Greeter.class), new AdviceChainTest.NamedAdvice("all", calls)),
+                    new PointcutAdvice(Pointcuts.annotatedWith(Traced.class), new AdviceChainTest.NamedAdvice("traced", calls)));
+            Greeter proxy = (Greeter) ProxyFactory.getProxy(new SimpleGreeter(), advices, engine);
+
+            assertEquals("Hello, Ann", proxy.greet("Ann"));
+            assertEquals("Bye, Ann", proxy.leave("Ann"));
+            assertEquals("SimpleGreeter", proxy.toString());
+            assertEquals(List.of("all", "traced", "all"), calls, engine.name());
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Traced {
+    }
+
+    public interface Greeter {
+        String greet(String name);
+
+        String leave(String name);
+    }
+
+    public static class SimpleGreeter implements Greeter {
+        @Traced
+        @Override
+        public String greet(String name) {
+            return "Hello, " + name;
+        }
+
+        @Override
+        public String leave(String name) {
+            return "Bye, " + name;
+        }
+
+        @Override
+        public String toString() {
+            return "SimpleGreeter";
+        }
+    }
+}
@@ -8,6 +8,8 @@ import core.ioc.DefaultListableBeanFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+
 public class AnnotationBeanFactoryTest {
 
     @Test
@@ -29,4 +31,17 @@ public class AnnotationBeanFactoryTest {
         Assertions.assertNotNull(userService.getUserRepository());
         Assertions.assertTrue(userService.getUserRepository() instanceof UserRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetAnnotationBeanByType() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AnnotationBeanFactory annotationBeanFactory = new AnnotationBeanFactory("beans.cfgRd.annotation", beanFactory);
+
+        UserService userService = beanFactory.getBean(UserService.class);
+
+        Assertions.assertSame(beanFactory.getBean("userService"), userService);
+        Assertions.assertEquals(Collections.singletonList("userService"), beanFactory.getBeanNamesForType(UserService.class));
+        Assertions.assertSame(((UserServiceImpl) userService).getUserRepository(), beanFactory.getBean(UserRepository.class));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> beanFactory.getBean(Runnable.class));
+    }
+}
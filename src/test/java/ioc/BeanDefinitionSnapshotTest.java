@@ -0,0 +1,146 @@
+package ioc;
+
+import core.cfgRd.BeanDefinitionReader;
+import core.cfgRd.json.JsonBeanDefinitionReader;
+import core.cfgRd.snapshot.SnapshotBeanDefinitionReader;
+import core.enums.InjectionType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BeanDefinitionSnapshotTest, a test class for the snapshot of resolved bean definitions.
+ */
+public class BeanDefinitionSnapshotTest {
+
+    @Test
+    void testSecondLoadReadsTheSnapshot(@TempDir Path directory) {
+        Path snapshot = directory.resolve("scoped-beans.snapshot");
+        SnapshotBeanDefinitionReader reader = new SnapshotBeanDefinitionReader(new JsonBeanDefinitionReader(), snapshot);
+
+        Map<String, BeanDefinition> parsed = reader.loadBeanDefinitions("scoped-beans.json");
+        assertFalse(reader.isLoadedFromSnapshot());
+        assertTrue(Files.exists(snapshot));
+        Map<String, BeanDefinition> restored = reader.loadBeanDefinitions("scoped-beans.json");
+        assertTrue(reader.isLoadedFromSnapshot());
+
+        assertEquals(parsed.keySet(), restored.keySet());
+        for (String name : parsed.keySet()) {
+            BeanDefinition expected = parsed.get(name);
+            BeanDefinition actual = restored.get(name);
+            assertSame(expected.getBeanClass(), actual.getBeanClass());
+            assertEquals(expected.getScope(), actual.getScope());
+            assertEquals(expected.getScopeName(), actual.getScopeName());
+            assertEquals(expected.getPoolSize(), actual.getPoolSize());
+            assertEquals(expected.getPoolMaxWaitMillis(), actual.getPoolMaxWaitMillis());
+            assertEquals(expected.getResetMethodName(), actual.getResetMethodName());
+            assertEquals(expected.getValidateMethodName(), actual.getValidateMethodName());
+            assertNotNull(actual.getResolvedConstructor());
+        }
+        // Another location does not use the snapshot
+        reader.loadBeanDefinitions("lazy-beans.json");
+        assertFalse(reader.isLoadedFromSnapshot());
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new SnapshotBeanDefinitionReader(new JsonBeanDefinitionReader(), directory.resolve("lazy-beans.snapshot"))
+                .loadBeanDefinitions("lazy-beans.json").forEach(beanFactory::registerBeanDefinition);
+        beanFactory.refresh();
+    }
+
+    @Test
+    void testSnapshotIsInvalidatedWhenASourceChanges(@TempDir Path directory) throws Exception {
+        // A classpath root of its own, with a configuration file and the class files of the beans
+        Path root = Files.createDirectories(directory.resolve("classes"));
+        Path config = root.resolve("engine.conf");
+        Files.writeString(config, "engine");
+        for (Class<?> type : new Class<?>[]{Engine.class, Machine.class, Wheel.class}) {
+            String classFile = type.getName().replace('.', '/') + ".class";
+            try (InputStream in = getClass().getClassLoader().getResourceAsStream(classFile)) {
+                Files.createDirectories(root.resolve(classFile).getParent());
+                Files.copy(in, root.resolve(classFile));
+            }
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, ClassLoader.getPlatformClassLoader())) {
+            AtomicInteger reads = new AtomicInteger();
+            BeanDefinitionReader delegate = location -> {
+                reads.incrementAndGet();
+                try {
+                    BeanDefinition beanDefinition = new BeanDefinition(classLoader.loadClass(Engine.class.getName()),
+                            InjectionType.SETTER, null, "start", null);
+                    beanDefinition.setPropertyValues(Map.of("wheel", "frontWheel"));
+                    Map<String, BeanDefinition> beanDefinitions = new HashMap<>();
+                    beanDefinitions.put("engine", beanDefinition);
+                    return beanDefinitions;
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException(e);
+                }
+            };
+            SnapshotBeanDefinitionReader reader = new SnapshotBeanDefinitionReader(delegate, directory.resolve("engine.snapshot"), classLoader);
+
+            reader.loadBeanDefinitions("engine.conf");
+            BeanDefinition engine = reader.loadBeanDefinitions("engine.conf").get("engine");
+            assertEquals(1, reads.get());
+            assertEquals("start", engine.getInitMethodName());
+            assertEquals(Map.of("wheel", "frontWheel"), engine.getPropertyValues());
+            assertEquals(1, engine.getResolvedSetters().length);
+            assertEquals("setWheel", engine.getResolvedSetters()[0].getName());
+
+            // A changed configuration file
+            Files.writeString(config, "engine v2");
+            reader.loadBeanDefinitions("engine.conf");
+            assertFalse(reader.isLoadedFromSnapshot());
+            reader.loadBeanDefinitions("engine.conf");
+            assertTrue(reader.isLoadedFromSnapshot());
+            assertEquals(2, reads.get());
+
+            // A recompiled bean class, superclass declaring an inherited setter, or setter parameter type
+            int expectedReads = 2;
+            for (Class<?> type : new Class<?>[]{Engine.class, Machine.class, Wheel.class}) {
+                Path classFile = root.resolve(type.getName().replace('.', '/') + ".class");
+                Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis() + 1000));
+                reader.loadBeanDefinitions("engine.conf");
+                assertFalse(reader.isLoadedFromSnapshot(), type.getSimpleName());
+                assertEquals(++expectedReads, reads.get());
+                reader.loadBeanDefinitions("engine.conf");
+                assertTrue(reader.isLoadedFromSnapshot());
+            }
+
+            // A corrupted snapshot is ignored and rewritten
+            Files.write(directory.resolve("engine.snapshot"), new byte[]{1, 2, 3});
+            reader.loadBeanDefinitions("engine.conf");
+            assertFalse(reader.isLoadedFromSnapshot());
+            reader.loadBeanDefinitions("engine.conf");
+            assertTrue(reader.isLoadedFromSnapshot());
+        }
+    }
+
+    public static class Machine {
+        private Wheel wheel;
+
+        public void setWheel(Wheel wheel) {
+            this.wheel = wheel;
+        }
+    }
+
+    public static class Engine extends Machine {
+        public void start() {
+        }
+    }
+
+    public static class Wheel {
+    }
+}
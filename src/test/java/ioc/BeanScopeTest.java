@@ -0,0 +1,111 @@
+package ioc;
+
+import core.cfgRd.json.JsonBeanDefinitionReader;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import core.ioc.scope.RequestScope;
+import core.ioc.scope.ThreadScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeanScopeTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        RequestContext.closed.clear();
+        beanFactory = new DefaultListableBeanFactory();
+        Map<String, BeanDefinition> beanDefinitions = new JsonBeanDefinitionReader().loadBeanDefinitions("scoped-beans.json");
+        beanDefinitions.forEach((name, beanDefinition) -> {
+            beanDefinition.setDestroyMethodName(beanDefinition.getBeanClass() == RequestContext.class ? "close" : null);
+            beanFactory.registerBeanDefinition(name, beanDefinition);
+        });
+    }
+
+    @Test
+    void testScopeNamesFromConfiguration() {
+        BeanDefinition requestContext = beanFactory.getBeanDefinition("requestContext");
+        assertEquals(ScopeType.CUSTOM, requestContext.getScope());
+        assertEquals("request", requestContext.getScopeName());
+
+        BeanDefinition definition = new BeanDefinition();
+        definition.setScopeName("Prototype");
+        assertEquals(ScopeType.PROTOTYPE, definition.getScope());
+        assertEquals("prototype", definition.getScopeName());
+        assertThrows(IllegalArgumentException.class, () -> beanFactory.registerScope("singleton", new ThreadScope()));
+
+        definition.setScopeName("conversation");
+        definition.setBeanClass(RequestContext.class);
+        beanFactory.registerBeanDefinition("conversation", definition);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> beanFactory.getBean("conversation"));
+        assertTrue(e.getMessage().contains("conversation"));
+    }
+
+    @Test
+    void testRequestScopeCreatesOneBeanPerRequest() throws Exception {
+        RequestScope requestScope = (RequestScope) beanFactory.getRegisteredScope(RequestScope.NAME);
+        assertThrows(IllegalStateException.class, () -> beanFactory.getBean("requestContext"));
+
+        RequestContext first = requestScope.call(() -> {
+            RequestContext context = (RequestContext) beanFactory.getBean("requestContext");
+            assertSame(context, beanFactory.getBean("requestContext"));
+            return context;
+        });
+        assertEquals(List.of(first), RequestContext.closed);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        requestScope.begin();
+        try {
+            RequestContext second = (RequestContext) beanFactory.getBean("requestContext");
+            assertNotSame(first, second);
+            // A wrapped task sees the beans of the request that created it
+            CompletableFuture<Object> fromTask = new CompletableFuture<>();
+            executor.execute(requestScope.wrap(() -> fromTask.complete(beanFactory.getBean("requestContext"))));
+            assertSame(second, fromTask.get(5, TimeUnit.SECONDS));
+        } finally {
+            requestScope.end();
+            executor.shutdown();
+        }
+        assertEquals(2, RequestContext.closed.size());
+        assertFalse(requestScope.isActive());
+    }
+
+    @Test
+    void testThreadScopeCreatesOneBeanPerThread() throws Exception {
+        ThreadScope threadScope = (ThreadScope) beanFactory.getRegisteredScope(ThreadScope.NAME);
+        Object mine = beanFactory.getBean("threadBuffer");
+        assertSame(mine, beanFactory.getBean("threadBuffer"));
+
+        CompletableFuture<Object> other = new CompletableFuture<>();
+        Thread thread = new Thread(() -> other.complete(beanFactory.getBean("threadBuffer")));
+        thread.start();
+        assertNotSame(mine, other.get(5, TimeUnit.SECONDS));
+
+        threadScope.end();
+        assertNotSame(mine, beanFactory.getBean("threadBuffer"));
+    }
+
+    public static class RequestContext {
+        static final List<RequestContext> closed = new ArrayList<>();
+
+        public void close() {
+            closed.add(this);
+        }
+    }
+
+    public static class ThreadBuffer {
+        final StringBuilder buffer = new StringBuilder();
+    }
+}
@@ -0,0 +1,86 @@
+package ioc;
+
+import beans.cfgRd.annotation.UserRepository;
+import beans.cfgRd.annotation.impl.UserServiceImpl;
+import beans.cfgRd.annotation.interfaces.UserService;
+import core.cfgRd.annotation.AnnotationBeanDefinitionReader;
+import core.cfgRd.annotation.ClassFileMetadataReader;
+import core.cfgRd.annotation.ClassMetadata;
+import core.cfgRd.annotation.Component;
+import core.cfgRd.annotation.Scope;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.SingletonBeanRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileMetadataReaderTest {
+
+    @Test
+    void testReadComponentAnnotation() throws IOException {
+        ClassMetadata userService = read(UserServiceImpl.class);
+        ClassMetadata userRepository = read(UserRepository.class);
+
+        assertEquals(UserServiceImpl.class.getName(), userService.getClassName());
+        assertTrue(userService.hasAnnotation(Component.class));
+        assertTrue(userService.isConcrete());
+        assertEquals("userService", userService.getAnnotationAttribute(Component.class, "value"));
+        // Default values are not stored in the class file
+        assertTrue(userRepository.hasAnnotation(Component.class));
+        assertNull(userRepository.getAnnotationAttribute(Component.class, "value"));
+    }
+
+    @Test
+    void testReadClassesWithoutComponentAnnotation() throws IOException {
+        ClassMetadata userService = read(UserService.class);
+        // Long constants take two constant pool entries
+        ClassMetadata registry = read(SingletonBeanRegistry.class);
+
+        assertFalse(userService.hasAnnotation(Component.class));
+        assertFalse(userService.isConcrete());
+        assertEquals(SingletonBeanRegistry.class.getName(), registry.getClassName());
+        assertFalse(registry.hasAnnotation(Component.class));
+        assertTrue(registry.isConcrete());
+    }
+
+    @Test
+    void testReadScopeAnnotation() throws IOException {
+        ClassMetadata metadata = read(PrototypeComponent.class);
+
+        assertTrue(metadata.hasAnnotation(Component.class));
+        assertEquals("prototype", metadata.getAnnotationAttribute(Scope.class, "value"));
+    }
+
+    @Test
+    void testScanPackageWithoutComponentIndex() {
+        // The test classes have no component index, so the package is scanned
+        Map<String, BeanDefinition> beanDefinitions = new AnnotationBeanDefinitionReader().loadBeanDefinitions("ioc");
+
+        BeanDefinition beanDefinition = beanDefinitions.get("PrototypeComponent");
+        assertNotNull(beanDefinition);
+        assertSame(PrototypeComponent.class, beanDefinition.getBeanClass());
+        assertEquals(ScopeType.PROTOTYPE, beanDefinition.getScope());
+    }
+
+    @Test
+    void testRejectInvalidClassFile() {
+        assertThrows(IOException.class, () -> ClassFileMetadataReader.read(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6})));
+    }
+
+    private ClassMetadata read(Class<?> clazz) throws IOException {
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            return ClassFileMetadataReader.read(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    @Component
+    @Scope("prototype")
+    public static class PrototypeComponent {
+    }
+}
@@ -0,0 +1,84 @@
+package ioc;
+
+import beans.cfgRd.annotation.UserRepository;
+import beans.cfgRd.annotation.impl.UserServiceImpl;
+import core.cfgRd.annotation.ClassMetadata;
+import core.cfgRd.annotation.ClassPathScanner;
+import core.ioc.SingletonBeanRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassPathScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ClassPathScanner scanner = new ClassPathScanner();
+
+    @Test
+    void testScanJarWithStoredAndDeflatedEntries() throws Exception {
+        Path jar = tempDir.resolve("components.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            addEntry(out, UserServiceImpl.class, "beans/cfgRd/annotation/impl/UserServiceImpl.class", ZipEntry.STORED);
+            addEntry(out, UserRepository.class, "beans/cfgRd/annotation/UserRepository.class", ZipEntry.DEFLATED);
+            // Enough other classes to split the entries into several tasks
+            for (int i = 0; i < 500; i++) {
+                addEntry(out, SingletonBeanRegistry.class, "other/Class" + i + ".class", i % 2 == 0 ? ZipEntry.STORED : ZipEntry.DEFLATED);
+            }
+        }
+
+        assertEquals(List.of(UserRepository.class.getName(), UserServiceImpl.class.getName()), classNames(scanner.scanJar(jar, "")));
+        assertEquals(List.of(UserServiceImpl.class.getName()), classNames(scanner.scanJar(jar, "beans/cfgRd/annotation/impl")));
+        assertTrue(scanner.scanJar(jar, "other").isEmpty());
+    }
+
+    @Test
+    void testScanDirectory() throws Exception {
+        Path root = Paths.get(UserServiceImpl.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        List<ClassMetadata> components = scanner.scanDirectory(root, "beans/cfgRd");
+
+        assertEquals(List.of(UserRepository.class.getName(), UserServiceImpl.class.getName()), classNames(components));
+        assertTrue(scanner.scanDirectory(root, "does/not/exist").isEmpty());
+    }
+
+    private void addEntry(JarOutputStream out, Class<?> clazz, String name, int method) throws IOException {
+        byte[] bytes;
+        try (InputStream in = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            bytes = in.readAllBytes();
+        }
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(method);
+        if (method == ZipEntry.STORED) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(bytes);
+        out.closeEntry();
+    }
+
+    private List<String> classNames(List<ClassMetadata> components) {
+        List<String> names = new ArrayList<>();
+        for (ClassMetadata component : components) {
+            names.add(component.getClassName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,104 @@
+package ioc;
+
+import core.cfgRd.annotation.AnnotationBeanDefinitionReader;
+import core.cfgRd.annotation.Component;
+import core.cfgRd.annotation.ComponentIndex;
+import core.cfgRd.annotation.processor.ComponentIndexProcessor;
+import core.ioc.BeanDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ComponentIndexProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testProcessorWritesComponentIndex() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src/sample"));
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        Files.write(sources.resolve("OrderRepository.java"), Arrays.asList(
+                "package sample;",
+                "@core.cfgRd.annotation.Component",
+                "public class OrderRepository {}"), StandardCharsets.UTF_8);
+        Files.write(sources.resolve("OrderService.java"), Arrays.asList(
+                "package sample;",
+                "@core.cfgRd.annotation.Component(\"orderService\")",
+                "@core.cfgRd.annotation.Scope(\"prototype\")",
+                "@core.cfgRd.annotation.Lazy",
+                "public class OrderService {}"), StandardCharsets.UTF_8);
+        Files.write(sources.resolve("AbstractService.java"), Arrays.asList(
+                "package sample;",
+                "@core.cfgRd.annotation.Component",
+                "public abstract class AbstractService {}"), StandardCharsets.UTF_8);
+
+        compile(classes, sources.resolve("OrderRepository.java"), sources.resolve("OrderService.java"), sources.resolve("AbstractService.java"));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, null)) {
+            ComponentIndex index = ComponentIndex.load(classLoader);
+            assertNotNull(index);
+            List<ComponentIndex.Entry> entries = index.getEntries("sample");
+            assertEquals(2, entries.size());
+            assertEquals("sample.OrderRepository", entries.get(0).getClassName());
+            assertEquals("OrderRepository", entries.get(0).getBeanId());
+            assertEquals("singleton", entries.get(0).getScope());
+            assertEquals("sample.OrderService", entries.get(1).getClassName());
+            assertEquals("orderService", entries.get(1).getBeanId());
+            assertEquals("prototype", entries.get(1).getScope());
+            assertFalse(entries.get(0).isLazy());
+            assertTrue(entries.get(1).isLazy());
+            assertTrue(index.getEntries("other").isEmpty());
+            assertTrue(index.isIndexed(classes.toUri().toURL().toString()));
+        }
+    }
+
+    @Test
+    void testStaleIndexEntryDoesNotHideTheOtherComponents() throws Exception {
+        Path sources = Files.createDirectories(tempDir.resolve("src/sample"));
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        Files.write(sources.resolve("OrderRepository.java"), Arrays.asList(
+                "package sample;",
+                "@core.cfgRd.annotation.Component",
+                "public class OrderRepository {}"), StandardCharsets.UTF_8);
+        compile(classes, sources.resolve("OrderRepository.java"));
+        // An entry of a class deleted after the index was written, listed before the existing component
+        Path index = classes.resolve(ComponentIndex.INDEX_LOCATION);
+        String entries = new String(Files.readAllBytes(index), StandardCharsets.UTF_8);
+        Files.write(index, ("sample.DeletedService;id=deletedService;scope=singleton\n" + entries).getBytes(StandardCharsets.UTF_8));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Map<String, BeanDefinition> beanDefinitions = new AnnotationBeanDefinitionReader(classLoader).loadBeanDefinitions("sample");
+            assertFalse(beanDefinitions.containsKey("deletedService"));
+            assertEquals("sample.OrderRepository", beanDefinitions.get("OrderRepository").getBeanClass().getName());
+        }
+    }
+
+    private void compile(Path classes, Path... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sources);
+            String classpath = Paths.get(Component.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            List<String> options = Arrays.asList("-d", classes.toString(), "-classpath", classpath);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new ComponentIndexProcessor()));
+            assertTrue(task.call());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ioc;
+
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.SimpleIOC;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentSingletonTest {
+
+    private SimpleIOC ioc;
+
+    @BeforeEach
+    void setUp() {
+        ioc = new SimpleIOC();
+    }
+
+    @Test
+    void testSingletonCreatedOnceAcrossThreads() throws Exception {
+        CountingBean.instances.set(0);
+        ioc.registerBean("countingBean", CountingBean.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+
+        List<Object> beans = getBeansInParallel("countingBean", "countingBean", "countingBean", "countingBean",
+                "countingBean", "countingBean", "countingBean", "countingBean");
+
+        // Every thread gets the same instance, and the constructor ran only once
+        for (Object bean : beans) {
+            assertSame(beans.get(0), bean);
+        }
+        assertEquals(1, CountingBean.instances.get());
+    }
+
+    @Test
+    void testDifferentSingletonsCreatedInParallel() throws Exception {
+        LatchedBean.latch = new CountDownLatch(2);
+        ioc.registerBean("first", LatchedBean.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("second", LatchedBean.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+
+        // Each constructor waits for the other one, which only succeeds if both run at the same time
+        List<Object> beans = getBeansInParallel("first", "second");
+
+        assertTrue(((LatchedBean) beans.get(0)).sawOtherBean);
+        assertTrue(((LatchedBean) beans.get(1)).sawOtherBean);
+    }
+
+    @Test
+    void testCircularDependencyAcrossThreads() throws Exception {
+        ioc.registerBean("slowA", SlowA.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("slowB", SlowB.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+
+        List<Object> beans = getBeansInParallel("slowA", "slowB");
+
+        SlowA a = (SlowA) beans.get(0);
+        SlowB b = (SlowB) beans.get(1);
+        assertSame(b, a.getSlowB());
+        assertSame(a, b.getSlowA());
+        assertSame(a, ioc.getBean("slowA"));
+        assertSame(b, ioc.getBean("slowB"));
+    }
+
+    private List<Object> getBeansInParallel(String... names) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(names.length);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> futures = new ArrayList<>();
+            for (String name : names) {
+                Callable<Object> task = () -> {
+                    start.await();
+                    return ioc.getBean(name);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<Object> beans = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                beans.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return beans;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static class CountingBean {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public CountingBean() throws InterruptedException {
+            instances.incrementAndGet();
+            Thread.sleep(50);
+        }
+    }
+
+    public static class LatchedBean {
+        static CountDownLatch latch;
+        final boolean sawOtherBean;
+
+        public LatchedBean() throws InterruptedException {
+            latch.countDown();
+            sawOtherBean = latch.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class SlowA {
+        private SlowB slowB;
+
+        public SlowA() throws InterruptedException {
+            Thread.sleep(50);
+        }
+
+        public SlowB getSlowB() {
+            return slowB;
+        }
+
+        public void setSlowB(SlowB slowB) {
+            this.slowB = slowB;
+        }
+    }
+
+    public static class SlowB {
+        private SlowA slowA;
+
+        public SlowB() throws InterruptedException {
+            Thread.sleep(50);
+        }
+
+        public SlowA getSlowA() {
+            return slowA;
+        }
+
+        public void setSlowA(SlowA slowA) {
+            this.slowA = slowA;
+        }
+    }
+}
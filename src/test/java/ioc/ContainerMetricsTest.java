@@ -0,0 +1,79 @@
+package ioc;
+
+import beans.ioc.Dependency;
+import beans.ioc.Service;
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.SimpleIOC;
+import core.metrics.DefaultContainerMetrics;
+import core.metrics.HistogramSnapshot;
+import core.metrics.LatencyHistogram;
+import core.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContainerMetricsTest {
+
+    @Test
+    void testGetBeanMetrics() {
+        DefaultContainerMetrics metrics = new DefaultContainerMetrics();
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.setMetrics(metrics);
+        ioc.registerBean("dependency", Dependency.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("service", Service.class, InjectionType.CONSTRUCTOR, ScopeType.PROTOTYPE, null, null);
+
+        ioc.getBean("service");
+        ioc.getBean("service");
+        ioc.getBean("dependency");
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        // Each service pulls in the dependency, the first call creates it
+        assertEquals(3, snapshot.getGetBeanCalls(ScopeType.SINGLETON));
+        assertEquals(2, snapshot.getGetBeanCalls(ScopeType.PROTOTYPE));
+        assertEquals(1, snapshot.getSingletonCacheMisses());
+        assertEquals(2, snapshot.getSingletonCacheHits());
+        assertEquals(2, snapshot.getPrototypeCreations());
+        assertEquals(1, snapshot.getCreationLatency(ScopeType.SINGLETON).getCount());
+        assertEquals(2L, snapshot.toMap().get("creation.prototype.count"));
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(100_000, snapshot.getMax());
+        assertEquals(50_500, snapshot.getMean(), 0.001);
+        // Percentiles are bucket upper bounds: at most twice the exact value, never above the maximum
+        assertTrue(snapshot.getPercentile(50) >= 50_000 && snapshot.getPercentile(50) < 100_000);
+        assertEquals(100_000, snapshot.getPercentile(100));
+        assertEquals(0, new LatencyHistogram().snapshot().getPercentile(99));
+    }
+
+    @Test
+    void testMetricsMBean() throws Exception {
+        DefaultContainerMetrics metrics = new DefaultContainerMetrics();
+        metrics.getBeanCalled(ScopeType.SINGLETON);
+        metrics.singletonCacheHit();
+        ObjectName name = metrics.registerMBean("metrics-test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(name, "SingletonGetBeanCount"));
+            assertEquals(1L, server.getAttribute(name, "SingletonCacheHits"));
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, server.getAttribute(name, "SingletonCacheHits"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
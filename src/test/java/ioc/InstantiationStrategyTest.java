@@ -0,0 +1,135 @@
+package ioc;
+
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import core.ioc.instantiation.BeanInstantiator;
+import core.ioc.instantiation.LambdaMetafactoryInstantiationStrategy;
+import core.ioc.instantiation.ReflectiveInstantiationStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstantiationStrategyTest {
+
+    @Test
+    void testPrototypeBeansWithLambdaMetafactoryStrategy() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setInstantiationStrategy(new LambdaMetafactoryInstantiationStrategy());
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, null));
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class, InjectionType.CONSTRUCTOR, ScopeType.PROTOTYPE, null, null));
+
+        Car car1 = (Car) beanFactory.getBean("car");
+        Car car2 = (Car) beanFactory.getBean("car");
+
+        assertNotSame(car1, car2);
+        assertSame(beanFactory.getBean("engine"), car1.getEngine());
+        assertSame(car1.getEngine(), car2.getEngine());
+    }
+
+    @Test
+    void testLambdaMetafactoryArities() throws Exception {
+        LambdaMetafactoryInstantiationStrategy strategy = new LambdaMetafactoryInstantiationStrategy();
+
+        Engine engine = (Engine) strategy.getInstantiator(Engine.class.getConstructor()).instantiate(new Object[0]);
+        Car car = (Car) strategy.getInstantiator(Car.class.getConstructor(Engine.class)).instantiate(new Object[]{engine});
+        Truck truck = (Truck) strategy.getInstantiator(Truck.class.getConstructor(Engine.class, int.class))
+                .instantiate(new Object[]{engine, 6});
+
+        assertSame(engine, car.getEngine());
+        assertSame(engine, truck.getEngine());
+        assertEquals(6, truck.getAxles());
+    }
+
+    @Test
+    void testPublicConstructorsGetGeneratedInstantiators() throws Exception {
+        List<Constructor<?>> fallbacks = new ArrayList<>();
+        LambdaMetafactoryInstantiationStrategy strategy = new LambdaMetafactoryInstantiationStrategy(constructor -> {
+            fallbacks.add(constructor);
+            return new ReflectiveInstantiationStrategy().getInstantiator(constructor);
+        });
+
+        strategy.getInstantiator(Engine.class.getConstructor());
+        strategy.getInstantiator(Car.class.getConstructor(Engine.class));
+        strategy.getInstantiator(Truck.class.getConstructor(Engine.class, int.class));
+        assertEquals(List.of(), fallbacks);
+
+        strategy.getInstantiator(Trailer.class.getConstructor(Engine.class, int.class, String.class));
+        assertEquals(List.of(Trailer.class.getConstructor(Engine.class, int.class, String.class)), fallbacks);
+    }
+
+    @Test
+    void testFallbackForUnsupportedConstructors() throws Exception {
+        LambdaMetafactoryInstantiationStrategy strategy = new LambdaMetafactoryInstantiationStrategy(new ReflectiveInstantiationStrategy());
+        BeanInstantiator instantiator = strategy.getInstantiator(Trailer.class.getConstructor(Engine.class, int.class, String.class));
+
+        Trailer trailer = (Trailer) instantiator.instantiate(new Object[]{new Engine(), 2, "flatbed"});
+
+        assertEquals("flatbed", trailer.getType());
+    }
+
+    @Test
+    void testConstructorExceptionIsNotWrapped() throws Exception {
+        BeanInstantiator reflective = new ReflectiveInstantiationStrategy().getInstantiator(Broken.class.getConstructor());
+        BeanInstantiator generated = new LambdaMetafactoryInstantiationStrategy().getInstantiator(Broken.class.getConstructor());
+
+        assertThrows(IllegalStateException.class, () -> reflective.instantiate(new Object[0]));
+        assertThrows(IllegalStateException.class, () -> generated.instantiate(new Object[0]));
+    }
+
+    public static class Engine {
+    }
+
+    public static class Car {
+        private final Engine engine;
+
+        public Car(Engine engine) {
+            this.engine = engine;
+        }
+
+        public Engine getEngine() {
+            return engine;
+        }
+    }
+
+    public static class Truck {
+        private final Engine engine;
+        private final int axles;
+
+        public Truck(Engine engine, int axles) {
+            this.engine = engine;
+            this.axles = axles;
+        }
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public int getAxles() {
+            return axles;
+        }
+    }
+
+    public static class Trailer {
+        private final String type;
+
+        public Trailer(Engine engine, int axles, String type) {
+            this.type = type;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
+    public static class Broken {
+        public Broken() {
+            throw new IllegalStateException("Cannot create");
+        }
+    }
+}
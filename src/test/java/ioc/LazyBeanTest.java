@@ -0,0 +1,104 @@
+package ioc;
+
+import core.cfgRd.annotation.Autowired;
+import core.cfgRd.annotation.Lazy;
+import core.cfgRd.json.JsonBeanDefinitionReader;
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LazyBeanTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @BeforeEach
+    void setUp() {
+        ExpensiveGreeter.instances.set(0);
+        beanFactory = new DefaultListableBeanFactory();
+    }
+
+    @Test
+    void testLazyBeanCreatedOnFirstCall() {
+        BeanDefinition greeter = new BeanDefinition(ExpensiveGreeter.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        greeter.setLazy(true);
+        beanFactory.registerBeanDefinition("greeter", greeter);
+        beanFactory.registerBeanDefinition("client", new BeanDefinition(Client.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null));
+
+        beanFactory.refresh();
+
+        // The client was created with a proxy, the greeter itself is not created yet
+        Client client = (Client) beanFactory.getBean("client");
+        assertTrue(Proxy.isProxyClass(client.greeter.getClass()));
+        assertEquals(0, ExpensiveGreeter.instances.get());
+
+        assertEquals("Hello, lazy", client.greeter.greet("lazy"));
+        assertEquals("Hello, again", client.greeter.greet("again"));
+        assertEquals(1, ExpensiveGreeter.instances.get());
+        // The proxy delegates to the singleton of the factory
+        assertEquals(2, ((ExpensiveGreeter) beanFactory.getBean("greeter")).calls);
+        assertEquals(1, ExpensiveGreeter.instances.get());
+    }
+
+    @Test
+    void testLazyAutowiredField() {
+        beanFactory.registerBeanDefinition("greeter", new BeanDefinition(ExpensiveGreeter.class, null, ScopeType.SINGLETON, null, null));
+        beanFactory.registerBeanDefinition("autowiredClient", new BeanDefinition(AutowiredClient.class, null, ScopeType.SINGLETON, null, null));
+
+        AutowiredClient client = (AutowiredClient) beanFactory.getBean("autowiredClient");
+
+        assertTrue(Proxy.isProxyClass(client.greeter.getClass()));
+        assertEquals(0, ExpensiveGreeter.instances.get());
+        assertEquals("Hello, field", client.greeter.greet("field"));
+        assertEquals(1, ExpensiveGreeter.instances.get());
+    }
+
+    @Test
+    void testLazyKeyInJsonConfig() {
+        Map<String, BeanDefinition> beanDefinitions = new JsonBeanDefinitionReader().loadBeanDefinitions("lazy-beans.json");
+
+        assertTrue(beanDefinitions.get("greeter").isLazy());
+        assertFalse(beanDefinitions.get("client").isLazy());
+    }
+
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    public static class ExpensiveGreeter implements Greeter {
+        static final AtomicInteger instances = new AtomicInteger();
+        int calls;
+
+        public ExpensiveGreeter() {
+            instances.incrementAndGet();
+        }
+
+        @Override
+        public String greet(String name) {
+            calls++;
+            return "Hello, " + name;
+        }
+    }
+
+    public static class Client {
+        Greeter greeter;
+
+        public void setGreeter(Greeter greeter) {
+            this.greeter = greeter;
+        }
+    }
+
+    public static class AutowiredClient {
+        @Autowired
+        @Lazy
+        Greeter greeter;
+    }
+}
@@ -0,0 +1,153 @@
+package ioc;
+
+import core.cfgRd.json.JsonBeanDefinitionReader;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import core.ioc.scope.PoolStats;
+import core.ioc.scope.PooledBean;
+import core.ioc.scope.PooledScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PooledScopeTest {
+
+    private DefaultListableBeanFactory beanFactory;
+    private PooledScope pooledScope;
+
+    @BeforeEach
+    void setUp() {
+        Parser.closed.set(0);
+        beanFactory = new DefaultListableBeanFactory();
+        Map<String, BeanDefinition> beanDefinitions = new JsonBeanDefinitionReader().loadBeanDefinitions("scoped-beans.json");
+        BeanDefinition parser = beanDefinitions.get("parser");
+        parser.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition("parser", parser);
+        pooledScope = (PooledScope) beanFactory.getRegisteredScope(PooledScope.NAME);
+    }
+
+    @Test
+    void testReleasedInstancesAreReset() {
+        BeanDefinition definition = beanFactory.getBeanDefinition("parser");
+        assertEquals(2, definition.getPoolSize());
+        assertEquals("reset", definition.getResetMethodName());
+
+        Parser first = (Parser) beanFactory.getBean("parser");
+        first.buffer.append("data");
+        beanFactory.releaseBean("parser", first);
+        assertEquals(0, first.buffer.length());
+        assertSame(first, beanFactory.getBean("parser"));
+        assertThrows(IllegalStateException.class, () -> {
+            beanFactory.releaseBean("parser", first);
+            beanFactory.releaseBean("parser", first);
+        });
+        assertThrows(IllegalArgumentException.class, () -> beanFactory.releaseBean("parser", new Parser()));
+
+        try (PooledBean<Parser> handle = pooledScope.borrow("parser", Parser.class)) {
+            assertSame(first, handle.get());
+        }
+        PoolStats stats = pooledScope.stats("parser");
+        assertEquals(2, stats.getHitCount(), stats.toString());
+        assertEquals(1, stats.getMissCount(), stats.toString());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void testExhaustedPoolWaitsForARelease() throws Exception {
+        PooledBean<Parser> first = pooledScope.borrow("parser", Parser.class);
+        PooledBean<Parser> second = pooledScope.borrow("parser", Parser.class);
+        assertNotSame(first.get(), second.get());
+        assertThrows(IllegalStateException.class, () -> beanFactory.getBean("parser"));
+
+        CompletableFuture<Object> borrowed = new CompletableFuture<>();
+        Thread borrower = new Thread(() -> borrowed.complete(beanFactory.getBean("parser")));
+        borrower.start();
+        while (pooledScope.stats("parser").getWaitCount() < 2) {
+            Thread.sleep(1);
+        }
+        // The instance released here is kept in the slot of this thread, the waiting borrower steals it
+        Parser released = second.get();
+        second.close();
+        assertSame(released, borrowed.get(5, TimeUnit.SECONDS));
+        first.close();
+
+        PoolStats stats = pooledScope.stats("parser");
+        assertEquals(1, stats.getTimeoutCount(), stats.toString());
+        assertEquals(2, stats.getMissCount(), stats.toString());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    void testConcurrentReleasesResetOnce() throws Exception {
+        Parser parser = (Parser) beanFactory.getBean("parser");
+        Parser.resetGate = new CountDownLatch(1);
+        Parser.resetStarted = new CountDownLatch(1);
+        try {
+            Thread releaser = new Thread(() -> beanFactory.releaseBean("parser", parser));
+            releaser.start();
+            assertTrue(Parser.resetStarted.await(5, TimeUnit.SECONDS));
+            // The first release is still resetting the instance
+            assertThrows(IllegalStateException.class, () -> beanFactory.releaseBean("parser", parser));
+            Parser.resetGate.countDown();
+            releaser.join(5000);
+        } finally {
+            Parser.resetGate = null;
+        }
+        assertEquals(1, parser.resets.get());
+        // Idle in the slot of the releasing thread, borrowed here once the pool is full
+        assertNotSame(parser, beanFactory.getBean("parser"));
+        assertSame(parser, beanFactory.getBean("parser"));
+        assertEquals(2, pooledScope.stats("parser").getSize());
+    }
+
+    @Test
+    void testInvalidInstancesAreDestroyed() {
+        Parser first = (Parser) beanFactory.getBean("parser");
+        first.usable = false;
+        beanFactory.releaseBean("parser", first);
+
+        Parser second = (Parser) beanFactory.getBean("parser");
+        assertNotSame(first, second);
+        assertEquals(1, Parser.closed.get());
+        assertEquals(1, pooledScope.stats("parser").getDestroyedCount());
+
+        beanFactory.releaseBean("parser", second);
+        pooledScope.clear();
+        assertEquals(2, Parser.closed.get());
+        assertEquals(0, pooledScope.stats("parser").getSize());
+    }
+
+    public static class Parser {
+        static final AtomicInteger closed = new AtomicInteger();
+        static volatile CountDownLatch resetStarted;
+        static volatile CountDownLatch resetGate;
+        final StringBuilder buffer = new StringBuilder();
+        final AtomicInteger resets = new AtomicInteger();
+        volatile boolean usable = true;
+
+        public void reset() throws InterruptedException {
+            resets.incrementAndGet();
+            CountDownLatch gate = resetGate;
+            if (gate != null) {
+                resetStarted.countDown();
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            buffer.setLength(0);
+        }
+
+        public boolean isUsable() {
+            return usable;
+        }
+
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+}
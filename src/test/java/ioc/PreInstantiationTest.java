@@ -0,0 +1,154 @@
+package ioc;
+
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import core.ioc.DependencyGraph;
+import core.ioc.SimpleIOC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreInstantiationTest {
+
+    @Test
+    void testDependencyGraphLevels() {
+        DependencyGraph graph = new DependencyGraph();
+        graph.addBean("leafA");
+        graph.addDependency("root", "leafA", true);
+        graph.addDependency("root", "middle", false);
+        graph.addDependency("middle", "leafB", true);
+        graph.addDependency("cycleA", "cycleB", false);
+        graph.addDependency("cycleB", "cycleA", false);
+        graph.addDependency("cycleA", "leafB", false);
+
+        List<List<List<String>>> levels = graph.getLevels();
+
+        assertEquals(3, levels.size());
+        assertEquals(Arrays.asList(Arrays.asList("leafA"), Arrays.asList("leafB")), levels.get(0));
+        assertEquals(Arrays.asList(Arrays.asList("middle"), Arrays.asList("cycleA", "cycleB")), levels.get(1));
+        assertEquals(Arrays.asList(Arrays.asList("root")), levels.get(2));
+        assertEquals(Arrays.asList(Arrays.asList("cycleA", "cycleB")), graph.getCycles());
+        assertTrue(graph.getConstructorCycles().isEmpty());
+        assertEquals(Arrays.asList("root"), List.copyOf(graph.getDependents("middle")));
+    }
+
+    @Test
+    void testRefreshCreatesIndependentSingletonsInParallel() throws Exception {
+        LeafA.latch = new CountDownLatch(2);
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.registerBean("leafA", LeafA.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("leafB", LeafB.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("root", Root.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ioc.setPreInstantiationExecutor(executor);
+            ioc.refresh();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Both leaves wait for each other, which only succeeds if they were created at the same time
+        LeafA leafA = (LeafA) ioc.getBean("leafA");
+        LeafB leafB = (LeafB) ioc.getBean("leafB");
+        assertTrue(leafA.sawOtherLeaf);
+        assertTrue(leafB.sawOtherLeaf);
+        Root root = (Root) ioc.getBean("root");
+        assertSame(leafA, root.leafA);
+        assertSame(leafB, root.leafB);
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRefreshResolvesSetterCycle() {
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.registerBean("slowA", ConcurrentSingletonTest.SlowA.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("slowB", ConcurrentSingletonTest.SlowB.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+
+        ioc.refresh();
+
+        ConcurrentSingletonTest.SlowA a = (ConcurrentSingletonTest.SlowA) ioc.getBean("slowA");
+        ConcurrentSingletonTest.SlowB b = (ConcurrentSingletonTest.SlowB) ioc.getBean("slowB");
+        assertSame(b, a.getSlowB());
+        assertSame(a, b.getSlowA());
+    }
+
+    @Test
+    void testRefreshCreatesSingletonsWithoutScope() {
+        Counted.instances.set(0);
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.registerBean("counted", Counted.class, InjectionType.SETTER, null, null, null);
+
+        ioc.refresh();
+        assertEquals(1, Counted.instances.get());
+        assertSame(ioc.getBean("counted"), ioc.getBean("counted"));
+        assertEquals(1, Counted.instances.get());
+    }
+
+    @Test
+    void testRefreshRejectsConstructorCycle() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("ping", new BeanDefinition(Ping.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, null));
+        beanFactory.registerBeanDefinition("pong", new BeanDefinition(Pong.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, null));
+
+        RuntimeException e = assertThrows(RuntimeException.class, beanFactory::refresh);
+        assertTrue(e.getMessage().contains("[ping, pong]"));
+        assertFalse(beanFactory.getSingletonRegistry().containsSingleton("ping"));
+    }
+
+    public static class LeafA {
+        static CountDownLatch latch;
+        final boolean sawOtherLeaf;
+
+        public LeafA() throws InterruptedException {
+            latch.countDown();
+            sawOtherLeaf = latch.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class LeafB {
+        final boolean sawOtherLeaf;
+
+        public LeafB() throws InterruptedException {
+            LeafA.latch.countDown();
+            sawOtherLeaf = LeafA.latch.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class Root {
+        final LeafA leafA;
+        final LeafB leafB;
+
+        public Root(LeafA leafA, LeafB leafB) {
+            this.leafA = leafA;
+            this.leafB = leafB;
+        }
+    }
+
+    public static class Counted {
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public Counted() {
+            instances.incrementAndGet();
+        }
+    }
+
+    public static class Ping {
+        public Ping(Pong pong) {
+        }
+    }
+
+    public static class Pong {
+        public Pong(Ping ping) {
+        }
+    }
+}
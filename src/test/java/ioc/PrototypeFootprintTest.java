@@ -0,0 +1,90 @@
+package ioc;
+
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrototypeFootprintTest {
+
+    private static final int PROTOTYPES = 2_000_000;
+
+    @Test
+    void testPrototypesLeaveNoEarlyReference() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("payload", new BeanDefinition(Payload.class, InjectionType.SETTER, ScopeType.PROTOTYPE, null, null));
+        beanFactory.registerBeanDefinition("counter", new BeanDefinition(Payload.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null));
+        beanFactory.getBean("counter");
+
+        for (int i = 0; i < 1000; i++) {
+            beanFactory.getBean("payload");
+            // Only singletons being created have early references, and they are cleared once registered
+            assertEquals(0, beanFactory.getSingletonRegistry().getEarlyReferenceCount());
+        }
+        assertFalse(beanFactory.getSingletonRegistry().containsSingleton("payload"));
+    }
+
+    /**
+     * Depends on System.gc and the heap size, so it is excluded from the default build.
+     */
+    @Test
+    @Tag("footprint")
+    void testPrototypesAreNotRetainedByTheContainer() throws InterruptedException {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("payload", new BeanDefinition(Payload.class, InjectionType.SETTER, ScopeType.PROTOTYPE, null, null));
+        beanFactory.registerBeanDefinition("counter", new BeanDefinition(Payload.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null));
+        beanFactory.getBean("counter");
+        long baseline = usedHeapAfterGc();
+
+        WeakReference<Object> last = null;
+        for (int i = 0; i < PROTOTYPES; i++) {
+            Object payload = beanFactory.getBean("payload");
+            if (i == PROTOTYPES - 1) {
+                last = new WeakReference<>(payload);
+            }
+        }
+
+        for (int i = 0; i < 20 && last.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(last.get(), "The last prototype is still reachable from the container");
+        long growth = usedHeapAfterGc() - baseline;
+        assertTrue(growth < 32L * 1024 * 1024, "Heap grew by " + growth + " bytes after " + PROTOTYPES + " prototypes");
+    }
+
+    @Test
+    void testFailedSingletonLeavesNoEarlyReference() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("failing", new BeanDefinition(FailingBean.class, InjectionType.SETTER, ScopeType.SINGLETON, "init", null));
+
+        assertThrows(RuntimeException.class, () -> beanFactory.getBean("failing"));
+        assertEquals(0, beanFactory.getSingletonRegistry().getEarlyReferenceCount());
+        assertFalse(beanFactory.getSingletonRegistry().containsSingleton("failing"));
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static class Payload {
+        final byte[] data = new byte[64];
+    }
+
+    public static class FailingBean {
+        public void init() {
+            throw new IllegalStateException("init failed");
+        }
+    }
+}
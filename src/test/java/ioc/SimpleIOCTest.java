@@ -73,4 +73,17 @@ public class SimpleIOCTest {
         // Destroy singletons and verify that no errors are thrown
         ioc.destroySingletons();
     }
+
+    @Test
+    void testGetBeanByType() {
+        // Register two Beans of different types
+        ioc.registerBean("a", A.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        ioc.registerBean("b", B.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        // Verify that the Beans are found by their types
+        assertSame(ioc.getBean("a"), ioc.getBean(A.class));
+        assertSame(ioc.getBean("b"), ioc.getBean(B.class));
+        // Verify that an exception is thrown for an ambiguous type
+        ioc.registerBean("anotherA", A.class, InjectionType.SETTER, ScopeType.SINGLETON, null, null);
+        assertThrows(IllegalStateException.class, () -> ioc.getBean(A.class));
+    }
 }
\ No newline at end of file
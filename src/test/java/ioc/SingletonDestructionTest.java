@@ -0,0 +1,123 @@
+package ioc;
+
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.SimpleIOC;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SingletonDestructionTest, a test class for the dependency-ordered, parallel destruction of singletons.
+ */
+public class SingletonDestructionTest {
+    static final List<String> destroyed = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testDependentsAreDestroyedFirstAndIndependentBeansInParallel() throws Exception {
+        destroyed.clear();
+        Leaf.latch = new CountDownLatch(2);
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.registerBean("leafA", LeafA.class, InjectionType.SETTER, ScopeType.SINGLETON, null, "destroy");
+        ioc.registerBean("leafB", LeafB.class, InjectionType.SETTER, ScopeType.SINGLETON, null, "destroy");
+        ioc.registerBean("root", Root.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, null, "destroy");
+        ioc.refresh();
+        Root root = (Root) ioc.getBean("root");
+
+        ioc.destroySingletons();
+
+        assertEquals("root", destroyed.get(0));
+        assertEquals(Arrays.asList("leafA", "leafB"), destroyed.subList(1, 3).stream().sorted().toList());
+        // Both leaves wait for each other, which only succeeds if they were destroyed at the same time
+        assertTrue(root.leafA.sawOtherLeaf);
+        assertTrue(root.leafB.sawOtherLeaf);
+    }
+
+    @Test
+    void testSlowDestroyMethodTimesOut() throws Exception {
+        destroyed.clear();
+        Leaf.latch = new CountDownLatch(0);
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.registerBean("slow", Slow.class, InjectionType.SETTER, ScopeType.SINGLETON, null, "destroy");
+        ioc.registerBean("leafA", LeafA.class, InjectionType.SETTER, ScopeType.SINGLETON, null, "destroy");
+        ioc.setDestroyTimeout(100, TimeUnit.MILLISECONDS);
+        ioc.refresh();
+        Slow slow = (Slow) ioc.getBean("slow");
+
+        long start = System.nanoTime();
+        ioc.destroySingletons();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(Arrays.asList("leafA"), destroyed);
+        assertTrue(slow.interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testUnusedDefinitionDoesNotPreventShutdown() throws Exception {
+        destroyed.clear();
+        SimpleIOC ioc = new SimpleIOC();
+        ioc.registerBean("good", Good.class, InjectionType.SETTER, ScopeType.SINGLETON, null, "close");
+        // Never created, its misspelled destroy method cannot be resolved
+        ioc.registerBean("bad", Good.class, InjectionType.SETTER, ScopeType.PROTOTYPE, null, "clsoe");
+        ioc.getBean("good");
+
+        ioc.destroySingletons();
+
+        assertEquals(Arrays.asList("good"), destroyed);
+    }
+
+    public abstract static class Leaf {
+        static CountDownLatch latch;
+        volatile boolean sawOtherLeaf;
+
+        public void destroy() throws InterruptedException {
+            latch.countDown();
+            sawOtherLeaf = latch.await(5, TimeUnit.SECONDS);
+            destroyed.add(getClass().getSimpleName().equals("LeafA") ? "leafA" : "leafB");
+        }
+    }
+
+    public static class LeafA extends Leaf {
+    }
+
+    public static class LeafB extends Leaf {
+    }
+
+    public static class Root {
+        final LeafA leafA;
+        final LeafB leafB;
+
+        public Root(LeafA leafA, LeafB leafB) {
+            this.leafA = leafA;
+            this.leafB = leafB;
+        }
+
+        public void destroy() {
+            destroyed.add("root");
+        }
+    }
+
+    public static class Good {
+        public void close() {
+            destroyed.add("good");
+        }
+    }
+
+    public static class Slow {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        public void destroy() {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }
+    }
+}
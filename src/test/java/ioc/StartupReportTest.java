@@ -0,0 +1,73 @@
+package ioc;
+
+import core.enums.InjectionType;
+import core.enums.ScopeType;
+import core.ioc.BeanDefinition;
+import core.ioc.DefaultListableBeanFactory;
+import core.ioc.startup.BeanStartupRecord;
+import core.ioc.startup.DefaultStartupRecorder;
+import core.ioc.startup.StartupPhase;
+import core.ioc.startup.StartupRecorder;
+import core.ioc.startup.StartupReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StartupReportTest {
+
+    private static final long SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(30);
+
+    @Test
+    void testRecordSelfAndDependencyTime() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        assertSame(StartupRecorder.OFF, beanFactory.getStartupRecorder());
+        DefaultStartupRecorder recorder = new DefaultStartupRecorder();
+        beanFactory.setStartupRecorder(recorder);
+        beanFactory.registerBeanDefinition("slowLeaf", new BeanDefinition(SlowLeaf.class, InjectionType.SETTER, ScopeType.PROTOTYPE, null, null));
+        beanFactory.registerBeanDefinition("root", new BeanDefinition(Root.class, InjectionType.CONSTRUCTOR, ScopeType.SINGLETON, "init", null));
+
+        beanFactory.getBean("root");
+        beanFactory.getBean("slowLeaf");
+
+        StartupReport report = recorder.getReport();
+        BeanStartupRecord root = report.getBean("root");
+        BeanStartupRecord leaf = report.getBean("slowLeaf");
+        // The constructor of the leaf is charged to the leaf, and to the root as dependency time
+        assertTrue(leaf.getSelfNanos(StartupPhase.INSTANTIATION) >= 2 * SLEEP_NANOS);
+        assertEquals(2, leaf.getCreations());
+        assertTrue(root.getDependencyNanos(StartupPhase.INSTANTIATION) >= SLEEP_NANOS);
+        assertEquals(root.getTotalNanos(), root.getSelfNanos() + root.getDependencyNanos());
+        assertTrue(root.getSelfNanos(StartupPhase.INIT_METHOD) >= SLEEP_NANOS);
+        assertEquals(Arrays.asList("slowLeaf"), root.getDependencies());
+        assertTrue(root.isRoot());
+        assertTrue(leaf.isRoot());
+        List<BeanStartupRecord> slowest = report.getSlowestBeans(5);
+        assertEquals(2, slowest.size());
+        assertTrue(slowest.get(0).getSelfNanos() >= slowest.get(1).getSelfNanos());
+
+        String[] tree = report.dumpTree().split("\n");
+        assertEquals(3, tree.length);
+        assertTrue(tree[0].startsWith("root "));
+        assertTrue(tree[1].startsWith("+- slowLeaf "));
+        assertTrue(tree[2].startsWith("slowLeaf ") && tree[2].endsWith(" x2"));
+    }
+
+    public static class SlowLeaf {
+        public SlowLeaf() throws InterruptedException {
+            Thread.sleep(30);
+        }
+    }
+
+    public static class Root {
+        public Root(SlowLeaf slowLeaf) {
+        }
+
+        public void init() throws InterruptedException {
+            Thread.sleep(30);
+        }
+    }
+}